@@ -0,0 +1,154 @@
+# frozen_string_literal: false
+
+# Runs the whole suite in-process against an in-memory database (no services needed) :
+#
+#   AR_ADAPTER=h2 jruby bench/benchmark_embedded.rb 1000
+#
+# AR_ADAPTER is one of sqlite3 (default), h2 or hsqldb, set BENCH_JSON=results.json
+# to have the results written (as JSON) for comparing runs e.g. across releases.
+
+ENV['AR_EMBEDDED'] ||= 'true'
+
+require File.expand_path('record', File.dirname(__FILE__))
+
+unless EMBEDDED
+  abort "AR_ADAPTER=#{ENV['AR_ADAPTER']} is not embedded (use one of: #{EMBEDDED_ADAPTERS.join(', ')})"
+end
+
+BULK_SIZE = ( ENV['BULK_SIZE'] || 100 ).to_i
+
+fields = {
+    'a_binary' => Random.new.bytes(1024) + Random.new.bytes(512),
+    'a_boolean' => true,
+    'a_date' => Date.today,
+    'a_datetime' => Time.now.to_datetime,
+    'a_decimal' => BigDecimal('1234567890.55555'),
+    'a_float' => 999.99,
+    'a_integer' => 4242,
+    'a_string' => 'BORAT Ipsum!',
+    'a_text' => 'Kazakhstan is the greatest country in the world. ' <<
+        'All other countries are run by little girls. ' <<
+        'Kazakhstan is number one exporter of potassium. ' <<
+        'Other Central Asian countries have inferior potassium.',
+    'a_time' => Time.now.to_time,
+    'a_timestamp' => Time.now
+}
+
+BenchTestHelper.generate_records
+
+stats = BenchTestHelper::Stats.new
+stats.print_header
+
+# create
+
+stats.report("BenchRecord.create()") do
+  BenchRecord.create()
+end
+
+stats.report("BenchRecord.create(...)") do
+  BenchRecord.create!(fields.dup)
+end
+
+# find_all
+
+stats.report("BenchRecord.first(10)") do
+  BenchRecord.first(10)
+end
+
+stats.report("BenchRecord.limit(100).load") do
+  BenchRecord.limit(100).load
+end
+
+# find_attributes
+
+an_id = BenchRecord.last.id
+
+stats.report("BenchRecord.find(an_id)") do
+  BenchRecord.find(an_id)
+end
+
+stats.report("BenchRecord.find(an_id).attributes") do
+  BenchRecord.find(an_id).attributes
+end
+
+# selects
+
+total = BenchRecord.count
+
+%w( a_binary a_boolean a_date a_datetime a_decimal a_float a_integer a_string a_text a_time a_timestamp * ).each do |select|
+  i = 0
+  stats.report("BenchRecord.select('#{select}').where(id: i).first") do
+    BenchRecord.select(select).where(id: ( i += 1 ) % total).first
+  end
+end
+
+# update
+
+record = BenchRecord.create.reload
+
+stats.report("BenchRecord#update() [NOOP]") do
+  record.update!({})
+end
+
+fields.each do |field, value|
+  stats.report("BenchRecord#update('#{field}' => ...)") do
+    record.send "#{field}_will_change!"
+    record.update!(field => value)
+  end
+end
+
+# bulk insert
+
+rows = Array.new(BULK_SIZE) { fields }
+
+stats.report("BenchRecord.insert_all([...]) [#{BULK_SIZE} rows]", ops: BULK_SIZE, times: [ TIMES / 10, 10 ].max) do
+  BenchRecord.insert_all(rows)
+end
+
+connection = BenchRecord.connection
+if connection.respond_to?(:exec_batch_prepared)
+  sql = 'INSERT INTO bench_records (a_integer, a_string, a_float) VALUES (?, ?, ?)'
+  binds_list = Array.new(BULK_SIZE) { |i| [ [ nil, i ], [ nil, "bulk #{i}" ], [ nil, i / 3.0 ] ] }
+  stats.report("exec_batch_prepared(INSERT ...) [#{BULK_SIZE} rows]", ops: BULK_SIZE, times: [ TIMES / 10, 10 ].max) do
+    connection.exec_batch_prepared(sql, 'SQL', binds_list)
+  end
+end
+
+# streaming
+
+stream_size = BenchRecord.count
+stream_sql = 'SELECT * FROM bench_records'
+
+stats.report("select_all(SELECT * ...) [#{stream_size} rows]", ops: stream_size, times: [ TIMES / 100, 10 ].max) do
+  connection.select_all(stream_sql).length
+end
+
+if connection.respond_to?(:exec_query_stream)
+  stats.report("exec_query_stream(SELECT * ...) [#{stream_size} rows]", ops: stream_size, times: [ TIMES / 100, 10 ].max) do
+    count = 0
+    connection.exec_query_stream(stream_sql, 'SQL', [], batch_size: 100) { |batch| count += batch.length }
+    count
+  end
+end
+
+stats.report("BenchRecord.find_each [#{stream_size} rows]", ops: stream_size, times: [ TIMES / 100, 10 ].max) do
+  BenchRecord.find_each(batch_size: 100) { |_| }
+end
+
+puts "\n"
+
+if ( path = ENV['BENCH_JSON'] ) && ! path.empty?
+  meta = {
+      'adapter' => ENV['AR_ADAPTER'],
+      'ruby_version' => RUBY_VERSION,
+      'activerecord_version' => ActiveRecord::VERSION::STRING,
+      'times' => TIMES, 'data_size' => DATA_SIZE, 'bulk_size' => BULK_SIZE,
+      'created_at' => Time.now.utc.iso8601
+  }
+  if defined? JRUBY_VERSION
+    meta['jruby_version'] = JRUBY_VERSION
+    meta['java_version'] = ENV_JAVA['java.runtime.version']
+    meta['arjdbc_version'] = AR_JDBC_VERSION
+  end
+  stats.write_json(path, meta)
+end
@@ -0,0 +1,31 @@
+package arjdbc.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH entry point, same as <code>org.openjdk.jmh.Main</code> except that allocations
+ * are profiled (<code>-prof gc</code>) unless profilers are given explicitly.
+ *
+ * <pre>
+ *   java -jar target/benchmarks.jar ResultMapping -p database=h2
+ * </pre>
+ */
+public final class BenchmarkMain {
+
+    public static void main(final String[] args) throws Exception {
+        final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        if ( cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams() ||
+             cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats() ) {
+            org.openjdk.jmh.Main.main(args); return;
+        }
+
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+        if ( cmdOptions.getProfilers().isEmpty() ) options.addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+
+}
@@ -0,0 +1,133 @@
+package arjdbc.bench;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+
+import org.jruby.Ruby;
+import org.jruby.RubyClass;
+import org.jruby.RubyHash;
+import org.jruby.runtime.Block;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.javasupport.JavaUtil;
+import org.jruby.runtime.builtin.IRubyObject;
+
+import arjdbc.ArJdbcModule;
+import arjdbc.h2.H2RubyJdbcConnection;
+import arjdbc.jdbc.RubyJdbcConnection;
+import arjdbc.sqlite3.SQLite3RubyJdbcConnection;
+
+/**
+ * A JRuby runtime with the adapter's Java parts loaded, for benchmarking without
+ * ActiveRecord installed - the few AR/AM classes used from Java are stubbed out.
+ */
+public final class BenchmarkRuntime {
+
+    public enum Database {
+
+        h2("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "org.h2.Driver", "H2JdbcConnection"),
+        hsqldb("jdbc:hsqldb:mem:bench", "org.hsqldb.jdbcDriver", "JdbcConnection"),
+        sqlite("jdbc:sqlite::memory:", "org.sqlite.JDBC", "SQLite3JdbcConnection");
+
+        final String url, driver, connectionClass;
+
+        Database(final String url, final String driver, final String connectionClass) {
+            this.url = url; this.driver = driver; this.connectionClass = connectionClass;
+        }
+
+    }
+
+    private static final String PRELUDE =
+        "require 'date'; require 'bigdecimal' \n" +
+        "module ActiveRecord \n" +
+        "  def self.default_timezone; :utc; end \n" +
+        "  class ActiveRecordError < StandardError; end \n" +
+        "  class StatementInvalid < ActiveRecordError; end \n" +
+        "  class JDBCError < StatementInvalid; end \n" +
+        "  class NoDatabaseError < StatementInvalid; end \n" +
+        "  class ConnectionNotEstablished < ActiveRecordError; end \n" +
+        "  class TransactionIsolationError < ActiveRecordError; end \n" +
+        "  class Result \n" +
+        "    attr_reader :columns, :rows \n" +
+        "    def initialize(columns, rows, column_types = nil); @columns = columns; @rows = rows; end \n" +
+        "    def length; @rows.length; end \n" +
+        "  end \n" +
+        "  module ConnectionAdapters; end \n" +
+        "end \n" +
+        "module ActiveModel \n" +
+        "  class Attribute \n" +
+        "    attr_reader :name, :value, :type \n" +
+        "    def initialize(name, value, type); @name = name; @value = value; @type = type; end \n" +
+        "    def value_for_database; @value; end \n" +
+        "  end \n" +
+        "  module Type \n" +
+        "    class Value \n" +
+        "      def initialize(type = nil); @type = type; end \n" +
+        "      def type; @type; end \n" +
+        "    end \n" +
+        "  end \n" +
+        "end \n" +
+        "module ActiveSupport; class TimeWithZone; end; end \n";
+
+    private BenchmarkRuntime() { /* static utils */ }
+
+    public static Ruby newRuntime() {
+        final Ruby runtime = Ruby.newInstance();
+        runtime.evalScriptlet(PRELUDE);
+        RubyJdbcConnection.createJdbcConnectionClass(runtime);
+        ArJdbcModule.load(runtime);
+        H2RubyJdbcConnection.load(runtime);
+        SQLite3RubyJdbcConnection.load(runtime);
+        return runtime;
+    }
+
+    /**
+     * @param runtime
+     * @param database
+     * @return a (connected) <code>JdbcConnection</code> for the (in-memory) database
+     */
+    public static RubyJdbcConnection connect(final Ruby runtime, final Database database) {
+        return connect(runtime, database, Collections.emptyMap());
+    }
+
+    /**
+     * @param runtime
+     * @param database
+     * @param options additional (connection) configuration e.g. <code>pipelined_fetch</code>
+     * @return a (connected) <code>JdbcConnection</code> for the (in-memory) database
+     */
+    public static RubyJdbcConnection connect(final Ruby runtime, final Database database, final Map<String, ?> options) {
+        final ThreadContext context = runtime.getCurrentContext();
+        final RubyClass klass = (RubyClass) runtime.evalScriptlet("ActiveRecord::ConnectionAdapters::" + database.connectionClass);
+        final RubyHash config = RubyHash.newHash(runtime);
+        config.fastASet(runtime.newSymbol("url"), runtime.newString(database.url));
+        config.fastASet(runtime.newSymbol("driver"), runtime.newString(database.driver));
+        for ( Map.Entry<String, ?> option : options.entrySet() ) {
+            config.fastASet(runtime.newSymbol(option.getKey()), JavaUtil.convertJavaToRuby(runtime, option.getValue()));
+        }
+        return (RubyJdbcConnection) klass.newInstance(context, config, context.nil, Block.NULL_BLOCK);
+    }
+
+    /**
+     * @param runtime
+     * @param type (SQL) type name e.g. <code>:integer</code>
+     * @param value
+     * @return an <code>ActiveModel::Attribute</code> (bind)
+     */
+    public static IRubyObject newAttribute(final Ruby runtime, final String type, final IRubyObject value) {
+        final ThreadContext context = runtime.getCurrentContext();
+        final RubyClass typeClass = (RubyClass) runtime.evalScriptlet("ActiveModel::Type::Value");
+        final IRubyObject typeObject = typeClass.newInstance(context, runtime.newSymbol(type), Block.NULL_BLOCK);
+        final RubyClass attributeClass = (RubyClass) runtime.evalScriptlet("ActiveModel::Attribute");
+        return attributeClass.newInstance(context, runtime.newString("attr"), value, typeObject, Block.NULL_BLOCK);
+    }
+
+    public static void execute(final Connection connection, final String... sql) throws SQLException {
+        try ( Statement statement = connection.createStatement() ) {
+            for ( String query : sql ) statement.execute(query);
+        }
+    }
+
+}
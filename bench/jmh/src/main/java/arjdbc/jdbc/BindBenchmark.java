@@ -0,0 +1,107 @@
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.Ruby;
+import org.jruby.RubyArray;
+import org.jruby.RubyTime;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import arjdbc.bench.BenchmarkRuntime;
+import arjdbc.bench.BenchmarkRuntime.Database;
+
+/**
+ * Sets (ActiveModel attribute) binds on a prepared statement, with and without
+ * a resolved {@link BindPlan}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BindBenchmark {
+
+    @Param({ "h2", "hsqldb", "sqlite" })
+    public Database database;
+
+    @Param({ "4", "16" })
+    public int binds;
+
+    private Ruby runtime;
+    private RubyJdbcConnection connection;
+    private Connection jdbcConnection;
+    private PreparedStatement statement;
+    private RubyArray bindValues;
+    private BindPlan plan;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        runtime = BenchmarkRuntime.newRuntime();
+        connection = BenchmarkRuntime.connect(runtime, database);
+        jdbcConnection = connection.getConnection(true);
+
+        final ThreadContext context = runtime.getCurrentContext();
+        final StringBuilder columns = new StringBuilder(), params = new StringBuilder();
+        final IRubyObject[] values = new IRubyObject[binds];
+        for ( int i = 0; i < binds; i++ ) {
+            if ( i > 0 ) { columns.append(", "); params.append(", "); }
+            switch ( i % 3 ) {
+                case 0:
+                    columns.append("c").append(i).append(" INTEGER");
+                    values[i] = BenchmarkRuntime.newAttribute(runtime, "integer", runtime.newFixnum(i * 1000));
+                    break;
+                case 1:
+                    columns.append("c").append(i).append(" VARCHAR(100)");
+                    values[i] = BenchmarkRuntime.newAttribute(runtime, "string", runtime.newString("value-" + i));
+                    break;
+                default:
+                    columns.append("c").append(i).append(" TIMESTAMP");
+                    values[i] = BenchmarkRuntime.newAttribute(runtime, "datetime", RubyTime.newTime(runtime, System.currentTimeMillis()));
+            }
+            params.append('?');
+        }
+        bindValues = RubyArray.newArray(runtime, values);
+
+        BenchmarkRuntime.execute(jdbcConnection, "DROP TABLE IF EXISTS bench_binds", "CREATE TABLE bench_binds (" + columns + ")");
+        statement = jdbcConnection.prepareStatement("INSERT INTO bench_binds VALUES (" + params + ")");
+        plan = new BindPlan();
+        connection.setStatementParameters(context, jdbcConnection, statement, bindValues, plan); // resolve
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.disconnect(runtime.getCurrentContext());
+    }
+
+    @Benchmark
+    public PreparedStatement setStatementParameters() throws SQLException {
+        connection.setStatementParameters(runtime.getCurrentContext(), jdbcConnection, statement, bindValues);
+        return statement;
+    }
+
+    @Benchmark
+    public PreparedStatement setStatementParametersPlanned() throws SQLException {
+        connection.setStatementParameters(runtime.getCurrentContext(), jdbcConnection, statement, bindValues, plan);
+        return statement;
+    }
+
+}
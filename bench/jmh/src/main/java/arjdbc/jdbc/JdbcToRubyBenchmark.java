@@ -0,0 +1,102 @@
+package arjdbc.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.Ruby;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import arjdbc.bench.BenchmarkRuntime;
+import arjdbc.bench.BenchmarkRuntime.Database;
+
+/**
+ * Converts a single (JDBC) value into Ruby, per column type (the result set stays
+ * positioned on the same row).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JdbcToRubyBenchmark {
+
+    public enum Column {
+        integer_value, bigint_value, double_value, decimal_value, string_value, date_value, timestamp_value, boolean_value, binary_value
+    }
+
+    @Param({ "h2", "hsqldb", "sqlite" })
+    public Database database;
+
+    @Param
+    public Column column;
+
+    private Ruby runtime;
+    private RubyJdbcConnection connection;
+    private PreparedStatement query;
+    private ResultSet resultSet;
+    private int index, type;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        runtime = BenchmarkRuntime.newRuntime();
+        connection = BenchmarkRuntime.connect(runtime, database);
+        final Connection jdbcConnection = connection.getConnection(true);
+
+        BenchmarkRuntime.execute(jdbcConnection, "DROP TABLE IF EXISTS bench_types",
+                "CREATE TABLE bench_types (integer_value INTEGER, bigint_value BIGINT, double_value DOUBLE, " +
+                "decimal_value DECIMAL(12,2), string_value VARCHAR(100), date_value DATE, timestamp_value TIMESTAMP, " +
+                "boolean_value BOOLEAN, binary_value VARBINARY(64))");
+        try ( PreparedStatement insert = jdbcConnection.prepareStatement("INSERT INTO bench_types VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)") ) {
+            insert.setInt(1, 42);
+            insert.setLong(2, 1L << 40);
+            insert.setDouble(3, 42.42);
+            insert.setBigDecimal(4, new BigDecimal("1234567.89"));
+            insert.setString(5, "a benchmark string value");
+            insert.setDate(6, Date.valueOf("2024-05-17"));
+            insert.setTimestamp(7, Timestamp.valueOf("2024-05-17 13:45:12.123456"));
+            insert.setBoolean(8, true);
+            insert.setBytes(9, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 });
+            insert.executeUpdate();
+        }
+
+        query = jdbcConnection.prepareStatement("SELECT * FROM bench_types");
+        resultSet = query.executeQuery();
+        resultSet.next();
+        index = column.ordinal() + 1;
+        type = resultSet.getMetaData().getColumnType(index);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        resultSet.close(); query.close();
+        connection.disconnect(runtime.getCurrentContext());
+    }
+
+    @Benchmark
+    public IRubyObject jdbcToRuby() throws SQLException {
+        final ThreadContext context = runtime.getCurrentContext();
+        return connection.jdbcToRuby(context, runtime, index, type, resultSet);
+    }
+
+}
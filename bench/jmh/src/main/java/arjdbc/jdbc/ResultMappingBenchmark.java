@@ -0,0 +1,129 @@
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.Ruby;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import arjdbc.bench.BenchmarkRuntime;
+import arjdbc.bench.BenchmarkRuntime.Database;
+
+/**
+ * Maps (in-memory) query results of varying width and row count into an AR result,
+ * the query execution (in-memory) is part of each invocation.
+ * With <code>fetchAhead</code> rows are fetched on a separate (virtual) thread, there's
+ * no network wait to overlap with in-memory databases thus this shows the hand-off cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultMappingBenchmark {
+
+    static final int MAX_ROWS = 1000;
+
+    @Param({ "h2", "hsqldb", "sqlite" })
+    public Database database;
+
+    @Param({ "4", "16" })
+    public int width;
+
+    @Param({ "1", "100", "1000" })
+    public int rows;
+
+    @Param({ "0", "1024" }) // pipelined_fetch (rows fetched ahead), 0 - disabled
+    public int fetchAhead;
+
+    private Ruby runtime;
+    private RubyJdbcConnection connection;
+    private Connection jdbcConnection;
+    private PreparedStatement query;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        runtime = BenchmarkRuntime.newRuntime();
+        connection = BenchmarkRuntime.connect(runtime, database, Collections.singletonMap("pipelined_fetch", fetchAhead));
+        jdbcConnection = connection.getConnection(true);
+
+        final StringBuilder columns = new StringBuilder("id INTEGER");
+        final StringBuilder params = new StringBuilder("?");
+        for ( int i = 1; i < width; i++ ) {
+            columns.append(", c").append(i).append(' ').append(columnType(i));
+            params.append(", ?");
+        }
+        BenchmarkRuntime.execute(jdbcConnection, "DROP TABLE IF EXISTS bench_rows",
+                "CREATE TABLE bench_rows (" + columns + ")");
+
+        try ( PreparedStatement insert = jdbcConnection.prepareStatement("INSERT INTO bench_rows VALUES (" + params + ")") ) {
+            final Timestamp now = new Timestamp(System.currentTimeMillis());
+            for ( int r = 0; r < MAX_ROWS; r++ ) {
+                insert.setInt(1, r);
+                for ( int i = 1; i < width; i++ ) {
+                    switch ( i % 3 ) {
+                        case 0: insert.setInt(i + 1, r * i); break;
+                        case 1: insert.setString(i + 1, "value-" + r + '-' + i); break;
+                        default: insert.setTimestamp(i + 1, now);
+                    }
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        query = jdbcConnection.prepareStatement("SELECT * FROM bench_rows ORDER BY id LIMIT " + rows);
+    }
+
+    private static String columnType(final int i) {
+        switch ( i % 3 ) {
+            case 0: return "INTEGER";
+            case 1: return "VARCHAR(100)";
+            default: return "TIMESTAMP";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        query.close();
+        connection.disconnect(runtime.getCurrentContext());
+    }
+
+    @Benchmark
+    public IRubyObject mapToResult() throws SQLException {
+        final ThreadContext context = runtime.getCurrentContext();
+        try ( ResultSet resultSet = query.executeQuery() ) {
+            final RubyJdbcConnection.ColumnData[] columns = connection.extractColumns(context, jdbcConnection, resultSet, false);
+            return connection.mapToResult(context, jdbcConnection, resultSet, columns);
+        }
+    }
+
+    @Benchmark
+    public IRubyObject jdbcResult() throws SQLException {
+        final ThreadContext context = runtime.getCurrentContext();
+        try ( ResultSet resultSet = query.executeQuery() ) {
+            return new JdbcResult(context, runtime.getObject(), connection, resultSet).toARResult(context);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package arjdbc.postgresql;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.util.ByteList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes (PostgreSQL) bytea values, no database needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteaUtilsBenchmark {
+
+    @Param({ "64", "4096" })
+    public int size;
+
+    private byte[] bytes, hexEscaped, octalEscaped;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+
+        final StringBuilder hex = new StringBuilder(2 + size * 2).append("\\x");
+        for ( byte b : bytes ) hex.append(String.format("%02x", b & 0xff));
+        hexEscaped = hex.toString().getBytes();
+
+        final ByteList octal = ByteaUtils.toStr(bytes, 0, size);
+        octalEscaped = octal.bytes();
+    }
+
+    @Benchmark
+    public ByteList toStr() {
+        return ByteaUtils.toStr(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public ByteList toBytesHex() {
+        return ByteaUtils.toBytes(hexEscaped, 0, hexEscaped.length);
+    }
+
+    @Benchmark
+    public ByteList toBytesOctal() {
+        return ByteaUtils.toBytes(octalEscaped, 0, octalEscaped.length);
+    }
+
+}
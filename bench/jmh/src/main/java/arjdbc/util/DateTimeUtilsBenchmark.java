@@ -0,0 +1,54 @@
+package arjdbc.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTimeZone;
+import org.jruby.Ruby;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses date/time strings (as returned by e.g. SQLite) into Ruby objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateTimeUtilsBenchmark {
+
+    private Ruby runtime;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        runtime = Ruby.newInstance();
+        runtime.evalScriptlet("require 'date'");
+    }
+
+    @Benchmark
+    public IRubyObject parseDateTime() {
+        return DateTimeUtils.parseDateTime(runtime.getCurrentContext(), "2024-05-17 13:45:12.123456", DateTimeZone.UTC);
+    }
+
+    @Benchmark
+    public IRubyObject parseDate() {
+        return DateTimeUtils.parseDate(runtime.getCurrentContext(), "2024-05-17", DateTimeZone.UTC);
+    }
+
+    @Benchmark
+    public IRubyObject parseTime() {
+        return DateTimeUtils.parseTime(runtime.getCurrentContext(), "13:45:12.123456", DateTimeZone.UTC);
+    }
+
+}
@@ -0,0 +1,55 @@
+package arjdbc.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.Ruby;
+import org.jruby.RubyString;
+import org.jruby.runtime.ThreadContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up (column name) strings, e.g. done for every column of a result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringCacheBenchmark {
+
+    @Param({ "8", "64" })
+    public int names;
+
+    private Ruby runtime;
+    private StringCache cache;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        runtime = Ruby.newInstance();
+        cache = new StringCache();
+        keys = new String[names];
+        for ( int i = 0; i < names; i++ ) keys[i] = "column_name_" + i;
+    }
+
+    @Benchmark
+    public RubyString get() {
+        final ThreadContext context = runtime.getCurrentContext();
+        final String key = keys[next++ % keys.length];
+        return cache.get(context, key);
+    }
+
+}
@@ -37,12 +37,25 @@ TIMES = ( ARGV[0] || ENV['TIMES'] || 1000 ).to_i
 # ROW_COUNT = (ARGV[1] || 10).to_i
 DATA_SIZE = ( ENV['DATA_SIZE'] || 1000 ).to_i
 
-config = {
-    :adapter => ENV['AR_ADAPTER'] || 'postgresql', :host => ENV['AR_HOST'] || 'localhost'
-}
-config[:username] = ENV['AR_USERNAME'] if ENV['AR_USERNAME']
-config[:password] = ENV['AR_PASSWORD'] if ENV['AR_PASSWORD']
-config[:database] = ENV['AR_DATABASE'] || 'arjdbc_test'
+# adapters that run in-process (against an in-memory database) with no services needed
+EMBEDDED_ADAPTERS = %w( sqlite3 h2 hsqldb )
+ENV['AR_ADAPTER'] ||= 'sqlite3' if ENV['AR_EMBEDDED']
+EMBEDDED = EMBEDDED_ADAPTERS.include?(ENV['AR_ADAPTER'])
+
+if EMBEDDED
+  config = { :adapter => ENV['AR_ADAPTER'] }
+  config[:database] = ENV['AR_ADAPTER'] == 'sqlite3' ? ':memory:' : 'mem:arjdbc_bench'
+  # prefer the driver from the repo e.g. jdbc-sqlite3/lib over an installed gem
+  driver_dir = File.expand_path("../jdbc-#{ENV['AR_ADAPTER']}/lib", File.dirname(__FILE__))
+  $LOAD_PATH.unshift driver_dir if defined?(JRUBY_VERSION) && File.directory?(driver_dir)
+else
+  config = {
+      :adapter => ENV['AR_ADAPTER'] || 'postgresql', :host => ENV['AR_HOST'] || 'localhost'
+  }
+  config[:username] = ENV['AR_USERNAME'] if ENV['AR_USERNAME']
+  config[:password] = ENV['AR_PASSWORD'] if ENV['AR_PASSWORD']
+  config[:database] = ENV['AR_DATABASE'] || 'arjdbc_test'
+end
 config[:prepared_statements] = true
 
 if defined? JRUBY_VERSION
@@ -140,6 +153,102 @@ module BenchTestHelper
 
   end
 
+  # Measures (single-threaded) operations: latency percentiles, bytes allocated
+  # per operation (on JRuby using the `ThreadMXBean`) and GC counts, collected
+  # results are printed and might be written as JSON.
+  class Stats
+
+    attr_reader :results
+
+    def initialize(times = TIMES, warmup = [ times / 10, 1 ].max)
+      @times = times; @warmup = warmup
+      @results = []
+    end
+
+    # @param ops number of operations a single block call performs (e.g. rows inserted)
+    def report(label, ops: 1, times: @times, &block)
+      @warmup.times(&block)
+      BenchTestHelper.gc
+
+      latencies = Array.new(times)
+      gc_count, gc_time = Stats.gc_stats
+      allocated = Stats.allocated_bytes
+      times.times do |i|
+        start = Process.clock_gettime(Process::CLOCK_MONOTONIC, :nanosecond)
+        yield
+        latencies[i] = Process.clock_gettime(Process::CLOCK_MONOTONIC, :nanosecond) - start
+      end
+      allocated = Stats.allocated_bytes - allocated if allocated
+      gc_count_after, gc_time_after = Stats.gc_stats
+
+      latencies.sort!
+      result = {
+          'name' => label, 'times' => times, 'ops' => ops,
+          'p50_us' => percentile(latencies, 0.50) / 1000.0,
+          'p99_us' => percentile(latencies, 0.99) / 1000.0,
+          'max_us' => latencies.last / 1000.0,
+          'ops_per_sec' => ( times * ops * 1_000_000_000.0 / latencies.sum ).round(1),
+          'allocated_bytes_per_op' => allocated && allocated / ( times * ops ),
+          'gc_count' => gc_count_after - gc_count,
+          'gc_time_ms' => gc_time_after - gc_time
+      }
+      @results << result
+      print_result(result)
+      result
+    end
+
+    def print_header
+      puts format('%-60s %12s %12s %14s %16s %6s', 'benchmark', 'p50 (us)', 'p99 (us)', 'ops/sec', 'bytes/op', 'gc')
+    end
+
+    def write_json(path, meta = {})
+      require 'json'
+      File.write(path, JSON.pretty_generate(meta.merge('results' => @results)))
+      puts " - results written to #{path}"
+    end
+
+    if defined? JRUBY_VERSION
+
+      def self.allocated_bytes
+        thread_bean = java.lang.management.ManagementFactory.getPlatformMXBean(com.sun.management.ThreadMXBean.java_class)
+        thread_bean.getThreadAllocatedBytes(java.lang.Thread.currentThread.getId)
+      rescue NameError, java.lang.UnsupportedOperationException
+        nil # not a HotSpot (compatible) JVM
+      end
+
+      def self.gc_stats
+        count = time = 0
+        java.lang.management.ManagementFactory.getGarbageCollectorMXBeans.each do |bean|
+          count += bean.getCollectionCount; time += bean.getCollectionTime
+        end
+        [ count, time ]
+      end
+
+    else
+
+      def self.allocated_bytes; nil end
+
+      def self.gc_stats
+        stat = GC.stat
+        [ stat[:count], stat[:time] || 0 ]
+      end
+
+    end
+
+    private
+
+    def percentile(sorted, pct)
+      sorted[ [ ( sorted.size * pct ).ceil - 1, 0 ].max ]
+    end
+
+    def print_result(r)
+      label = r['name']; label = "#{label[0, 57]}..." if label.size > 60
+      bytes = r['allocated_bytes_per_op'] ? r['allocated_bytes_per_op'].to_s : 'n/a'
+      puts format('%-60s %12.1f %12.1f %14.1f %16s %6d', label, r['p50_us'], r['p99_us'], r['ops_per_sec'], bytes, r['gc_count'])
+    end
+
+  end
+
 end
 
 def do_profile_data(&block)
@@ -20,6 +20,12 @@ module ArJdbc
       #   @connection.reconnect! # handles adapter.configure_connection
       # end
 
+      # @override
+      def clear_cache!(...)
+        super
+        @raw_connection&.clear_statement_cache # `jdbc_statement_cache_size: ...`
+      end
+
       # @override
       def disconnect!
         super # clear_cache! && reset_transaction
@@ -11,10 +11,19 @@ module ArJdbc
       # the name of the prepared statement
       class StatementPool < ActiveRecord::ConnectionAdapters::StatementPool
 
+        def initialize(statement_limit = nil, adapter = nil)
+          super(statement_limit)
+          @adapter = adapter
+        end
+
         private
 
         def dealloc(statement)
-          statement.close
+          if @adapter
+            @adapter.send(:dealloc_statement, statement)
+          else
+            statement.close
+          end
         end
 
       end
@@ -27,7 +36,7 @@ module ArJdbc
         statement_limit = self.class.type_cast_config_to_integer(@config[:statement_limit])
         @jdbc_statement_cache_enabled = prepared_statements && (statement_limit.nil? || statement_limit > 0)
 
-        @statements = StatementPool.new(statement_limit) # AR (5.0) expects this to be stored as @statements
+        @statements = StatementPool.new(statement_limit, self) # AR (5.0) expects this to be stored as @statements
       end
 
       def delete_cached_statement(sql)
@@ -40,6 +49,15 @@ module ArJdbc
 
       private
 
+      # closing through the connection also drops the statement's (bind types) plan
+      def dealloc_statement(statement)
+        if @raw_connection
+          @raw_connection.close_statement(statement)
+        else
+          statement.close
+        end
+      end
+
       # This should be overridden by the adapter if the sql itself
       # is not enough to make the key unique
       def sql_key(sql)
@@ -0,0 +1,54 @@
+# frozen_string_literal: true
+
+module ArJdbc
+  module Abstract
+
+    # Runs AR's async (`load_async`) queries on virtual threads, a (cheap) thread
+    # per scheduled query, each still checking out its own connection from the pool.
+    #
+    # Configured (e.g. in an initializer, before connection pools get created) using:
+    #
+    #   ArJdbc::Abstract::VirtualThreadExecutor.configure!
+    #
+    # which is the same as `config.active_record.async_query_executor = :global_thread_pool`
+    # with this executor taking the place of AR's (fixed size) global thread pool.
+    class VirtualThreadExecutor
+
+      def self.global
+        @global ||= new
+      end
+
+      def self.configure!
+        ActiveRecord.async_query_executor = :global_thread_pool
+        # AR memoizes the global executor (there's no setter)
+        ActiveRecord.instance_variable_set(:@global_thread_pool_async_query_executor, global)
+      end
+
+      def initialize
+        @executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor
+      end
+
+      def post(*args, &task)
+        @executor.execute { task.call(*args) }
+        true
+      end
+
+      def running?
+        !@executor.isShutdown
+      end
+
+      def shutdown
+        @executor.shutdown
+        true
+      end
+
+      def wait_for_termination(timeout = nil)
+        timeout ||= Float::INFINITY
+        @executor.awaitTermination(timeout.infinite? ? java.lang.Long::MAX_VALUE : (timeout * 1000).to_i,
+                                   java.util.concurrent.TimeUnit::MILLISECONDS)
+      end
+
+    end
+
+  end
+end
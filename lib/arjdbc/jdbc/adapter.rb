@@ -334,6 +334,13 @@ module ActiveRecord
         @connection.foreign_keys(table_name)
       end
 
+      # Introspects all tables at once (a meta-data query per kind, not per table),
+      # useful for loading (or dumping) the whole schema cache.
+      # @return [Hash] table name => `{ columns: [], primary_keys: [], indexes: [], foreign_keys: [] }`
+      def schema_snapshot(schema_name = nil)
+        @connection.schema_snapshot(schema_name)
+      end
+
       # Does our database (+ its JDBC driver) support foreign-keys?
       # @since 1.3.18
       # @override
@@ -65,6 +65,9 @@ module ArJdbc
 
       properties["noDatetimeStringSync"] = true unless properties.key?("noDatetimeStringSync")
 
+      # re-writes batched statements into multi-value ones (see #exec_batch_prepared)
+      properties["rewriteBatchedStatements"] ||= true if config[:jdbc_batch_rewrite]
+
       sslcert = config[:sslcert]
       sslca = config[:sslca]
 
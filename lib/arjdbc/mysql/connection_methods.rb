@@ -69,6 +69,8 @@ ArJdbc::ConnectionMethods.module_eval do
         # properties['failOverReadOnly'] ||= 'false'
       end
       properties['noDatetimeStringSync'] = true unless properties.key?('noDatetimeStringSync')
+      # re-writes batched statements into multi-value ones (see #exec_batch_prepared)
+      properties['rewriteBatchedStatements'] ||= true if config[:jdbc_batch_rewrite]
     end
     if config[:sslkey] || sslcert = config[:sslcert] # || config[:use_ssl]
       properties['useSSL'] ||= true # supported by MariaDB as well
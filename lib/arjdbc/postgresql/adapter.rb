@@ -532,6 +532,56 @@ module ArJdbc
       execute(combine_multi_statements(statements), name)
     end
 
+    COPY_FORMATS = [ :csv, :text, :binary ].freeze # :nodoc:
+    private_constant :COPY_FORMATS
+
+    # Bulk loads data using `COPY table_name (columns) FROM STDIN`.
+    # Rows are encoded (and streamed to the server) in batches, without building
+    # the whole data set in memory.
+    # @param rows [Enumerable, IO, String] arrays of column values (or formatted lines)
+    #   or an IO (or a String) with already formatted data
+    # @param format [Symbol] :csv, :text or :binary (only for pre-encoded data)
+    # @return [Integer] the number of rows copied
+    def copy_from(table_name, columns, rows, format: :csv)
+      if preventing_writes?
+        raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: COPY #{table_name}"
+      end
+
+      format = format.to_sym
+      raise ArgumentError, "unsupported COPY format: #{format.inspect}" unless COPY_FORMATS.include?(format)
+
+      columns = Array(columns)
+      columns = columns.empty? ? nil : " (#{columns.map { |column| quote_column_name(column) }.join(', ')})"
+      sql = "COPY #{quote_table_name(table_name)}#{columns} FROM STDIN WITH (FORMAT #{format})"
+
+      mark_transaction_written_if_write(sql)
+
+      with_raw_connection do |conn|
+        log(sql, 'COPY') { conn.copy_from(sql, rows, format) }
+      end
+    end
+
+    # Exports data using `COPY (sql) TO STDOUT` (or `COPY table_name TO STDOUT`).
+    # Data gets written to the IO (or yielded to the block) in chunks as received
+    # from the server, thus rows are never materialized as Ruby objects.
+    # @param sql [String, Symbol] a (select) query or a table name (as a Symbol)
+    # @param io [IO] to write the data to, when no block is given
+    # @param format [Symbol] :csv, :text or :binary
+    # @return [Integer] the number of rows copied
+    def copy_to(sql, io = nil, format: :csv, &block)
+      raise ArgumentError, 'io or block expected' unless io || block
+
+      format = format.to_sym
+      raise ArgumentError, "unsupported COPY format: #{format.inspect}" unless COPY_FORMATS.include?(format)
+
+      source = sql.is_a?(Symbol) ? quote_table_name(sql) : "(#{sql})"
+      sql = "COPY #{source} TO STDOUT WITH (FORMAT #{format})"
+
+      with_raw_connection do |conn|
+        log(sql, 'COPY') { conn.copy_to(sql, format, io, &block) }
+      end
+    end
+
     # from ActiveRecord::ConnectionAdapters::PostgreSQL::DatabaseStatements
     READ_QUERY = ActiveRecord::ConnectionAdapters::AbstractAdapter.build_read_query_regexp(
       :close, :declare, :fetch, :move, :set, :show
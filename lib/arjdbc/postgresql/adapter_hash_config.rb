@@ -79,6 +79,8 @@ module ArJdbc
 
       properties["tcpKeepAlive"] ||= config[:keepalives] if config.key?(:keepalives)
       properties["kerberosServerName"] ||= config[:krbsrvname] if config[:krbsrvname]
+      # re-writes batched INSERTs into multi-value ones (see #exec_batch_prepared)
+      properties["reWriteBatchedInserts"] ||= true if config[:jdbc_batch_rewrite]
 
       prepared_statements = config.fetch(:prepared_statements, true)
 
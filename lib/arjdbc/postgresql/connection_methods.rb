@@ -52,6 +52,8 @@ ArJdbc::ConnectionMethods.module_eval do
     end
     properties['tcpKeepAlive'] ||= config[:keepalives] if config.key?(:keepalives)
     properties['kerberosServerName'] ||= config[:krbsrvname] if config[:krbsrvname]
+    # re-writes batched INSERTs into multi-value ones (see #exec_batch_prepared)
+    properties['reWriteBatchedInserts'] ||= true if config[:jdbc_batch_rewrite]
 
     prepared_statements = config.fetch(:prepared_statements) { true }
     prepared_statements = false if prepared_statements == 'false'
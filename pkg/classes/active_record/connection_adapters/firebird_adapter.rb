@@ -0,0 +1 @@
+require 'arjdbc/firebird'
\ No newline at end of file
@@ -0,0 +1,59 @@
+# frozen_string_literal: true
+
+module ArJdbc
+  module Abstract
+
+    # An `ActiveRecord::Result` backed by a (Java) column oriented row buffer.
+    # Values are only turned into Ruby objects once rows are accessed, while
+    # single column casts (e.g. `pluck(:id)`) do not create any row arrays.
+    #
+    # Returned from queries when `columnar_results: true` is configured.
+    # @see ActiveRecord::ConnectionAdapters::JdbcConnection::ColumnarResult
+    class ColumnarResult < ::ActiveRecord::Result
+
+      def initialize(buffer, column_types = nil)
+        super(buffer.columns, nil, column_types)
+        @buffer = buffer
+      end
+
+      def rows
+        @rows ||= @buffer.rows
+      end
+
+      def length
+        @rows ? @rows.length : @buffer.length
+      end
+
+      def empty?
+        length == 0
+      end
+
+      def cast_values(type_overrides = {}) # :nodoc:
+        if @rows.nil? && columns.one? && respond_to?(:column_type, true)
+          type = if type_overrides.is_a?(Array)
+            type_overrides.first
+          else
+            column_type(columns.first, 0, type_overrides)
+          end
+          @buffer.column_values(0).map! { |value| type.deserialize(value) }
+        else
+          rows
+          super
+        end
+      end
+
+      # `ActiveRecord::Result` reads `@rows` directly when building hash rows
+      [ :hash_rows, :indexed_rows ].each do |name|
+        next unless method_defined?(name) || private_method_defined?(name)
+        visibility = private_method_defined?(name) ? :private : :public
+
+        define_method(name) do
+          rows
+          super()
+        end
+        send(visibility, name)
+      end
+
+    end
+  end
+end
@@ -0,0 +1,189 @@
+# frozen_string_literal: true
+
+require 'arjdbc/abstract/columnar_result'
+require 'arjdbc/abstract/virtual_thread_executor'
+
+module ArJdbc
+  module Abstract
+
+    # This provides the basic interface for interacting with the
+    # database for JDBC based adapters
+    module DatabaseStatements
+
+      NO_BINDS = [].freeze
+
+      def exec_insert(sql, name = nil, binds = NO_BINDS, pk = nil, sequence_name = nil, returning: nil)
+        if preventing_writes?
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+        end
+
+        mark_transaction_written_if_write(sql)
+
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+
+        with_raw_connection do |conn|
+          if without_prepared_statement?(binds)
+            log(sql, name) { conn.execute_insert_pk(sql, pk) }
+          else
+            log(sql, name, binds) do
+              conn.execute_insert_pk(sql, binds, pk)
+            end
+          end
+        end
+      end
+
+      # It appears that at this point (AR 5.0) "prepare" should only ever be true
+      # if prepared statements are enabled
+      def internal_exec_query(sql, name = nil, binds = NO_BINDS, prepare: false, async: false, allow_retry: false, materialize_transactions: true)
+        if preventing_writes? && write_query?(sql)
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+        end
+
+        mark_transaction_written_if_write(sql)
+
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+
+        with_raw_connection do |conn|
+          if without_prepared_statement?(binds)
+            log(sql, name, async: async) { conn.execute_query(sql) }
+          else
+            log(sql, name, binds, async: async) do
+              # this is different from normal AR that always caches
+              cached_statement = fetch_cached_statement(sql) if prepare && @jdbc_statement_cache_enabled
+              conn.execute_prepared_query(sql, binds, cached_statement)
+            end
+          end
+        end
+      end
+
+      # Starts executing a (select) query on a virtual thread, using a connection checked
+      # out from the pool for the time the query runs (the same as `load_async` does),
+      # this connection is not used by the background query.
+      # Inside a transaction (changes would not be visible to another connection) or
+      # when the adapter is not pooled the query runs right away, on this connection.
+      # @return [ActiveRecord::ConnectionAdapters::JdbcConnection::QueryFuture] resolving
+      #   (using `#value`) into an `ActiveRecord::Result`
+      # @see VirtualThreadExecutor for running `load_async` queries on virtual threads
+      def exec_query_async(sql, name = nil, binds = NO_BINDS)
+        if preventing_writes? && write_query?(sql)
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+        end
+
+        query_future = ::ActiveRecord::ConnectionAdapters::JdbcConnection::QueryFuture
+        if transaction_open? || !pool.respond_to?(:with_connection)
+          return query_future.completed { internal_exec_query(sql, name, binds) }
+        end
+
+        pool = self.pool
+        query_future.submit do
+          pool.with_connection { |conn| conn.internal_exec_query(sql, name, binds, async: true) }
+        end
+      end
+
+      # Executes a (select) query yielding `ActiveRecord::Result`s of (up to) `batch_size`
+      # rows while the rows are streamed from the database, thus memory usage stays flat
+      # even for huge results.
+      # The logged (sql.active_record) duration covers executing the query and fetching
+      # the first batch, it does not include time spent in the block.
+      # @return [Enumerator] (over the batches) when no block is given
+      # @note the block should not use the connection for other queries while streaming.
+      #   On PostgreSQL rows are only streamed within a transaction, outside one the query
+      #   runs in an implicit transaction that stays open while batches are yielded (it is
+      #   rolled back if the block raises)
+      def exec_query_stream(sql, name = nil, binds = NO_BINDS, batch_size: 1000, &block)
+        return enum_for(__method__, sql, name, binds, batch_size: batch_size) unless block_given?
+
+        if preventing_writes? && write_query?(sql)
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+        end
+
+        mark_transaction_written_if_write(sql)
+
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+
+        with_raw_connection do |conn|
+          stream = log(sql, name, binds) { conn.execute_query_stream(sql, binds, batch_size) }
+          begin
+            stream.each(&block)
+          ensure
+            stream.close
+          end
+        end
+      end
+
+      # Executes the same statement for each of the binds in the list using JDBC
+      # batching, a round trip per `batch_size` (`jdbc_batch_size: 1000`) binds.
+      # @return [Array] the update counts and the generated keys (`ActiveRecord::Result`)
+      #   when a `pk` (`true` or the key column name(s)) was given
+      def exec_batch_prepared(sql, name = nil, binds_list = [], pk: nil, batch_size: nil)
+        if preventing_writes?
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+        end
+
+        mark_transaction_written_if_write(sql)
+
+        binds_list = binds_list.map do |binds|
+          binds.first.is_a?(Array) ? convert_legacy_binds_to_attributes(binds) : binds
+        end
+
+        with_raw_connection do |conn|
+          log(sql, name, binds_list.flatten(1)) { conn.execute_batch_prepared(sql, binds_list, pk, batch_size) }
+        end
+      end
+
+      def exec_update(sql, name = 'SQL', binds = NO_BINDS)
+        if preventing_writes?
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+        end
+
+        mark_transaction_written_if_write(sql)
+
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+
+        with_raw_connection do |conn|
+          if without_prepared_statement?(binds)
+            log(sql, name) { conn.execute_update(sql) }
+          else
+            log(sql, name, binds) { conn.execute_prepared_update(sql, binds) }
+          end
+        end
+      end
+      alias :exec_delete :exec_update
+
+      # overridden to support legacy binds
+      def select_all(arel, name = nil, binds = NO_BINDS, preparable: nil, async: false, allow_retry: false)
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+        super
+      end
+
+      private
+
+      def without_prepared_statement?(binds)
+        !prepared_statements || binds.empty?
+      end
+
+      def convert_legacy_binds_to_attributes(binds)
+        binds.map do |column, value|
+          ActiveRecord::Relation::QueryAttribute.new(nil, type_cast(value, column), ActiveModel::Type::Value.new)
+        end
+      end
+
+      def preprocess_query(sql)
+        check_if_write_query(sql) if respond_to?(:check_if_write_query, true)
+        mark_transaction_written_if_write(sql) if respond_to?(:mark_transaction_written_if_write, true)
+        sql
+      end
+
+      def raw_execute(sql, name, binds = [], prepare: false, async: false, allow_retry: false, materialize_transactions: true, batch: false)
+        log(sql, name, async: async) do
+          with_raw_connection(allow_retry: allow_retry, materialize_transactions: materialize_transactions) do |conn|
+            result = conn.execute(sql)
+            verified!
+            result
+          end
+        end
+      end
+
+    end
+  end
+end
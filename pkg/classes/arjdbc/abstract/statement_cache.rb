@@ -0,0 +1,69 @@
+# frozen_string_literal: true
+
+require 'active_record/connection_adapters/statement_pool'
+
+module ArJdbc
+  module Abstract
+    module StatementCache
+
+      # This works a little differently than the AR implementation in that
+      # we are storing an actual PreparedStatement object instead of just
+      # the name of the prepared statement
+      class StatementPool < ActiveRecord::ConnectionAdapters::StatementPool
+
+        def initialize(statement_limit = nil, adapter = nil)
+          super(statement_limit)
+          @adapter = adapter
+        end
+
+        private
+
+        def dealloc(statement)
+          if @adapter
+            @adapter.send(:dealloc_statement, statement)
+          else
+            statement.close
+          end
+        end
+
+      end
+
+      def initialize(*args) # (connection, logger, config)
+        super
+
+        # Only say we support the statement cache if we are using prepared statements
+        # and have a max number of statements defined
+        statement_limit = self.class.type_cast_config_to_integer(@config[:statement_limit])
+        @jdbc_statement_cache_enabled = prepared_statements && (statement_limit.nil? || statement_limit > 0)
+
+        @statements = StatementPool.new(statement_limit, self) # AR (5.0) expects this to be stored as @statements
+      end
+
+      def delete_cached_statement(sql)
+        @statements.delete(sql_key(sql))
+      end
+
+      def fetch_cached_statement(sql)
+        @statements[sql_key(sql)] ||= @raw_connection.prepare_statement(sql)
+      end
+
+      private
+
+      # closing through the connection also drops the statement's (bind types) plan
+      def dealloc_statement(statement)
+        if @raw_connection
+          @raw_connection.close_statement(statement)
+        else
+          statement.close
+        end
+      end
+
+      # This should be overridden by the adapter if the sql itself
+      # is not enough to make the key unique
+      def sql_key(sql)
+        sql
+      end
+
+    end
+  end
+end
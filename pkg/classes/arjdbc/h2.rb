@@ -0,0 +1,3 @@
+require 'arjdbc'
+require 'arjdbc/h2/adapter'
+require 'arjdbc/h2/connection_methods'
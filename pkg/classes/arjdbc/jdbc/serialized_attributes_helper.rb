@@ -0,0 +1,5 @@
+# frozen_string_literal: true
+
+require 'arjdbc/util/serialized_attributes'
+
+ArJdbc.deprecate "require 'arjdbc/util/serialized_attributes' instead of 'arjdbc/jdbc/serialized_attributes_helper'"
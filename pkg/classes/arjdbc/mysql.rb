@@ -0,0 +1,3 @@
+require 'arjdbc'
+require 'arjdbc/mysql/adapter'
+# require 'arjdbc/mysql/connection_methods'
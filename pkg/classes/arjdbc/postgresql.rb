@@ -0,0 +1,3 @@
+require 'arjdbc'
+require 'arjdbc/postgresql/adapter'
+# require 'arjdbc/postgresql/connection_methods'
@@ -0,0 +1,3 @@
+require 'arjdbc'
+require 'arjdbc/sqlite3/adapter'
+# require 'arjdbc/sqlite3/connection_methods'
@@ -0,0 +1,4 @@
+require 'arjdbc/version'
+
+require 'arjdbc'
+ArJdbc.deprecate "require 'arjdbc/version' instead of 'jdbc_adapter/version'"
\ No newline at end of file
@@ -0,0 +1,55 @@
+package arjdbc.jdbc;
+
+import org.jruby.runtime.builtin.IRubyObject;
+
+/**
+ * Resolved (JDBC) parameter types for a cached prepared statement (cached by us or by AR).
+ *
+ * Resolving the JDBC type of a bind goes into Ruby (the attribute type's <code>type</code>)
+ * and does a type name look-up. The result is remembered for the (ActiveModel) type object
+ * seen at a parameter index, thus later executions binding an attribute of the same type
+ * go straight to the setter.
+ *
+ * @see StatementCache#bindPlan(StatementCache.Key)
+ */
+final class BindPlan {
+
+    static final int UNRESOLVED = Integer.MIN_VALUE;
+
+    private static final class Slot {
+
+        final IRubyObject type;
+        final int jdbcType;
+
+        Slot(final IRubyObject type, final int jdbcType) {
+            this.type = type;
+            this.jdbcType = jdbcType;
+        }
+
+    }
+
+    private volatile Slot[] slots = new Slot[8];
+
+    /**
+     * @param index (0-based) parameter index
+     * @param type the attribute's type object
+     * @return resolved JDBC type or {@link #UNRESOLVED}
+     */
+    int jdbcType(final int index, final IRubyObject type) {
+        final Slot[] slots = this.slots;
+        if ( index >= slots.length ) return UNRESOLVED;
+        final Slot slot = slots[index];
+        return slot != null && slot.type == type ? slot.jdbcType : UNRESOLVED;
+    }
+
+    void resolved(final int index, final IRubyObject type, final int jdbcType) {
+        Slot[] slots = this.slots;
+        if ( index >= slots.length ) {
+            final Slot[] newSlots = new Slot[Math.max(index + 1, slots.length * 2)];
+            System.arraycopy(slots, 0, newSlots, 0, slots.length);
+            this.slots = slots = newSlots;
+        }
+        slots[index] = new Slot(type, jdbcType);
+    }
+
+}
@@ -0,0 +1,89 @@
+package arjdbc.jdbc;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jruby.runtime.ThreadContext;
+
+/**
+ * Fails fast while the database is down.
+ *
+ * Breakers are shared by all connections to the same database (URL) within a
+ * Ruby runtime. After a number of consecutive connection failures the breaker
+ * opens and statements are refused without touching the database. Once the timeout passes a single
+ * (trial) statement is let through, closing the breaker on success.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * @param context
+     * @param database the database (URL) identifier
+     * @param threshold consecutive failures opening the breaker
+     * @param timeoutMillis how long the breaker stays open
+     * @return a (shared) breaker for the given database
+     */
+    static CircuitBreaker forDatabase(final ThreadContext context, final String database, final int threshold, final long timeoutMillis) {
+        final Map<String, CircuitBreaker> shared = RubyJdbcConnection.sharedMap(context, "circuit_breakers");
+        return shared.computeIfAbsent(database + '#' + threshold + '#' + timeoutMillis, (key) -> new CircuitBreaker(threshold, timeoutMillis));
+    }
+
+    private final int threshold;
+    private final long timeout; // nanos
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAt;
+
+    private final AtomicLong trips = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    private CircuitBreaker(final int threshold, final long timeoutMillis) {
+        this.threshold = threshold;
+        this.timeout = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * @return whether a statement might be executed (false when open)
+     */
+    boolean allowRequest() {
+        switch ( state.get() ) {
+            case CLOSED: return true;
+            case OPEN:
+                if ( System.nanoTime() - openedAt >= timeout && state.compareAndSet(State.OPEN, State.HALF_OPEN) ) {
+                    return true; // trial
+                } // fall-through
+            default: // HALF_OPEN - trial in progress
+                rejections.incrementAndGet();
+                return false;
+        }
+    }
+
+    void success() {
+        failures.set(0);
+        if ( state.get() != State.CLOSED ) state.set(State.CLOSED);
+    }
+
+    void failure() {
+        if ( state.get() == State.HALF_OPEN ) {
+            open(State.HALF_OPEN); return;
+        }
+        if ( failures.incrementAndGet() >= threshold ) open(State.CLOSED);
+    }
+
+    private void open(final State from) {
+        openedAt = System.nanoTime();
+        if ( state.compareAndSet(from, State.OPEN) ) trips.incrementAndGet();
+    }
+
+    State getState() { return state.get(); }
+
+    long getTrips() { return trips.get(); }
+
+    long getRejections() { return rejections.get(); }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 The JRuby Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package arjdbc.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.jruby.Ruby;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+
+/**
+ * Converts a (JDBC) result set column value into a Ruby object.
+ *
+ * Converters are resolved once per column (from the column's JDBC type) before
+ * the result set gets iterated, thus rows are mapped without re-dispatching on
+ * the column type for every value.
+ *
+ * @see RubyJdbcConnection#converterFor(int)
+ */
+public interface ColumnConverter {
+
+    /**
+     * Convert the value at the given column of the current row.
+     * @param context
+     * @param runtime
+     * @param resultSet positioned at the row to be converted
+     * @param column 1-based column index
+     * @return converted value (nil for SQL NULL)
+     * @throws SQLException
+     */
+    IRubyObject toRuby(ThreadContext context, Ruby runtime, ResultSet resultSet, int column)
+        throws SQLException;
+
+}
@@ -0,0 +1,311 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 The JRuby Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package arjdbc.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.jruby.Ruby;
+import org.jruby.RubyArray;
+import org.jruby.RubyClass;
+import org.jruby.RubyObject;
+import org.jruby.RubyString;
+import org.jruby.anno.JRubyMethod;
+import org.jruby.runtime.Block;
+import org.jruby.runtime.ObjectAllocator;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+
+import static arjdbc.util.StringHelper.newDefaultInternalString;
+import static org.jruby.api.Access.getModule;
+import static org.jruby.api.Access.objectClass;
+import static org.jruby.api.Convert.toInt;
+import static org.jruby.api.Create.newArrayNoCopy;
+import static org.jruby.api.Error.indexError;
+
+/**
+ * A column oriented (JDBC) row buffer, values are kept as read from the result set
+ * (primitive arrays for numbers, raw bytes for strings where the adapter allows it)
+ * and only turned into Ruby objects once the rows (or a column's values) are asked for.
+ *
+ * Returned (wrapped in an <code>ArJdbc::Abstract::ColumnarResult</code>) instead of an
+ * <code>ActiveRecord::Result</code> when <code>columnar_results: true</code> is configured.
+ */
+public class ColumnarResult extends RubyObject {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final RubyString[] columnNames;
+    private final Column[] columns;
+    private int length;
+
+    static RubyClass createColumnarResultClass(ThreadContext context, RubyClass jdbcConnection) {
+        return jdbcConnection.
+                defineClassUnder(context, "ColumnarResult", objectClass(context), ObjectAllocator.NOT_ALLOCATABLE_ALLOCATOR).
+                defineMethods(context, ColumnarResult.class);
+    }
+
+    private ColumnarResult(final ThreadContext context, final RubyClass clazz,
+        final RubyString[] columnNames, final Column[] columns) {
+        super(context.runtime, clazz);
+        this.columnNames = columnNames;
+        this.columns = columns;
+    }
+
+    /**
+     * Reads all of the (remaining) rows from the given result set.
+     * @param context current thread context
+     * @param connection the connection resolving the columns' buffers
+     * @param resultSet the set of results to read
+     * @param columnData the columns to read
+     * @return a new result
+     * @throws SQLException if reading fails
+     */
+    static ColumnarResult newResult(final ThreadContext context, final RubyJdbcConnection connection,
+        final ResultSet resultSet, final RubyJdbcConnection.ColumnData[] columnData) throws SQLException {
+        final RubyClass klass = RubyJdbcConnection.getJdbcConnection(context).getClass(context, "ColumnarResult");
+
+        final ColumnConverter[] converters = connection.converters(columnData);
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        final RubyString[] columnNames = new RubyString[columnData.length];
+        final Column[] columns = new Column[columnData.length];
+        for ( int i = 0; i < columnData.length; i++ ) {
+            columnNames[i] = columnData[i].getName(context);
+            columns[i] = connection.columnarColumnFor(context, metaData, columnData[i], converters[i]);
+        }
+
+        final ColumnarResult result = new ColumnarResult(context, klass, columnNames, columns);
+        final Ruby runtime = context.runtime;
+
+        int row = 0;
+        while ( resultSet.next() ) {
+            for ( int i = 0; i < columns.length; i++ ) {
+                columns[i].read(context, runtime, resultSet, columnData[i].index, row);
+            }
+            row++;
+        }
+        result.length = row;
+        connection.rowsMapped(row);
+        return result;
+    }
+
+    /**
+     * @return the column names
+     */
+    public RubyString[] getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Wraps this buffer into an <code>ActiveRecord::Result</code> (sub-class).
+     * @param context current thread context
+     * @param columnTypes column types (hash) or nil
+     * @return an <code>ArJdbc::Abstract::ColumnarResult</code>
+     */
+    public IRubyObject toARResult(final ThreadContext context, final IRubyObject columnTypes) {
+        final RubyClass Result = getModule(context, "ArJdbc").getModule(context, "Abstract").getClass(context, "ColumnarResult");
+        return Result.newInstance(context, this, columnTypes, Block.NULL_BLOCK);
+    }
+
+    @JRubyMethod
+    public IRubyObject columns(final ThreadContext context) {
+        return newArrayNoCopy(context, columnNames.clone());
+    }
+
+    @JRubyMethod(name = { "length", "size" })
+    public IRubyObject length(final ThreadContext context) {
+        return context.runtime.newFixnum(length);
+    }
+
+    /**
+     * Materializes all of the rows.
+     * @param context current thread context
+     * @return an array of arrays (rows) of values
+     */
+    @JRubyMethod
+    public IRubyObject rows(final ThreadContext context) {
+        final IRubyObject[][] values = new IRubyObject[length][columns.length];
+        for ( int c = 0; c < columns.length; c++ ) {
+            final Column column = columns[c];
+            for ( int r = 0; r < length; r++ ) values[r][c] = column.get(context, r);
+        }
+
+        final IRubyObject[] rows = new IRubyObject[length];
+        for ( int r = 0; r < length; r++ ) rows[r] = newArrayNoCopy(context, values[r]);
+        return newArrayNoCopy(context, rows);
+    }
+
+    /**
+     * Materializes a single column, without creating the row arrays.
+     * @param context current thread context
+     * @param index the (0-based) column index
+     * @return an array of values
+     */
+    @JRubyMethod
+    public IRubyObject column_values(final ThreadContext context, final IRubyObject index) {
+        final int c = toInt(context, index);
+        if ( c < 0 || c >= columns.length ) throw indexError(context, "column index " + c + " out of range");
+
+        final Column column = columns[c];
+        final IRubyObject[] values = new IRubyObject[length];
+        for ( int r = 0; r < length; r++ ) values[r] = column.get(context, r);
+        return newArrayNoCopy(context, values);
+    }
+
+    /**
+     * @return a column buffering values as <code>long</code>s (<code>ResultSet#getLong</code>)
+     */
+    public static Column longColumn() {
+        return new LongColumn();
+    }
+
+    /**
+     * @return a column buffering values as <code>double</code>s (<code>ResultSet#getDouble</code>)
+     */
+    public static Column doubleColumn() {
+        return new DoubleColumn();
+    }
+
+    /**
+     * @return a column buffering values as raw (<code>ResultSet#getBytes</code>) string bytes
+     */
+    public static Column bytesColumn() {
+        return new BytesColumn();
+    }
+
+    /**
+     * @param converter the column's converter
+     * @return a column converting values eagerly (as they are read)
+     */
+    public static Column objectColumn(final ColumnConverter converter) {
+        return new ObjectColumn(converter);
+    }
+
+    /**
+     * A column's value buffer.
+     */
+    public static abstract class Column {
+
+        Column() { /* package-private */ }
+
+        abstract void read(ThreadContext context, Ruby runtime, ResultSet resultSet, int index, int row)
+            throws SQLException;
+
+        abstract IRubyObject get(ThreadContext context, int row);
+
+        static int grow(final int capacity, final int row) {
+            return row < capacity ? capacity : Math.max(INITIAL_CAPACITY, capacity << 1);
+        }
+
+    }
+
+    private static final class LongColumn extends Column {
+
+        private long[] values = new long[INITIAL_CAPACITY];
+        private final BitSet nulls = new BitSet();
+
+        @Override
+        void read(ThreadContext context, Ruby runtime, ResultSet resultSet, int index, int row) throws SQLException {
+            if ( row == values.length ) values = Arrays.copyOf(values, grow(values.length, row));
+
+            final long value = resultSet.getLong(index);
+            if ( value == 0 && resultSet.wasNull() ) nulls.set(row);
+            else values[row] = value;
+        }
+
+        @Override
+        IRubyObject get(ThreadContext context, int row) {
+            if ( nulls.get(row) ) return context.nil;
+            return context.runtime.newFixnum(values[row]);
+        }
+
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private double[] values = new double[INITIAL_CAPACITY];
+        private final BitSet nulls = new BitSet();
+
+        @Override
+        void read(ThreadContext context, Ruby runtime, ResultSet resultSet, int index, int row) throws SQLException {
+            if ( row == values.length ) values = Arrays.copyOf(values, grow(values.length, row));
+
+            final double value = resultSet.getDouble(index);
+            if ( value == 0 && resultSet.wasNull() ) nulls.set(row);
+            else values[row] = value;
+        }
+
+        @Override
+        IRubyObject get(ThreadContext context, int row) {
+            if ( nulls.get(row) ) return context.nil;
+            return context.runtime.newFloat(values[row]);
+        }
+
+    }
+
+    private static final class BytesColumn extends Column {
+
+        private byte[][] values = new byte[INITIAL_CAPACITY][]; // null entries are NULLs
+
+        @Override
+        void read(ThreadContext context, Ruby runtime, ResultSet resultSet, int index, int row) throws SQLException {
+            if ( row == values.length ) values = Arrays.copyOf(values, grow(values.length, row));
+
+            values[row] = resultSet.getBytes(index);
+        }
+
+        @Override
+        IRubyObject get(ThreadContext context, int row) {
+            final byte[] value = values[row];
+            if ( value == null ) return context.nil;
+            return newDefaultInternalString(context.runtime, value);
+        }
+
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        private final ColumnConverter converter;
+        private IRubyObject[] values = new IRubyObject[INITIAL_CAPACITY];
+
+        ObjectColumn(final ColumnConverter converter) { this.converter = converter; }
+
+        @Override
+        void read(ThreadContext context, Ruby runtime, ResultSet resultSet, int index, int row) throws SQLException {
+            if ( row == values.length ) values = Arrays.copyOf(values, grow(values.length, row));
+
+            values[row] = converter.toRuby(context, runtime, resultSet, index);
+        }
+
+        @Override
+        IRubyObject get(ThreadContext context, int row) {
+            return values[row];
+        }
+
+    }
+
+}
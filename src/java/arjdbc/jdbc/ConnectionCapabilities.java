@@ -0,0 +1,76 @@
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * A snapshot of (JDBC) connection capabilities, read from the database meta-data
+ * once per (physical) connection instead of asking the driver on every result
+ * (some drivers do round-trips or non-trivial work in <code>getMetaData()</code>).
+ *
+ * The (session) current schema is remembered as well, until a statement changing
+ * it (e.g. <code>SET search_path</code>) gets executed on the connection.
+ *
+ * @see RubyJdbcConnection#getCapabilities(java.sql.Connection)
+ */
+public final class ConnectionCapabilities {
+
+    private final boolean storesUpperCaseIdentifiers;
+    private final boolean storesLowerCaseIdentifiers;
+    private final boolean supportsGeneratedKeys;
+    private final boolean supportsSavepoints;
+    private final boolean supportsSchemas;
+    private volatile Optional<String> currentSchema; // null - not (yet) known
+
+    private ConnectionCapabilities(final DatabaseMetaData metaData) throws SQLException {
+        this.storesUpperCaseIdentifiers = metaData.storesUpperCaseIdentifiers();
+        this.storesLowerCaseIdentifiers = metaData.storesLowerCaseIdentifiers();
+        this.supportsGeneratedKeys = metaData.supportsGetGeneratedKeys();
+        this.supportsSavepoints = metaData.supportsSavepoints();
+        this.supportsSchemas = metaData.supportsSchemasInTableDefinitions();
+    }
+
+    static ConnectionCapabilities of(final DatabaseMetaData metaData) throws SQLException {
+        return new ConnectionCapabilities(metaData);
+    }
+
+    public boolean storesUpperCaseIdentifiers() { return storesUpperCaseIdentifiers; }
+
+    public boolean storesLowerCaseIdentifiers() { return storesLowerCaseIdentifiers; }
+
+    public boolean supportsGeneratedKeys() { return supportsGeneratedKeys; }
+
+    public boolean supportsSavepoints() { return supportsSavepoints; }
+
+    public boolean supportsSchemas() { return supportsSchemas; }
+
+    /**
+     * @param connection the connection these capabilities belong to
+     * @return the current schema (read once until {@link #schemaChanged()}), null if not supported
+     */
+    String currentSchema(final Connection connection) {
+        Optional<String> schema = this.currentSchema;
+        if ( schema == null ) {
+            try {
+                this.currentSchema = schema = Optional.ofNullable(connection.getSchema());
+            }
+            catch (SQLException|AbstractMethodError e) { // JDBC 4.1
+                return null;
+            }
+        }
+        return schema.orElse(null);
+    }
+
+    void schemaChanged() { this.currentSchema = null; }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{storesUpperCaseIdentifiers=" + storesUpperCaseIdentifiers +
+               ",storesLowerCaseIdentifiers=" + storesLowerCaseIdentifiers +
+               ",supportsGeneratedKeys=" + supportsGeneratedKeys +
+               ",supportsSavepoints=" + supportsSavepoints + ",supportsSchemas=" + supportsSchemas + "}";
+    }
+
+}
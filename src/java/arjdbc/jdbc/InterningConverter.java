@@ -0,0 +1,61 @@
+package arjdbc.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+
+import org.jruby.Ruby;
+import org.jruby.RubyString;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.jruby.util.ByteList;
+
+/**
+ * Shares (frozen) string values of a low-cardinality column (e.g. a status or type column)
+ * within a single result, instead of holding a separate string for every row.
+ *
+ * Converters are resolved for each result thus interned values do not outlive the result.
+ * Interning stops (further values are returned as converted) once the column turns out to
+ * have more distinct values than allowed or too many distinct values compared to rows.
+ *
+ * @see RubyJdbcConnection#converters(RubyJdbcConnection.ColumnData[])
+ */
+final class InterningConverter implements ColumnConverter {
+
+    static final int SAMPLE_SIZE = 128; // values converted before checking the distinct ratio
+    static final int MAX_DISTINCT_RATIO = 2; // at most every other value is a new one
+
+    private final ColumnConverter converter;
+    private final int maxDistinct;
+    private HashMap<ByteList, RubyString> values; // null once interning stopped
+    private int count;
+
+    InterningConverter(final ColumnConverter converter, final int maxDistinct) {
+        this.converter = converter;
+        this.maxDistinct = maxDistinct;
+        this.values = new HashMap<>(16);
+    }
+
+    @Override
+    public IRubyObject toRuby(final ThreadContext context, final Ruby runtime,
+        final ResultSet resultSet, final int column) throws SQLException {
+        final IRubyObject value = converter.toRuby(context, runtime, resultSet, column);
+        final HashMap<ByteList, RubyString> values = this.values;
+        if ( values == null || ! ( value instanceof RubyString ) ) return value;
+
+        count++;
+        final RubyString str = (RubyString) value;
+        final RubyString interned = values.get(str.getByteList());
+        if ( interned != null ) return interned;
+
+        final int distinct = values.size() + 1;
+        if ( distinct > maxDistinct || ( count >= SAMPLE_SIZE && distinct * MAX_DISTINCT_RATIO > count ) ) {
+            this.values = null; // high cardinality column
+            return value;
+        }
+        str.freeze(context);
+        values.put(str.getByteList(), str);
+        return str;
+    }
+
+}
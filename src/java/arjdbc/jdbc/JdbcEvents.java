@@ -0,0 +1,160 @@
+package arjdbc.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import org.jruby.util.SafePropertyAccessor;
+
+import arjdbc.util.SqlFingerprint;
+
+/**
+ * Java Flight Recorder events, emitted only when the <code>arjdbc.jfr</code> system property
+ * is set (e.g. <code>jruby -J-Darjdbc.jfr=true</code>) and a recording is running.
+ *
+ * Without the property set events are never created (the checks are on a constant), with
+ * the property set but no recording JFR's own (enabled) checks apply.
+ */
+final class JdbcEvents {
+
+    static final boolean ENABLED = SafePropertyAccessor.getBoolean("arjdbc.jfr");
+
+    private JdbcEvents() { /* static */ }
+
+    static void commit(final Statement event, final String sql, final int binds, final int rows, final int columns,
+        final long bindTime, final long executeTime, final long mapTime) {
+        event.sql = SqlFingerprint.of(sql); // no (literal) values recorded
+        event.binds = binds;
+        event.rows = rows;
+        event.columns = columns;
+        event.bindTime = bindTime;
+        event.executeTime = executeTime;
+        event.mapTime = mapTime;
+        event.commit();
+    }
+
+    static void commit(final ConnectionUse event, final int retries, final boolean failed) {
+        if ( event.shouldCommit() ) {
+            event.retries = retries;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    static void commit(final ResultMapping event, final int rows, final int columns) {
+        if ( event.shouldCommit() ) {
+            event.rows = rows;
+            event.columns = columns;
+            event.commit();
+        }
+    }
+
+    static void commit(final BindParameters event, final int binds, final boolean planned) {
+        if ( event.shouldCommit() ) {
+            event.binds = binds;
+            event.planned = planned;
+            event.commit();
+        }
+    }
+
+    static void commit(final Connect event, final boolean reconnect, final boolean succeeded) {
+        if ( event.shouldCommit() ) {
+            event.reconnect = reconnect;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    @Name("arjdbc.Statement")
+    @Label("Statement")
+    @Category({ "ActiveRecord-JDBC" })
+    @Description("A statement executed (and its result mapped) by a connection")
+    static final class Statement extends Event {
+
+        @Label("SQL Fingerprint")
+        String sql;
+
+        @Label("Binds")
+        int binds;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Columns")
+        int columns;
+
+        @Label("Bind Time") @Timespan(Timespan.NANOSECONDS)
+        long bindTime;
+
+        @Label("Execute Time") @Timespan(Timespan.NANOSECONDS)
+        long executeTime;
+
+        @Label("Map Time") @Timespan(Timespan.NANOSECONDS)
+        long mapTime;
+
+    }
+
+    @Name("arjdbc.ConnectionUse")
+    @Label("Connection Use")
+    @Category({ "ActiveRecord-JDBC" })
+    @Description("A (statement) block run with a connection, including retries")
+    @StackTrace(false)
+    static final class ConnectionUse extends Event {
+
+        @Label("Retries")
+        int retries;
+
+        @Label("Failed")
+        boolean failed;
+
+    }
+
+    @Name("arjdbc.ResultMapping")
+    @Label("Result Mapping")
+    @Category({ "ActiveRecord-JDBC" })
+    @Description("Rows of a result set mapped into Ruby")
+    @StackTrace(false)
+    static final class ResultMapping extends Event {
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Columns")
+        int columns;
+
+    }
+
+    @Name("arjdbc.BindParameters")
+    @Label("Bind Parameters")
+    @Category({ "ActiveRecord-JDBC" })
+    @Description("Statement parameters set from (Ruby) binds")
+    @StackTrace(false)
+    static final class BindParameters extends Event {
+
+        @Label("Binds")
+        int binds;
+
+        @Label("Planned")
+        boolean planned;
+
+    }
+
+    @Name("arjdbc.Connect")
+    @Label("Connect")
+    @Category({ "ActiveRecord-JDBC" })
+    @Description("A (physical or pooled) connection being established")
+    static final class Connect extends Event {
+
+        @Label("Reconnect")
+        boolean reconnect;
+
+        @Label("Succeeded")
+        boolean succeeded;
+
+    }
+
+}
@@ -106,16 +106,22 @@ public class JdbcResult extends RubyObject {
      */
     private void processResultSet(final ThreadContext context, final ResultSet resultSet) throws SQLException {
         int columnCount = columnNames.length;
+        final ColumnConverter[] converters = connection.converters(columnTypes);
 
-        while (resultSet.next()) {
-            final IRubyObject[] row = new IRubyObject[columnCount];
+        final ResultSet rows = connection.fetchAhead(resultSet, columnTypes);
+        try {
+            while (rows.next()) {
+                final IRubyObject[] row = new IRubyObject[columnCount];
 
-            for (int i = 0; i < columnCount; i++) {
-                row[i] = connection.jdbcToRuby(context, context.runtime, i + 1, columnTypes[i], resultSet); // Result Set is 1 based
-            }
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = converters[i].toRuby(context, context.runtime, rows, i + 1); // Result Set is 1 based
+                }
 
-            values.append(context, newArrayNoCopy(context, row));
+                values.append(context, newArrayNoCopy(context, row));
+            }
         }
+        finally { if (rows != resultSet) rows.close(); }
+        connection.rowsMapped(values.size());
     }
 
     /**
@@ -0,0 +1,1022 @@
+package arjdbc.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A (forward-only) {@link ResultSet} whose rows are fetched ahead on another thread,
+ * thus the driver (waiting for the network once its fetch buffer drains) works while
+ * the calling thread converts the previous rows into Ruby objects.
+ *
+ * Column values are read using {@link RubyJdbcConnection#fetchValue(ResultSet, int, int)}
+ * (matching the getters column converters use) into a bounded buffer, the getters
+ * here return the buffered values. The underlying result set is only accessed by the
+ * fetching thread, it is not closed by {@link #close()} which waits for the fetching
+ * to stop (the caller still owns the result set).
+ *
+ * Fetching runs on (daemon) platform threads by default, as drivers tend to block
+ * while holding monitors (which would pin a virtual thread to its carrier).
+ */
+final class PipelinedResultSet implements ResultSet {
+
+    static final int CHUNK_SIZE = 64; // rows handed over at once
+
+    private static final Object[][] END = new Object[0][];
+
+    private static class ExecutorHolder { // lazy - only started on first use
+        private static final AtomicInteger count = new AtomicInteger();
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool((task) -> {
+            final Thread thread = new Thread(task, "arjdbc-fetch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the (shared) executor fetching runs on unless configured otherwise
+     */
+    static Executor defaultExecutor() { return ExecutorHolder.EXECUTOR; }
+
+    private final RubyJdbcConnection connection;
+    private final ResultSet resultSet;
+    private final ResultSetMetaData metaData;
+    private final int[] types;
+
+    private final BlockingQueue<Object[][]> chunks;
+    private final CountDownLatch fetched = new CountDownLatch(1); // fetching stopped
+    private volatile boolean closed;
+    private volatile SQLException failure;
+
+    private Object[][] chunk = END; private int position = -1;
+    private Object[] row; private Object lastValue;
+    private boolean done; private int rowNumber;
+
+    /**
+     * @param connection
+     * @param resultSet the result set to fetch rows from (not to be accessed while fetching)
+     * @param types (JDBC) column types
+     * @param fetchAhead (maximum) number of rows fetched ahead
+     * @param executor to fetch rows on
+     * @throws SQLException
+     * @throws java.util.concurrent.RejectedExecutionException if the executor did not accept fetching
+     */
+    PipelinedResultSet(final RubyJdbcConnection connection, final ResultSet resultSet,
+        final int[] types, final int fetchAhead, final Executor executor) throws SQLException {
+        this.connection = connection;
+        this.resultSet = resultSet;
+        this.metaData = resultSet.getMetaData(); // converters might ask for it
+        this.types = types;
+        this.chunks = new ArrayBlockingQueue<>(Math.max(1, fetchAhead / CHUNK_SIZE));
+        executor.execute(this::fetch);
+    }
+
+    private void fetch() {
+        try {
+            final int columns = types.length;
+            Object[][] chunk = new Object[CHUNK_SIZE][]; int size = 0;
+            while ( ! closed && resultSet.next() ) {
+                final Object[] row = new Object[columns];
+                for ( int i = 0; i < columns; i++ ) {
+                    row[i] = connection.fetchValue(resultSet, i + 1, types[i]);
+                }
+                chunk[size++] = row;
+                if ( size == CHUNK_SIZE ) {
+                    if ( ! put(chunk) ) return;
+                    chunk = new Object[CHUNK_SIZE][]; size = 0;
+                }
+            }
+            if ( size > 0 ) put(Arrays.copyOf(chunk, size));
+        }
+        catch (SQLException e) { failure = e; }
+        catch (RuntimeException e) { failure = new SQLException(e.getMessage(), e); }
+        finally {
+            put(END);
+            fetched.countDown();
+        }
+    }
+
+    private boolean put(final Object[][] chunk) {
+        try {
+            while ( ! closed ) { // the consumer might have given up (closed) while we're waiting
+                if ( chunks.offer(chunk, 10, TimeUnit.MILLISECONDS) ) return true;
+            }
+        }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        return false;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if ( ++position < chunk.length ) {
+            row = chunk[position]; rowNumber++; return true;
+        }
+        if ( done || closed ) return false;
+
+        final Object[][] next;
+        try {
+            next = chunks.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while fetching rows", e);
+        }
+        if ( next == END ) {
+            done = true; row = null; chunk = END;
+            final SQLException failure = this.failure;
+            if ( failure != null ) throw failure;
+            return false;
+        }
+        chunk = next; position = 0;
+        row = chunk[0]; rowNumber++;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if ( closed ) return;
+        closed = true;
+        chunks.clear(); // in case the fetcher is blocked on a full buffer
+        boolean interrupted = false;
+        while ( true ) { // the (underlying) result set must not be used once we return
+            try {
+                fetched.await(); break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if ( interrupted ) Thread.currentThread().interrupt();
+        row = null; chunk = END;
+    }
+
+    @Override
+    public boolean isClosed() { return closed; }
+
+    private Object value(final int column) throws SQLException {
+        if ( row == null ) throw new SQLException("no current row");
+        if ( column < 1 || column > row.length ) throw new SQLException("invalid column index: " + column);
+        return lastValue = row[column - 1];
+    }
+
+    @Override
+    public boolean wasNull() { return lastValue == null; }
+
+    // GET-ERS :
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null || value instanceof String ) return (String) value;
+        if ( value instanceof byte[] ) return new String((byte[]) value, StandardCharsets.UTF_8);
+        return value.toString();
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null ) return false;
+        if ( value instanceof Boolean ) return (Boolean) value;
+        if ( value instanceof Number ) return ((Number) value).intValue() != 0;
+        final String str = value.toString().trim();
+        return "1".equals(str) || "t".equalsIgnoreCase(str) || "true".equalsIgnoreCase(str);
+    }
+
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        return (byte) getLong(columnIndex);
+    }
+
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        return (short) getLong(columnIndex);
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        return (int) getLong(columnIndex);
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null ) return 0;
+        if ( value instanceof Number ) return ((Number) value).longValue();
+        if ( value instanceof Boolean ) return ((Boolean) value) ? 1 : 0;
+        try {
+            return new BigDecimal(value.toString().trim()).longValue();
+        }
+        catch (NumberFormatException e) {
+            throw new SQLException("not a number: " + value, e);
+        }
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        return (float) getDouble(columnIndex);
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null ) return 0;
+        if ( value instanceof Number ) return ((Number) value).doubleValue();
+        try {
+            return Double.parseDouble(value.toString().trim());
+        }
+        catch (NumberFormatException e) {
+            throw new SQLException("not a number: " + value, e);
+        }
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null || value instanceof BigDecimal ) return (BigDecimal) value;
+        if ( value instanceof Long || value instanceof Integer ) return BigDecimal.valueOf(((Number) value).longValue());
+        if ( value instanceof Number ) return BigDecimal.valueOf(((Number) value).doubleValue());
+        try {
+            return new BigDecimal(value.toString().trim());
+        }
+        catch (NumberFormatException e) {
+            throw new SQLException("not a number: " + value, e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+        final BigDecimal value = getBigDecimal(columnIndex);
+        return value == null ? null : value.setScale(scale, BigDecimal.ROUND_HALF_UP);
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null || value instanceof byte[] ) return (byte[]) value;
+        return value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null || value instanceof Date ) return (Date) value;
+        if ( value instanceof java.util.Date ) return new Date(((java.util.Date) value).getTime());
+        try {
+            return Date.valueOf(value.toString().trim());
+        }
+        catch (IllegalArgumentException e) {
+            throw new SQLException("not a date: " + value, e);
+        }
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null || value instanceof Time ) return (Time) value;
+        if ( value instanceof java.util.Date ) return new Time(((java.util.Date) value).getTime());
+        try {
+            return Time.valueOf(value.toString().trim());
+        }
+        catch (IllegalArgumentException e) {
+            throw new SQLException("not a time: " + value, e);
+        }
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null || value instanceof Timestamp ) return (Timestamp) value;
+        if ( value instanceof java.util.Date ) return new Timestamp(((java.util.Date) value).getTime());
+        try {
+            return Timestamp.valueOf(value.toString().trim());
+        }
+        catch (IllegalArgumentException e) {
+            throw new SQLException("not a timestamp: " + value, e);
+        }
+    }
+
+    @Override
+    public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+        return getDate(columnIndex); // fetched values are already resolved
+    }
+
+    @Override
+    public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+        return getTime(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+        return getTimestamp(columnIndex);
+    }
+
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        final byte[] bytes = getBytes(columnIndex);
+        return bytes == null ? null : new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public InputStream getAsciiStream(int columnIndex) throws SQLException {
+        final String value = getString(columnIndex);
+        return value == null ? null : new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getUnicodeStream()");
+    }
+
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        final String value = getString(columnIndex);
+        return value == null ? null : new StringReader(value);
+    }
+
+    @Override
+    public Reader getNCharacterStream(int columnIndex) throws SQLException {
+        return getCharacterStream(columnIndex);
+    }
+
+    @Override
+    public String getNString(int columnIndex) throws SQLException {
+        return getString(columnIndex);
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        return value(columnIndex);
+    }
+
+    @Override
+    public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+        final Object value = value(columnIndex);
+        if ( value == null || type.isInstance(value) ) return type.cast(value);
+        throw new SQLException("can not convert " + value.getClass().getName() + " to " + type.getName());
+    }
+
+    @Override
+    public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+        return getObject(columnIndex);
+    }
+
+    @Override
+    public Array getArray(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getArray()");
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getBlob()");
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getClob()");
+    }
+
+    @Override
+    public NClob getNClob(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getNClob()");
+    }
+
+    @Override
+    public Ref getRef(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getRef()");
+    }
+
+    @Override
+    public URL getURL(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getURL()");
+    }
+
+    @Override
+    public RowId getRowId(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getRowId()");
+    }
+
+    @Override
+    public SQLXML getSQLXML(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getSQLXML()");
+    }
+
+    // (column) label GET-ERS :
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        for ( int i = 1; i <= types.length; i++ ) {
+            if ( columnLabel.equalsIgnoreCase(metaData.getColumnLabel(i)) ) return i;
+        }
+        throw new SQLException("column not found: " + columnLabel);
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return getBoolean(findColumn(columnLabel));
+    }
+
+    @Override
+    public byte getByte(String columnLabel) throws SQLException {
+        return getByte(findColumn(columnLabel));
+    }
+
+    @Override
+    public short getShort(String columnLabel) throws SQLException {
+        return getShort(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public float getFloat(String columnLabel) throws SQLException {
+        return getFloat(findColumn(columnLabel));
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel), scale);
+    }
+
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        return getBytes(findColumn(columnLabel));
+    }
+
+    @Override
+    public Date getDate(String columnLabel) throws SQLException {
+        return getDate(findColumn(columnLabel));
+    }
+
+    @Override
+    public Time getTime(String columnLabel) throws SQLException {
+        return getTime(findColumn(columnLabel));
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
+    }
+
+    @Override
+    public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+        return getDate(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+        return getTime(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+        return getTimestamp(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public InputStream getAsciiStream(String columnLabel) throws SQLException {
+        return getAsciiStream(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+        return getUnicodeStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public InputStream getBinaryStream(String columnLabel) throws SQLException {
+        return getBinaryStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public Reader getCharacterStream(String columnLabel) throws SQLException {
+        return getCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public Reader getNCharacterStream(String columnLabel) throws SQLException {
+        return getNCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getNString(String columnLabel) throws SQLException {
+        return getNString(findColumn(columnLabel));
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+        return getObject(findColumn(columnLabel), type);
+    }
+
+    @Override
+    public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+        return getObject(findColumn(columnLabel), map);
+    }
+
+    @Override
+    public Array getArray(String columnLabel) throws SQLException {
+        return getArray(findColumn(columnLabel));
+    }
+
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+        return getBlob(findColumn(columnLabel));
+    }
+
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+        return getClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public NClob getNClob(String columnLabel) throws SQLException {
+        return getNClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public Ref getRef(String columnLabel) throws SQLException {
+        return getRef(findColumn(columnLabel));
+    }
+
+    @Override
+    public URL getURL(String columnLabel) throws SQLException {
+        return getURL(findColumn(columnLabel));
+    }
+
+    @Override
+    public RowId getRowId(String columnLabel) throws SQLException {
+        return getRowId(findColumn(columnLabel));
+    }
+
+    @Override
+    public SQLXML getSQLXML(String columnLabel) throws SQLException {
+        return getSQLXML(findColumn(columnLabel));
+    }
+
+    // (forward-only, read-only) cursor :
+
+    @Override
+    public ResultSetMetaData getMetaData() { return metaData; }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        throw new SQLFeatureNotSupportedException("getStatement()");
+    }
+
+    @Override
+    public SQLWarning getWarnings() { return null; }
+
+    @Override
+    public void clearWarnings() { /* NOOP */ }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        throw new SQLFeatureNotSupportedException("getCursorName()");
+    }
+
+    @Override
+    public int getRow() { return done ? 0 : rowNumber; }
+
+    @Override
+    public boolean isBeforeFirst() { return rowNumber == 0 && ! done; }
+
+    @Override
+    public boolean isAfterLast() { return done && rowNumber > 0; }
+
+    @Override
+    public boolean isFirst() { return rowNumber == 1 && ! done; }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        throw new SQLFeatureNotSupportedException("isLast()");
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        if ( direction != FETCH_FORWARD ) throw new SQLFeatureNotSupportedException("forward-only");
+    }
+
+    @Override
+    public int getFetchDirection() { return FETCH_FORWARD; }
+
+    @Override
+    public void setFetchSize(int rows) { /* NOOP */ }
+
+    @Override
+    public int getFetchSize() { return CHUNK_SIZE; }
+
+    @Override
+    public int getType() { return TYPE_FORWARD_ONLY; }
+
+    @Override
+    public int getConcurrency() { return CONCUR_READ_ONLY; }
+
+    @Override
+    public int getHoldability() { return CLOSE_CURSORS_AT_COMMIT; }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if ( iface.isAssignableFrom(getClass()) ) return (T) this;
+        throw new SQLException(getClass().getName() + " does not wrap " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isAssignableFrom(getClass());
+    }
+
+    // UPDATE-ERS :
+
+    @Override
+    public boolean rowUpdated() { return false; }
+
+    @Override
+    public boolean rowInserted() { return false; }
+
+    @Override
+    public boolean rowDeleted() { return false; }
+
+    @Override
+    public void insertRow() throws SQLException {
+        throw new SQLFeatureNotSupportedException("row inserts");
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        throw new SQLFeatureNotSupportedException("row updates");
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        throw new SQLFeatureNotSupportedException("row deletes");
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        throw new SQLFeatureNotSupportedException("refreshRow()");
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        throw new SQLFeatureNotSupportedException("row updates");
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        throw new SQLFeatureNotSupportedException("row inserts");
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        throw new SQLFeatureNotSupportedException("row inserts");
+    }
+
+    private static SQLException readOnly() {
+        return new SQLFeatureNotSupportedException("read-only");
+    }
+
+    @Override
+    public void updateNull(int columnIndex) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBoolean(int columnIndex, boolean x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateByte(int columnIndex, byte x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateShort(int columnIndex, short x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateInt(int columnIndex, int x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateLong(int columnIndex, long x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateFloat(int columnIndex, float x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateDouble(int columnIndex, double x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateString(int columnIndex, String x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBytes(int columnIndex, byte[] x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateDate(int columnIndex, Date x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateTime(int columnIndex, Time x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateObject(int columnIndex, Object x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNull(String columnLabel) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBoolean(String columnLabel, boolean x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateByte(String columnLabel, byte x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateShort(String columnLabel, short x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateInt(String columnLabel, int x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateLong(String columnLabel, long x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateFloat(String columnLabel, float x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateDouble(String columnLabel, double x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateString(String columnLabel, String x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBytes(String columnLabel, byte[] x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateDate(String columnLabel, Date x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateTime(String columnLabel, Time x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateObject(String columnLabel, Object x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateRef(int columnIndex, Ref x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateRef(String columnLabel, Ref x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBlob(int columnIndex, Blob x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBlob(String columnLabel, Blob x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateClob(int columnIndex, Clob x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateClob(String columnLabel, Clob x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateArray(int columnIndex, Array x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateArray(String columnLabel, Array x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateRowId(int columnIndex, RowId x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateRowId(String columnLabel, RowId x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNString(int columnIndex, String nString) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNString(String columnLabel, String nString) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNClob(int columnIndex, NClob nClob) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNClob(String columnLabel, NClob nClob) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader) throws SQLException { throw readOnly(); }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader) throws SQLException { throw readOnly(); }
+
+}
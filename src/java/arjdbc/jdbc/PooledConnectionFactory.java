@@ -0,0 +1,412 @@
+package arjdbc.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jruby.runtime.ThreadContext;
+
+/**
+ * A (bounded) pool of physical connections, for drivers used without a data-source.
+ *
+ * Pools are shared by all connections (of a Ruby runtime) using the same driver,
+ * URL, credentials and driver properties, thus a re-connect or a connection reaped
+ * by the AR pool does not need a new (TCP + auth) handshake. Closing a leased
+ * connection returns it to the pool, with the auto-commit, transaction isolation
+ * and read-only flags reset (only when changed) and the (optional) reset SQL
+ * executed, clearing session state such as temporary tables or variables.
+ *
+ * Idle connections get closed after the idle timeout or once they reach their
+ * max lifetime, with a keep-alive configured idle connections are validated in
+ * the background. Pools are shut down along with the runtime.
+ */
+final class PooledConnectionFactory implements ConnectionFactory {
+
+    private static final int VALID_TIMEOUT = 5; // seconds
+
+    /**
+     * @param context
+     * @param factory creating physical connections
+     * @param resetSQL executed on connections returned to the pool (e.g. <code>DISCARD ALL</code>), null for none
+     * @param maxSize max number of (leased + idle) connections
+     * @param timeout how long to wait (millis) for a connection when all are leased
+     * @param idleTimeout (millis) 0 to keep idle connections
+     * @param maxLifetime (millis) 0 for no limit
+     * @param keepAlive how often (millis) idle connections are validated, 0 to not validate
+     * @return a (shared) pool for the given database
+     */
+    static PooledConnectionFactory forDatabase(final ThreadContext context,
+        final DriverConnectionFactory factory, final String resetSQL,
+        final int maxSize, final long timeout, final long idleTimeout, final long maxLifetime, final long keepAlive) {
+        final DriverWrapper driver = factory.getDriverWrapper();
+        // connections are interchangeable only if connected the very same way
+        final List<Object> key = Arrays.asList(driver.getDriverInstance().getClass().getName(),
+                new HashMap<>(driver.getProperties()), factory.url, factory.username, factory.password,
+                resetSQL, maxSize, timeout, idleTimeout, maxLifetime, keepAlive);
+
+        final Map<List<Object>, PooledConnectionFactory> shared = RubyJdbcConnection.sharedMap(context, "connection_pools");
+        return shared.computeIfAbsent(key, (k) -> {
+            final PooledConnectionFactory pool = new PooledConnectionFactory(factory, resetSQL,
+                    maxSize, timeout, idleTimeout, maxLifetime, keepAlive);
+            context.runtime.addInternalFinalizer(pool::shutdown);
+            return pool;
+        });
+    }
+
+    private final ConnectionFactory factory;
+    private final String resetSQL;
+    private final int maxSize;
+    private final long timeout; // millis
+    private final long idleTimeout; // nanos
+    private final long maxLifetime; // nanos
+    private final long keepAlive; // nanos
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicLong created = new AtomicLong(), leased = new AtomicLong(), evicted = new AtomicLong();
+    private volatile boolean shutdown;
+
+    private PooledConnectionFactory(final ConnectionFactory factory, final String resetSQL,
+        final int maxSize, final long timeout, final long idleTimeout, final long maxLifetime, final long keepAlive) {
+        this.factory = factory;
+        this.resetSQL = resetSQL;
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        this.maxLifetime = TimeUnit.MILLISECONDS.toNanos(maxLifetime);
+        this.keepAlive = TimeUnit.MILLISECONDS.toNanos(keepAlive);
+        this.permits = new Semaphore(maxSize, true);
+
+        long period = Long.MAX_VALUE;
+        if ( idleTimeout > 0 ) period = Math.min(period, idleTimeout / 2);
+        if ( maxLifetime > 0 ) period = Math.min(period, maxLifetime / 2);
+        if ( keepAlive > 0 ) period = Math.min(period, keepAlive);
+        if ( period == Long.MAX_VALUE ) {
+            this.housekeeper = null;
+        }
+        else {
+            period = Math.max(period, 100);
+            this.housekeeper = Executors.newSingleThreadScheduledExecutor((task) -> {
+                final Thread thread = new Thread(task, "arjdbc-pool-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Leases a connection (waiting up to the timeout when all connections are leased).
+     * @return a pooled connection, returned to the pool on <code>close()</code>
+     * @throws SQLException
+     */
+    @Override
+    public Connection newConnection() throws SQLException {
+        if ( shutdown ) throw new SQLTransientConnectionException("connection pool shut down", "08003");
+        try {
+            if ( ! permits.tryAcquire(timeout, TimeUnit.MILLISECONDS) ) {
+                throw new SQLTransientConnectionException("could not obtain a connection within " + timeout +
+                        " ms (all " + maxSize + " pooled connections are in use)", "08001");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("interrupted while waiting for a connection", "08001", e);
+        }
+
+        try {
+            final long now = System.nanoTime();
+            PooledConnection pooled;
+            while ( ( pooled = idle.pollFirst() ) != null ) { // LIFO - most recently used first
+                if ( pooled.isExpired(now) ) evict(pooled);
+                else break;
+            }
+            if ( pooled == null ) {
+                final Connection connection = factory.newConnection();
+                try {
+                    pooled = new PooledConnection(connection, now);
+                }
+                catch (SQLException|RuntimeException e) {
+                    RubyJdbcConnection.close(connection); throw e;
+                }
+                created.incrementAndGet();
+            }
+            leased.incrementAndGet();
+            return pooled.lease();
+        }
+        catch (SQLException|RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(final PooledConnection pooled, final Lease lease) {
+        try {
+            if ( shutdown || lease.broken || pooled.isExpired(System.nanoTime()) || pooled.connection.isClosed() ) {
+                evict(pooled); return;
+            }
+            pooled.reset(lease);
+            pooled.lastUsed = System.nanoTime();
+            idle.offerFirst(pooled);
+        }
+        catch (SQLException|RuntimeException e) {
+            evict(pooled); // broken connection
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Marks a (leased) connection as broken, it gets closed instead of being returned to the pool.
+     * @param connection
+     */
+    static void markBroken(final Connection connection) {
+        if ( connection != null && Proxy.isProxyClass(connection.getClass()) ) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(connection);
+            if ( handler instanceof Lease ) ((Lease) handler).broken = true;
+        }
+    }
+
+    /**
+     * @param e
+     * @return whether the exception signals a failed connection (SQLState class 08)
+     */
+    static boolean isConnectionFailure(final Throwable e) {
+        if ( ! ( e instanceof SQLException ) ) return false;
+        final String sqlState = ((SQLException) e).getSQLState();
+        return sqlState != null && sqlState.startsWith("08");
+    }
+
+    private void evict(final PooledConnection pooled) {
+        evicted.incrementAndGet();
+        RubyJdbcConnection.close(pooled.connection);
+    }
+
+    private void houseKeep() {
+        final long now = System.nanoTime();
+        final Iterator<PooledConnection> it = idle.descendingIterator(); // least recently used first
+        while ( it.hasNext() ) {
+            final PooledConnection pooled = it.next();
+            final boolean idleTooLong = idleTimeout > 0 && now - pooled.lastUsed > idleTimeout;
+            if ( idleTooLong || pooled.isExpired(now) ) {
+                if ( idle.removeLastOccurrence(pooled) ) evict(pooled);
+            }
+            else if ( keepAlive > 0 && now - pooled.lastUsed > keepAlive ) {
+                if ( ! idle.removeLastOccurrence(pooled) ) continue; // leased in the meantime
+                if ( isValid(pooled.connection) ) {
+                    pooled.lastUsed = System.nanoTime();
+                    idle.offerLast(pooled);
+                }
+                else {
+                    evict(pooled);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes idle connections and stops the background housekeeping, connections
+     * still leased get closed once returned.
+     */
+    void shutdown() {
+        shutdown = true;
+        if ( housekeeper != null ) housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ( ( pooled = idle.pollFirst() ) != null ) evict(pooled);
+    }
+
+    private static boolean isValid(final Connection connection) {
+        try {
+            return connection.isValid(VALID_TIMEOUT);
+        }
+        catch (SQLException|RuntimeException e) {
+            return false;
+        }
+    }
+
+    int getMaxSize() { return maxSize; }
+
+    int getIdleCount() { return idle.size(); }
+
+    int getLeasedCount() { return maxSize - permits.availablePermits(); }
+
+    long getCreatedCount() { return created.get(); }
+
+    long getLeaseCount() { return leased.get(); }
+
+    long getEvictedCount() { return evicted.get(); }
+
+    /**
+     * A physical connection along with its initial state (the state gets reset to on return).
+     */
+    private final class PooledConnection {
+
+        final Connection connection;
+        final long createdAt; // nanos
+        volatile long lastUsed; // nanos
+
+        private final boolean autoCommit;
+        private final int isolation;
+        private final boolean readOnly;
+
+        PooledConnection(final Connection connection, final long createdAt) throws SQLException {
+            this.connection = connection;
+            this.createdAt = this.lastUsed = createdAt;
+            this.autoCommit = connection.getAutoCommit();
+            this.isolation = connection.getTransactionIsolation();
+            this.readOnly = connection.isReadOnly();
+        }
+
+        boolean isExpired(final long now) {
+            return maxLifetime > 0 && now - createdAt > maxLifetime;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Lease(this));
+        }
+
+        void reset(final Lease lease) throws SQLException {
+            if ( lease.autoCommitChanged ) {
+                if ( ! connection.getAutoCommit() ) connection.rollback(); // un-committed work
+                connection.setAutoCommit(autoCommit);
+            }
+            if ( lease.isolationChanged ) connection.setTransactionIsolation(isolation);
+            if ( lease.readOnlyChanged ) connection.setReadOnly(readOnly);
+            if ( resetSQL != null ) { // session state e.g. search_path or temporary tables
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(resetSQL);
+                }
+                if ( ! connection.getAutoCommit() ) connection.commit();
+            }
+            connection.clearWarnings();
+        }
+
+    }
+
+    /**
+     * The handed out connection, delegating to the physical one until closed.
+     */
+    private final class Lease implements InvocationHandler {
+
+        private final PooledConnection pooled;
+        private volatile boolean closed;
+        volatile boolean broken;
+
+        boolean autoCommitChanged, isolationChanged, readOnlyChanged;
+
+        Lease(final PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch ( method.getName() ) {
+                case "close":
+                    if ( ! closed ) { closed = true; release(pooled, this); }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.connection.isClosed();
+                case "abort": // discard
+                    if ( ! closed ) { closed = true; pooled.connection.abort((Executor) args[0]); release(pooled, this); }
+                    return null;
+                case "unwrap":
+                    if ( ((Class<?>) args[0]).isInstance(proxy) ) return proxy;
+                    break;
+                case "isWrapperFor":
+                    if ( ((Class<?>) args[0]).isInstance(proxy) ) return true;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.connection;
+                case "setAutoCommit": autoCommitChanged = true; break;
+                case "setTransactionIsolation": isolationChanged = true; break;
+                case "setReadOnly": readOnlyChanged = true; break;
+            }
+            if ( closed ) throw new SQLException("connection is closed (returned to pool)", "08003");
+            final Object result;
+            try {
+                result = method.invoke(pooled.connection, args);
+            }
+            catch (InvocationTargetException e) {
+                if ( isConnectionFailure(e.getCause()) ) broken = true;
+                throw e.getCause();
+            }
+            // meta-data hands out the lease, not the physical connection
+            // NOTE: statements are not wrapped - they're on the hot path
+            if ( result instanceof DatabaseMetaData ) {
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[] { DatabaseMetaData.class }, new LeaseChild(result, (Connection) proxy));
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Meta-data created by a lease, returning the lease from <code>getConnection()</code>.
+     */
+    private static final class LeaseChild implements InvocationHandler {
+
+        private final Object target;
+        private final Connection lease;
+
+        LeaseChild(final Object target, final Connection lease) {
+            this.target = target;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch ( method.getName() ) {
+                case "getConnection":
+                    if ( args == null ) return lease;
+                    break;
+                case "unwrap":
+                    if ( ((Class<?>) args[0]).isInstance(proxy) ) return proxy;
+                    break;
+                case "isWrapperFor":
+                    if ( ((Class<?>) args[0]).isInstance(proxy) ) return true;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+            }
+            try {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+package arjdbc.jdbc;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jruby.Ruby;
+import org.jruby.RubyClass;
+import org.jruby.RubyObject;
+import org.jruby.RubyProc;
+import org.jruby.anno.JRubyMethod;
+import org.jruby.exceptions.RaiseException;
+import org.jruby.runtime.Block;
+import org.jruby.runtime.ObjectAllocator;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+
+import static org.jruby.api.Access.objectClass;
+import static org.jruby.api.Error.argumentError;
+import static org.jruby.api.Error.runtimeError;
+
+/**
+ * A (query) result being computed on a virtual thread.
+ *
+ * The (Ruby) block given to <code>QueryFuture.submit</code> runs in the background, the
+ * calling thread only blocks once the <code>value</code> is asked for. The block is
+ * expected to use its own (checked out) connection, as JDBC connections are not meant
+ * to be used from multiple threads at once.
+ */
+public class QueryFuture extends RubyObject {
+
+    private static class ExecutorHolder { // lazy - only started on first use
+        static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    private final CompletableFuture<IRubyObject> future;
+
+    static RubyClass createQueryFutureClass(ThreadContext context, RubyClass jdbcConnection) {
+        return jdbcConnection.
+                defineClassUnder(context, "QueryFuture", objectClass(context), ObjectAllocator.NOT_ALLOCATABLE_ALLOCATOR).
+                defineMethods(context, QueryFuture.class);
+    }
+
+    private QueryFuture(final Ruby runtime, final RubyClass clazz, final CompletableFuture<IRubyObject> future) {
+        super(runtime, clazz);
+        this.future = future;
+    }
+
+    /**
+     * Starts computing a result on a virtual thread.
+     * @param context
+     * @param self the QueryFuture class
+     * @param block computes the result
+     * @return a future
+     */
+    @JRubyMethod(meta = true)
+    public static IRubyObject submit(final ThreadContext context, final IRubyObject self, final Block block) {
+        if ( ! block.isGiven() ) throw argumentError(context, "block expected");
+        final Ruby runtime = context.runtime;
+        final RubyProc task = runtime.newProc(Block.Type.PROC, block);
+        final CompletableFuture<IRubyObject> future = CompletableFuture.supplyAsync(
+                () -> task.call(runtime.getCurrentContext()), ExecutorHolder.EXECUTOR
+        );
+        return new QueryFuture(runtime, (RubyClass) self, future);
+    }
+
+    /**
+     * Computes a result right away (on the calling thread), any error raised by the
+     * block is only re-raised once the <code>value</code> is asked for.
+     * @param context
+     * @param self the QueryFuture class
+     * @param block computes the result
+     * @return a (completed) future
+     */
+    @JRubyMethod(meta = true)
+    public static IRubyObject completed(final ThreadContext context, final IRubyObject self, final Block block) {
+        if ( ! block.isGiven() ) throw argumentError(context, "block expected");
+        final CompletableFuture<IRubyObject> future = new CompletableFuture<>();
+        try {
+            future.complete(block.yieldSpecific(context));
+        }
+        catch (RaiseException e) {
+            future.completeExceptionally(e);
+        }
+        return new QueryFuture(context.runtime, (RubyClass) self, future);
+    }
+
+    /**
+     * Waits for the result, re-raising the (Ruby) error from the background thread.
+     * @param context
+     * @return the result
+     */
+    @JRubyMethod(name = "value")
+    public IRubyObject value(final ThreadContext context) {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof RaiseException ) throw (RaiseException) cause;
+            if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+            if ( cause instanceof Error ) throw (Error) cause;
+            throw runtimeError(context, "query failed: " + cause);
+        }
+        catch (CancellationException e) {
+            throw runtimeError(context, "query was cancelled");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw runtimeError(context, "interrupted while waiting for query");
+        }
+    }
+
+    @JRubyMethod(name = "complete?")
+    public IRubyObject complete_p(final ThreadContext context) {
+        return context.runtime.newBoolean(future.isDone());
+    }
+
+    /**
+     * Cancels waiting for the result (the query itself runs to completion).
+     * @param context
+     * @return true if cancelled
+     */
+    @JRubyMethod(name = "cancel")
+    public IRubyObject cancel(final ThreadContext context) {
+        return context.runtime.newBoolean(future.cancel(false));
+    }
+
+}
@@ -0,0 +1,244 @@
+package arjdbc.jdbc;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jruby.runtime.ThreadContext;
+
+/**
+ * Statement counts and timings, telling the time spent in the database (driver)
+ * apart from the time spent converting between Ruby and Java.
+ *
+ * Each connection collects its own metrics which also get added to the metrics
+ * of its database (URL + user), only the later are registered as a JMX bean
+ * (<code>arjdbc:type=QueryMetrics,runtime=...,url=...</code>) since connections come and go.
+ * Database metrics belong to a (JRuby) runtime, their bean is unregistered on runtime tear-down.
+ */
+final class QueryMetrics implements QueryMetricsMXBean {
+
+    enum Kind { QUERY, UPDATE, INSERT, BATCH }
+
+    /**
+     * @param context
+     * @param database the database (URL) identifier
+     * @param url the (JDBC) URL (or JNDI name) - parameters are not published
+     * @param username (might be null)
+     * @return (shared) metrics for the given database, registered with the platform MBean server
+     */
+    static QueryMetrics forDatabase(final ThreadContext context, final String database, final String url, final String username) {
+        final Map<String, QueryMetrics> shared = RubyJdbcConnection.sharedMap(context, "query_metrics");
+        return shared.computeIfAbsent(database, (key) -> {
+            final QueryMetrics metrics = new QueryMetrics(publishedName(url, username), null);
+            final ObjectName name = metrics.register(context.runtime.getRuntimeNumber());
+            if ( name != null ) context.runtime.addInternalFinalizer(() -> unregister(name));
+            return metrics;
+        });
+    }
+
+    private static String publishedName(final String url, final String username) {
+        int end = url.length(); // cut-off parameters, might contain credentials
+        final int query = url.indexOf('?'); if ( query != -1 ) end = query;
+        final int semicolon = url.indexOf(';'); if ( semicolon != -1 && semicolon < end ) end = semicolon;
+        return username == null ? url.substring(0, end) : url.substring(0, end) + " (" + username + ')';
+    }
+
+    private final String database;
+    private final QueryMetrics parent; // database (aggregated) metrics
+
+    private final LongAdder[] statements = new LongAdder[Kind.values().length];
+    private final Histogram executeTime = new Histogram(), conversionTime = new Histogram();
+    private final LongAdder rows = new LongAdder(), lobBytes = new LongAdder(), lobChars = new LongAdder();
+    private final LongAdder retries = new LongAdder(), reconnects = new LongAdder();
+
+    private QueryMetrics(final String database, final QueryMetrics parent) {
+        this.database = database;
+        this.parent = parent;
+        for ( int i = 0; i < statements.length; i++ ) statements[i] = new LongAdder();
+    }
+
+    /**
+     * @return new metrics for a single connection, adding up to these
+     */
+    QueryMetrics newConnectionMetrics() {
+        return new QueryMetrics(database, this);
+    }
+
+    QueryMetrics getParent() { return parent; }
+
+    private ObjectName register(final int runtime) {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName("arjdbc:type=QueryMetrics,runtime=" + runtime + ",url=" + ObjectName.quote(database));
+            server.registerMBean(this, name);
+            return name;
+        }
+        catch (JMException|SecurityException e) {
+            return null; // metrics are still available from Ruby
+        }
+    }
+
+    private static void unregister(final ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+        catch (JMException|SecurityException e) {
+            // already unregistered
+        }
+    }
+
+    void executed(final Kind kind, final long executeNanos, final long conversionNanos) {
+        statements[kind.ordinal()].increment();
+        executeTime.record(executeNanos);
+        conversionTime.record(conversionNanos);
+        if ( parent != null ) parent.executed(kind, executeNanos, conversionNanos);
+    }
+
+    void rowsMapped(final int count) {
+        rows.add(count);
+        if ( parent != null ) parent.rowsMapped(count);
+    }
+
+    void lobRead(final long bytes, final long chars) {
+        if ( bytes > 0 ) lobBytes.add(bytes);
+        if ( chars > 0 ) lobChars.add(chars);
+        if ( parent != null ) parent.lobRead(bytes, chars);
+    }
+
+    void retried() {
+        retries.increment();
+        if ( parent != null ) parent.retried();
+    }
+
+    void reconnected() {
+        reconnects.increment();
+        if ( parent != null ) parent.reconnected();
+    }
+
+    long getStatementCount(final Kind kind) { return statements[kind.ordinal()].sum(); }
+
+    Histogram getExecuteTime() { return executeTime; }
+
+    Histogram getConversionTime() { return conversionTime; }
+
+    @Override
+    public String getDatabase() { return database; }
+
+    @Override
+    public long getQueryCount() { return getStatementCount(Kind.QUERY); }
+
+    @Override
+    public long getUpdateCount() { return getStatementCount(Kind.UPDATE); }
+
+    @Override
+    public long getInsertCount() { return getStatementCount(Kind.INSERT); }
+
+    @Override
+    public long getBatchCount() { return getStatementCount(Kind.BATCH); }
+
+    @Override
+    public long getRowsMapped() { return rows.sum(); }
+
+    @Override
+    public long getLobBytesRead() { return lobBytes.sum(); }
+
+    @Override
+    public long getLobCharsRead() { return lobChars.sum(); }
+
+    @Override
+    public long getRetries() { return retries.sum(); }
+
+    @Override
+    public long getReconnects() { return reconnects.sum(); }
+
+    @Override
+    public long getExecuteTimeMean() { return executeTime.mean(); }
+
+    @Override
+    public long getExecuteTimeP50() { return executeTime.percentile(0.50); }
+
+    @Override
+    public long getExecuteTimeP99() { return executeTime.percentile(0.99); }
+
+    @Override
+    public long getExecuteTimeMax() { return executeTime.max(); }
+
+    @Override
+    public long getConversionTimeMean() { return conversionTime.mean(); }
+
+    @Override
+    public long getConversionTimeP50() { return conversionTime.percentile(0.50); }
+
+    @Override
+    public long getConversionTimeP99() { return conversionTime.percentile(0.99); }
+
+    @Override
+    public long getConversionTimeMax() { return conversionTime.max(); }
+
+    @Override
+    public void reset() {
+        for ( final LongAdder count : statements ) count.reset();
+        executeTime.reset(); conversionTime.reset();
+        rows.reset(); lobBytes.reset(); lobChars.reset();
+        retries.reset(); reconnects.reset();
+    }
+
+    /**
+     * A latency histogram (in microseconds) with power of 2 buckets, percentiles
+     * are reported as the (upper) bound of the bucket they fall into.
+     */
+    static final class Histogram {
+
+        private static final int BUCKETS = 40; // up to 2^39 us (~6 days)
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder(), total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(final long nanos) {
+            final long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+            final int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+            buckets.incrementAndGet(bucket);
+            count.increment(); total.add(micros);
+            long current;
+            while ( micros > ( current = max.get() ) && ! max.compareAndSet(current, micros) );
+        }
+
+        long count() { return count.sum(); }
+
+        long mean() {
+            final long count = this.count.sum();
+            return count == 0 ? 0 : total.sum() / count;
+        }
+
+        long max() { return max.get(); }
+
+        long percentile(final double percentile) {
+            long count = 0;
+            for ( int i = 0; i < BUCKETS; i++ ) count += buckets.get(i);
+            if ( count == 0 ) return 0;
+
+            final long rank = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for ( int i = 0; i < BUCKETS; i++ ) {
+                seen += buckets.get(i);
+                if ( seen >= rank ) return Math.min(i == 0 ? 0 : 1L << i, max.get());
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for ( int i = 0; i < BUCKETS; i++ ) buckets.set(i, 0);
+            count.reset(); total.reset(); max.set(0);
+        }
+
+    }
+
+}
@@ -0,0 +1,49 @@
+package arjdbc.jdbc;
+
+/**
+ * Statement metrics (aggregated for all connections to a database) as published over JMX,
+ * times are in microseconds.
+ *
+ * @see QueryMetrics
+ */
+public interface QueryMetricsMXBean {
+
+    String getDatabase();
+
+    long getQueryCount();
+
+    long getUpdateCount();
+
+    long getInsertCount();
+
+    long getBatchCount();
+
+    long getRowsMapped();
+
+    long getLobBytesRead();
+
+    long getLobCharsRead();
+
+    long getRetries();
+
+    long getReconnects();
+
+    long getExecuteTimeMean();
+
+    long getExecuteTimeP50();
+
+    long getExecuteTimeP99();
+
+    long getExecuteTimeMax();
+
+    long getConversionTimeMean();
+
+    long getConversionTimeP50();
+
+    long getConversionTimeP99();
+
+    long getConversionTimeMax();
+
+    void reset();
+
+}
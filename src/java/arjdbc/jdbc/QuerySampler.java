@@ -0,0 +1,215 @@
+package arjdbc.jdbc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jruby.runtime.ThreadContext;
+
+import arjdbc.util.SqlFingerprint;
+
+/**
+ * Samples statements by their SQL shape (fingerprint) - keeps counts and timings
+ * for (up to) a number of shapes, once full the shapes with the least total time
+ * are dropped (a tenth at a time) to make room for new ones. A new shape starts
+ * with the total time of the heaviest dropped shape (as in the "space-saving"
+ * algorithm) so that it is not the first to be dropped, thus the top shapes are
+ * approximate - over-estimated by at most their (reported) error.
+ *
+ * Statements slower than a threshold are captured (the last ones) along with
+ * their timing break-down. Samplers are shared by all connections (of a runtime)
+ * to the same database (URL + user).
+ */
+final class QuerySampler {
+
+    static final int SLOW_QUERIES = 100; // (last) slow statements kept
+
+    /**
+     * @param context
+     * @param database the database identifier (URL and user name)
+     * @param maxShapes max number of (distinct) SQL shapes tracked
+     * @param slowThresholdMillis statements taking longer are captured, 0 to not capture
+     * @return a (shared) sampler for the given database
+     */
+    static QuerySampler forDatabase(final ThreadContext context, final String database,
+        final int maxShapes, final long slowThresholdMillis) {
+        final String key = database + '#' + maxShapes + '#' + slowThresholdMillis;
+        final Map<String, QuerySampler> shared = RubyJdbcConnection.sharedMap(context, "query_samplers");
+        return shared.computeIfAbsent(key, (k) -> new QuerySampler(maxShapes, slowThresholdMillis));
+    }
+
+    /**
+     * Statistics for a single SQL shape.
+     */
+    static final class Shape {
+
+        final String sql;
+        final long error; // (nanos) total time inherited when tracking started
+        final LongAdder count = new LongAdder(), totalTime = new LongAdder(), rows = new LongAdder();
+        final AtomicLong maxTime = new AtomicLong(); // nanos
+
+        Shape(final String sql, final long error) { this.sql = sql; this.error = error; }
+
+        long weight() { return error + totalTime.sum(); }
+
+        void add(final long time, final int rows) {
+            count.increment(); totalTime.add(time);
+            if ( rows > 0 ) this.rows.add(rows);
+            long max;
+            while ( time > ( max = maxTime.get() ) && ! maxTime.compareAndSet(max, time) );
+        }
+
+    }
+
+    /**
+     * A captured slow statement.
+     */
+    static final class SlowQuery {
+
+        final String sql;
+        final QueryMetrics.Kind kind;
+        final long timestamp; // millis
+        final long bindTime, executeTime, mapTime; // nanos
+        final int rows;
+
+        SlowQuery(final String sql, final QueryMetrics.Kind kind, final long bindTime, final long executeTime,
+                  final long mapTime, final int rows) {
+            this.sql = sql; this.kind = kind;
+            this.timestamp = System.currentTimeMillis();
+            this.bindTime = bindTime; this.executeTime = executeTime; this.mapTime = mapTime;
+            this.rows = rows;
+        }
+
+        long getTotalTime() { return bindTime + executeTime + mapTime; }
+
+    }
+
+    private final int maxShapes;
+    private final long slowThreshold; // nanos
+    private final ConcurrentHashMap<String, Shape> shapes;
+    private final SlowQuery[] slowQueries = new SlowQuery[SLOW_QUERIES];
+    private long slowCount; // guarded by slowQueries
+    private volatile long floor; // (nanos) weight of the heaviest evicted shape
+
+    private QuerySampler(final int maxShapes, final long slowThresholdMillis) {
+        this.maxShapes = maxShapes;
+        this.slowThreshold = slowThresholdMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis) : Long.MAX_VALUE;
+        this.shapes = new ConcurrentHashMap<>(Math.min(maxShapes, 256));
+    }
+
+    /**
+     * @param sql the executed SQL (fingerprinted)
+     * @param kind
+     * @param rows rows returned (or affected)
+     * @param bindTime (nanos)
+     * @param executeTime (nanos)
+     * @param mapTime (nanos)
+     */
+    void sample(final String sql, final QueryMetrics.Kind kind, final int rows,
+        final long bindTime, final long executeTime, final long mapTime) {
+        final String fingerprint = SqlFingerprint.of(sql);
+        final long time = bindTime + executeTime + mapTime;
+
+        Shape shape = shapes.get(fingerprint);
+        if ( shape == null ) {
+            if ( shapes.size() >= maxShapes ) evictLeast();
+            shape = shapes.computeIfAbsent(fingerprint, (sqlShape) -> new Shape(sqlShape, floor));
+        }
+        shape.add(time, rows);
+
+        if ( time >= slowThreshold ) {
+            final SlowQuery slowQuery = new SlowQuery(fingerprint, kind, bindTime, executeTime, mapTime, rows);
+            synchronized (slowQueries) {
+                slowQueries[(int) (slowCount++ % SLOW_QUERIES)] = slowQuery;
+            }
+        }
+    }
+
+    // drops the lightest tenth of the shapes (thus sorting is amortized over the new shapes)
+    private synchronized void evictLeast() {
+        if ( shapes.size() < maxShapes ) return; // evicted concurrently
+        final List<Shape> shapes = getShapes();
+        final int evict = Math.max(1, Math.min(shapes.size(), maxShapes / 10));
+        long floor = this.floor;
+        for ( final Shape shape : shapes.subList(shapes.size() - evict, shapes.size()) ) {
+            floor = Math.max(floor, shape.weight());
+            this.shapes.remove(shape.sql, shape);
+        }
+        this.floor = floor;
+    }
+
+    /**
+     * @return tracked shapes, the ones with the most total time first
+     */
+    List<Shape> getShapes() {
+        final List<Shape> shapes = new ArrayList<>(this.shapes.values());
+        final Map<Shape, Long> weights = new IdentityHashMap<>(shapes.size());
+        for ( final Shape shape : shapes ) weights.put(shape, shape.weight()); // stable while sorting
+        shapes.sort((s1, s2) -> Long.compare(weights.get(s2), weights.get(s1)));
+        return shapes;
+    }
+
+    /**
+     * @return captured slow statements, the most recent first
+     */
+    List<SlowQuery> getSlowQueries() {
+        final List<SlowQuery> slow = new ArrayList<>(SLOW_QUERIES);
+        synchronized (slowQueries) {
+            final long count = slowCount;
+            for ( long i = count - 1; i >= 0 && i >= count - SLOW_QUERIES; i-- ) {
+                slow.add(slowQueries[(int) (i % SLOW_QUERIES)]);
+            }
+        }
+        return slow;
+    }
+
+    long getSlowThresholdMillis() {
+        return slowThreshold == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(slowThreshold);
+    }
+
+    synchronized void reset() {
+        shapes.clear(); floor = 0;
+        synchronized (slowQueries) {
+            slowCount = 0;
+            Arrays.fill(slowQueries, null);
+        }
+    }
+
+    /**
+     * @param limit max number of shapes (and slow queries) to include
+     * @return a (human readable) report of the top shapes and the slow statements
+     */
+    String dump(final int limit) {
+        final StringBuilder out = new StringBuilder(1024);
+        out.append(String.format("%10s %12s %12s %12s %12s %10s  %s%n", "count", "total (ms)", "error (ms)", "mean (ms)", "max (ms)", "rows", "sql"));
+        final List<Shape> shapes = getShapes();
+        for ( final Shape shape : shapes.subList(0, Math.min(limit, shapes.size())) ) {
+            final long count = shape.count.sum(); final long total = shape.totalTime.sum();
+            out.append(String.format("%10d %12.3f %12.3f %12.3f %12.3f %10d  %s%n", count, millis(total), millis(shape.error),
+                    count == 0 ? 0.0 : millis(total / count), millis(shape.maxTime.get()), shape.rows.sum(), shape.sql));
+        }
+
+        final List<SlowQuery> slow = getSlowQueries();
+        if ( ! slow.isEmpty() ) {
+            out.append(String.format("%nslow statements (>= %d ms):%n", getSlowThresholdMillis()));
+            out.append(String.format("%24s %12s %12s %12s %10s  %s%n", "at", "bind (ms)", "execute (ms)", "map (ms)", "rows", "sql"));
+            for ( final SlowQuery query : slow.subList(0, Math.min(limit, slow.size())) ) {
+                out.append(String.format("%24s %12.3f %12.3f %12.3f %10d  %s%n", Instant.ofEpochMilli(query.timestamp),
+                        millis(query.bindTime), millis(query.executeTime), millis(query.mapTime), query.rows, query.sql));
+            }
+        }
+        return out.toString();
+    }
+
+    static double millis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,186 @@
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.jruby.Ruby;
+import org.jruby.RubyArray;
+import org.jruby.RubyClass;
+import org.jruby.RubyObject;
+import org.jruby.anno.JRubyMethod;
+import org.jruby.runtime.Block;
+import org.jruby.runtime.ObjectAllocator;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+
+import static org.jruby.api.Access.objectClass;
+import static org.jruby.api.Create.allocArray;
+import static org.jruby.api.Error.argumentError;
+import static org.jruby.api.Error.runtimeError;
+
+/**
+ * An executed query whose rows are read and mapped into <code>ActiveRecord::Result</code>
+ * batches while being iterated, using a forward-only read-only cursor so that the driver
+ * is able to stream them (instead of buffering the whole result in memory).
+ *
+ * The statement is executed and the first batch fetched when the stream is opened, the
+ * remaining batches are fetched in between yielding to the block given to <code>each</code>.
+ * The statement (and the implicit transaction, if one was started) is released once all
+ * rows were read, the iteration failed or the stream got closed.
+ *
+ * @see RubyJdbcConnection#execute_query_stream(ThreadContext, IRubyObject, IRubyObject, IRubyObject)
+ */
+public class QueryStream extends RubyObject {
+
+    private final RubyJdbcConnection owner;
+    private final Connection connection;
+    private final String query;
+    private final boolean transaction; // started (auto-commit was turned off) for streaming
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final RubyJdbcConnection.ColumnData[] columns;
+    private final ColumnConverter[] converters;
+    private final IRubyObject columnTypes;
+    private final int batchSize;
+    private final long start, bound, executed;
+
+    private RubyArray batch; // fetched, to be yielded next
+    private boolean exhausted, closed;
+    private int count;
+    private long fetchTime;
+
+    static RubyClass createQueryStreamClass(ThreadContext context, RubyClass jdbcConnection) {
+        return jdbcConnection.
+                defineClassUnder(context, "QueryStream", objectClass(context), ObjectAllocator.NOT_ALLOCATABLE_ALLOCATOR).
+                defineMethods(context, QueryStream.class);
+    }
+
+    private QueryStream(final ThreadContext context, final RubyJdbcConnection owner, final Connection connection,
+        final String query, final boolean transaction, final Statement statement, final ResultSet resultSet,
+        final int batchSize, final long start, final long bound, final long executed) throws SQLException {
+        super(context.runtime, RubyJdbcConnection.getJdbcConnection(context).getClass(context, "QueryStream"));
+        this.owner = owner;
+        this.connection = connection;
+        this.query = query;
+        this.transaction = transaction;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.batchSize = batchSize;
+        this.start = start; this.bound = bound; this.executed = executed;
+
+        this.columns = owner.extractColumns(context, connection, resultSet, false);
+        this.converters = owner.streamingConverters(context, columns);
+        this.columnTypes = owner.streamingColumnTypes(context, resultSet, columns);
+    }
+
+    /**
+     * Opens a stream over an executed statement's result, fetching the first batch.
+     * The statement is not closed on failure (the caller is responsible for that).
+     * @return a stream
+     * @throws SQLException
+     */
+    static QueryStream open(final ThreadContext context, final RubyJdbcConnection owner, final Connection connection,
+        final String query, final boolean transaction, final Statement statement, final ResultSet resultSet,
+        final int batchSize, final long start, final long bound, final long executed) throws SQLException {
+        final QueryStream stream = new QueryStream(context, owner, connection, query, transaction,
+                statement, resultSet, batchSize, start, bound, executed);
+        stream.batch = stream.fetch(context); // even if empty, an (empty) result is yielded
+        return stream;
+    }
+
+    private RubyArray fetch(final ThreadContext context) throws SQLException {
+        final long fetchStart = owner.statementTime();
+        final Ruby runtime = context.runtime;
+        final RubyArray rows = allocArray(context, batchSize);
+        while ( rows.size() < batchSize ) {
+            if ( ! resultSet.next() ) { exhausted = true; break; }
+            rows.append(context, RubyJdbcConnection.mapRow(context, runtime, columns, converters, resultSet));
+        }
+        count += rows.size();
+        if ( fetchStart != 0 ) fetchTime += System.nanoTime() - fetchStart;
+        return rows;
+    }
+
+    /**
+     * Yields the (remaining) batches, the stream is closed afterwards.
+     * @param context
+     * @param block yielded an <code>ActiveRecord::Result</code> for each batch
+     * @return nil
+     */
+    @JRubyMethod
+    public IRubyObject each(final ThreadContext context, final Block block) {
+        if ( ! block.isGiven() ) throw argumentError(context, "block expected");
+        if ( closed ) throw runtimeError(context, "stream closed");
+
+        boolean done = false;
+        try {
+            while ( batch != null ) {
+                final RubyArray rows = batch; batch = null;
+                block.yield(context, RubyJdbcConnection.newResult(context, columns, rows, columnTypes));
+                if ( ! exhausted ) {
+                    final RubyArray next = fetch(context);
+                    if ( ! next.isEmpty() ) batch = next;
+                }
+            }
+            done = true;
+        }
+        catch (SQLException e) {
+            owner.debugErrorSQL(context, query);
+            // not re-tried, some of the rows were already yielded
+            throw owner.wrapException(context, e);
+        }
+        finally {
+            close(context, done);
+        }
+        return context.nil;
+    }
+
+    /**
+     * Releases the statement, rolling back the implicit transaction (if any) unless all rows were read.
+     * @param context
+     * @return nil
+     */
+    @JRubyMethod
+    public IRubyObject close(final ThreadContext context) {
+        close(context, exhausted && batch == null);
+        return context.nil;
+    }
+
+    @JRubyMethod(name = "closed?")
+    public IRubyObject closed_p(final ThreadContext context) {
+        return context.runtime.newBoolean(closed);
+    }
+
+    private void close(final ThreadContext context, final boolean done) {
+        if ( closed ) return;
+        closed = true;
+
+        RubyJdbcConnection.close(resultSet);
+        RubyJdbcConnection.close(statement);
+        if ( transaction ) {
+            try {
+                if ( done ) connection.commit();
+                else connection.rollback();
+            }
+            catch (SQLException e) {
+                RubyJdbcConnection.debugMessage(context.runtime, "failed to end streaming transaction: ", e);
+            }
+            finally {
+                try {
+                    connection.setAutoCommit(true);
+                }
+                catch (SQLException e) {
+                    RubyJdbcConnection.debugMessage(context.runtime, "failed to restore auto-commit after streaming: ", e);
+                }
+            }
+        }
+
+        owner.rowsMapped(count);
+        // only (row) fetching is accounted as mapping, not the time spent in between
+        owner.executed(QueryMetrics.Kind.QUERY, query, count, start, bound, executed,
+                System.nanoTime() - executed - fetchTime);
+    }
+
+}
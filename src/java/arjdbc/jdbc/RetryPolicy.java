@@ -0,0 +1,79 @@
+package arjdbc.jdbc;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How (failed) statements get retried by a connection.
+ *
+ * The default retries once right away (on a new connection unless the failure
+ * was transient), with a backoff configured retries wait an exponentially
+ * growing (randomized) amount of time, so that threads do not re-connect all
+ * at once e.g. while the database fails over.
+ */
+final class RetryPolicy {
+
+    private final int maxRetries;
+    private final long backoff; // millis (0 - retry right away)
+    private final long maxBackoff; // millis
+    private final String[] sqlStates; // retryable SQLState (class) prefixes
+
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * @param maxRetries number of retries after the first failure
+     * @param backoff base backoff (millis) doubled with every retry
+     * @param maxBackoff upper bound of the backoff (millis)
+     * @param sqlStates SQLState (class) prefixes considered transient e.g. <code>"40001"</code> or <code>"08"</code>
+     */
+    RetryPolicy(final int maxRetries, final long backoff, final long maxBackoff, final String[] sqlStates) {
+        this.maxRetries = maxRetries;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.sqlStates = sqlStates == null ? new String[0] : sqlStates;
+    }
+
+    int getMaxRetries() { return maxRetries; }
+
+    /**
+     * @param exception
+     * @return whether the exception's SQLState is configured as retryable
+     */
+    boolean isRetryable(final Exception exception) {
+        if ( sqlStates.length == 0 || ! ( exception instanceof SQLException ) ) return false;
+        final String sqlState = ((SQLException) exception).getSQLState();
+        if ( sqlState == null ) return false;
+        for ( final String prefix : sqlStates ) {
+            if ( sqlState.startsWith(prefix) ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits (when a backoff is configured) before the given retry.
+     * @param retry (1-based) retry number
+     */
+    void beforeRetry(final int retry) {
+        retries.incrementAndGet();
+        final long delay = backoffMillis(retry);
+        if ( delay <= 0 ) return;
+        try {
+            Thread.sleep(delay);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // retry right away
+        }
+    }
+
+    // "full jitter" - a random delay up to the exponential backoff
+    long backoffMillis(final int retry) {
+        if ( backoff <= 0 ) return 0;
+        final long exp = backoff << Math.min(retry - 1, 30);
+        final long max = exp <= 0 || exp > maxBackoff ? maxBackoff : exp;
+        return ThreadLocalRandom.current().nextLong(max + 1);
+    }
+
+    long getRetries() { return retries.get(); }
+
+}
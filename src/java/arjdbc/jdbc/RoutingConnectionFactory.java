@@ -0,0 +1,101 @@
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes connections between a primary and (read) replicas.
+ *
+ * New connections always come from the primary, replica connections are asked
+ * for separately (for reads) - the replica with the least outstanding requests
+ * is picked. A failing replica gets ejected for a while, reads fall back to the
+ * primary once all replicas are ejected.
+ */
+final class RoutingConnectionFactory implements ConnectionFactory {
+
+    static final class Replica {
+
+        final String url;
+        final ConnectionFactory factory;
+
+        final AtomicInteger outstanding = new AtomicInteger();
+        private volatile long ejectedUntil; // nanos (0 - healthy)
+
+        final AtomicLong requests = new AtomicLong(), ejections = new AtomicLong();
+
+        Replica(final String url, final ConnectionFactory factory) {
+            this.url = url;
+            this.factory = factory;
+        }
+
+        boolean isHealthy(final long now) {
+            final long ejectedUntil = this.ejectedUntil;
+            return ejectedUntil == 0 || now - ejectedUntil >= 0;
+        }
+
+        void started() {
+            outstanding.incrementAndGet(); requests.incrementAndGet();
+        }
+
+        void finished() {
+            outstanding.decrementAndGet();
+        }
+
+    }
+
+    private final ConnectionFactory primary;
+    private final Replica[] replicas;
+    private final long ejectionTime; // nanos
+
+    RoutingConnectionFactory(final ConnectionFactory primary, final Replica[] replicas, final long ejectionTimeMillis) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.ejectionTime = TimeUnit.MILLISECONDS.toNanos(ejectionTimeMillis);
+    }
+
+    /**
+     * @return a primary connection
+     * @throws SQLException
+     */
+    @Override
+    public Connection newConnection() throws SQLException {
+        return primary.newConnection();
+    }
+
+    ConnectionFactory getPrimary() { return primary; }
+
+    Replica[] getReplicas() { return replicas; }
+
+    /**
+     * @return the healthy replica with the least outstanding requests, null if all are ejected
+     */
+    Replica pickReplica() {
+        final long now = System.nanoTime();
+        Replica best = null; int bestOutstanding = Integer.MAX_VALUE;
+        for ( final Replica replica : replicas ) {
+            if ( ! replica.isHealthy(now) ) continue;
+            final int outstanding = replica.outstanding.get();
+            if ( outstanding < bestOutstanding ) {
+                best = replica; bestOutstanding = outstanding;
+            }
+        }
+        return best;
+    }
+
+    boolean isHealthy(final Replica replica) {
+        return replica.isHealthy(System.nanoTime());
+    }
+
+    /**
+     * Ejects a (failing) replica for the configured ejection time.
+     * @param replica
+     */
+    void eject(final Replica replica) {
+        replica.ejectedUntil = System.nanoTime() + ejectionTime;
+        replica.ejections.incrementAndGet();
+    }
+
+}
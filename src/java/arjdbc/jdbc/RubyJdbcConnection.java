@@ -52,8 +52,10 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -62,6 +64,14 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TimeZone;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import arjdbc.util.StringHelper;
 import org.joda.time.DateTime;
@@ -118,6 +128,7 @@ import static org.jruby.api.Create.allocArray;
 import static org.jruby.api.Create.newArray;
 import static org.jruby.api.Create.newArrayNoCopy;
 import static org.jruby.api.Create.newEmptyArray;
+import static org.jruby.api.Error.argumentError;
 
 
 /**
@@ -133,7 +144,12 @@ public class RubyJdbcConnection extends RubyObject {
     private ConnectionFactory connectionFactory;
     private IRubyObject config;
     private IRubyObject adapter; // the AbstractAdapter instance we belong to
-    private volatile boolean connected = true;
+    private volatile Connection currentConnection; // null when lazy (or disconnected)
+    private volatile ConnectionCapabilities capabilities; // of the current connection (resolved lazily)
+    private boolean schemaChangePending; // current schema changed in a transaction (reverted on rollback)
+    private final AtomicReference<ConnectionState> state = new AtomicReference<>(ConnectionState.LAZY);
+    // guards (the rare) state transitions, unlike synchronized does not pin virtual threads
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
     private RubyClass attributeClass;
     private RubyClass timeZoneClass;
 
@@ -141,6 +157,43 @@ public class RubyJdbcConnection extends RubyObject {
     private boolean jndi; // final once set on initialize
     private boolean configureConnection = true; // final once initialized
     private int fetchSize = 0; // 0 = JDBC default
+    private boolean columnarResults = false; // final once initialized
+    private int fetchAhead = 0; // rows fetched ahead (pipelined) while mapping results, 0 - disabled
+    private Executor fetchExecutor; // (pipelined) fetching runs on, null - default
+    private int internStrings = 0; // max (distinct) strings interned per column of a result, 0 - disabled
+    private StatementCache statementCache; // final once initialized (null when disabled)
+    // bind plans of statements prepared for (cached by) AR, dropped once closed using close_statement
+    private final Map<PreparedStatement, BindPlan> preparedPlans = Collections.synchronizedMap(new WeakHashMap<>());
+    private SchemaCache schemaCache; // final once initialized (null when disabled)
+    private int batchSize = 1000; // execute_batch_prepared chunk size
+    private long validationInterval = 0; // (nanos) 0 - always validate on active?
+    private volatile long lastUsed = 0; // (nanos) when the connection last completed a statement
+    private RetryPolicy retryPolicy = new RetryPolicy(1, 0, 0, null); // final once initialized
+    private CircuitBreaker circuitBreaker; // final once initialized (null when disabled)
+    private QueryMetrics metrics; // final once initialized (null when disabled)
+    private QuerySampler sampler; // final once initialized (null when disabled)
+    private volatile boolean readOnly; // read_only= (routes all reads to replicas)
+    private boolean replicaReads; // replica_reads: true (routes reads outside of a transaction)
+    private long replicaStickyTime; // (nanos) reads stay on the primary for a while after a write
+    private volatile long lastWrite; // (nanos) when the last write (or commit) happened
+    private volatile List<String> sessionRecording; // statements executed while configuring the connection
+    private volatile List<String> sessionSetup; // recorded by configure_connection (replayed on replicas)
+    private volatile Connection replicaConnection; // (replica) read connection when routing
+    private volatile RoutingConnectionFactory.Replica replica; // the replica connected to
+
+    /**
+     * Connection life-cycle states, transitions happen while holding the life-cycle lock
+     * while the current state (as well as the connection) is read without locking.
+     */
+    protected enum ConnectionState {
+        /** no connection (yet) - one gets created on demand */
+        LAZY,
+        CONNECTED,
+        /** the connection is being (re-)placed */
+        RECONNECTING,
+        /** explicitly disconnected - needs a reconnect! */
+        CLOSED
+    }
 
     protected RubyJdbcConnection(Ruby runtime, RubyClass metaClass) {
         super(runtime, metaClass);
@@ -157,15 +210,36 @@ public class RubyJdbcConnection extends RubyObject {
 
     public static RubyClass createJdbcConnectionClass(final Ruby runtime) {
         var context = runtime.getCurrentContext();
-        return getConnectionAdapters(context).
+        RubyClass jdbcConnection = getConnectionAdapters(context).
                 defineClassUnder(context, "JdbcConnection", runtime.getObject(), ALLOCATOR).
                 defineMethods(context, RubyJdbcConnection.class);
+        ColumnarResult.createColumnarResultClass(context, jdbcConnection);
+        QueryFuture.createQueryFutureClass(context, jdbcConnection);
+        QueryStream.createQueryStreamClass(context, jdbcConnection);
+        return jdbcConnection;
     }
 
     public static RubyClass getJdbcConnection(ThreadContext context) {
         return getConnectionAdapters(context).getClass(context, "JdbcConnection");
     }
 
+    /**
+     * State shared by connections (to the same database) is kept with the JdbcConnection class,
+     * thus it does not leak across (or outlive) Ruby runtimes.
+     * @param context
+     * @param name (internal variable) name
+     * @return a (concurrent) map shared by all connections of the runtime
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> Map<K, V> sharedMap(final ThreadContext context, final String name) {
+        final RubyClass owner = getJdbcConnection(context);
+        synchronized (owner) {
+            Map<K, V> shared = (Map<K, V>) owner.getInternalVariable(name);
+            if ( shared == null ) owner.setInternalVariable(name, shared = new ConcurrentHashMap<>(8));
+            return shared;
+        }
+    }
+
     protected static RubyModule ActiveRecord(ThreadContext context) {
         return getModule(context, "ActiveRecord");
     }
@@ -379,6 +453,7 @@ public class RubyJdbcConnection extends RubyObject {
             if ( ! connection.getAutoCommit() ) {
                 try {
                     connection.commit();
+                    wrote(); transactionEnded();
                     resetSavepoints(context, connection); // if any
                     return context.runtime.newBoolean(true);
                 }
@@ -400,6 +475,7 @@ public class RubyJdbcConnection extends RubyObject {
             if ( ! connection.getAutoCommit() ) {
                 try {
                     connection.rollback();
+                    transactionEnded();
                     resetSavepoints(context, connection); // if any
                     return context.tru;
                 } finally {
@@ -416,8 +492,7 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = "supports_savepoints?")
     public IRubyObject supports_savepoints_p(final ThreadContext context) throws SQLException {
         return withConnection(context, (Callable<IRubyObject>) connection -> {
-            final DatabaseMetaData metaData = connection.getMetaData();
-            return context.runtime.newBoolean( metaData.supportsSavepoints() );
+            return context.runtime.newBoolean( getCapabilities(connection).supportsSavepoints() );
         });
     }
 
@@ -464,6 +539,7 @@ public class RubyJdbcConnection extends RubyObject {
                 throw context.runtime.newRuntimeError("could not rollback savepoint: '" + name + "' (not set)");
             }
             connection.rollback(savepoint);
+            transactionEnded();
             return context.nil;
         }
         catch (SQLException e) {
@@ -561,7 +637,7 @@ public class RubyJdbcConnection extends RubyObject {
                 warn(context, "adapter not set, please pass adapter on JdbcConnection#initialize(config, adapter)");
             }
 
-            if (!lazy) setConnection(newConnection());
+            if (!lazy) setConnection(connect(false));
         }
         catch (SQLException e) {
             String message = e.getMessage();
@@ -579,6 +655,114 @@ public class RubyJdbcConnection extends RubyObject {
         if (jdbcFetchSize != context.nil) {
             this.fetchSize = toInt(context, jdbcFetchSize);
         }
+
+        value = getConfigValue(context, "columnar_results");
+        this.columnarResults = value != context.nil && value != context.fals;
+
+        value = getConfigValue(context, "pipelined_fetch"); // true or the number of rows fetched ahead
+        if (value != context.nil && value != context.fals) {
+            this.fetchAhead = value == context.tru ? 1024 : Math.max(toInt(context, value), 0);
+        }
+
+        value = getConfigValue(context, "pipelined_fetch_executor"); // a java.util.concurrent.Executor
+        if (value != context.nil) {
+            this.fetchExecutor = (Executor) value.toJava(Executor.class);
+        }
+
+        value = getConfigValue(context, "intern_strings"); // true or the max distinct values per column
+        if (value != context.nil && value != context.fals) {
+            this.internStrings = value == context.tru ? 256 : Math.max(toInt(context, value), 0);
+        }
+
+        value = getConfigValue(context, "validation_interval"); // millis
+        if (value != context.nil) {
+            this.validationInterval = TimeUnit.MILLISECONDS.toNanos( toInt(context, value) );
+        }
+
+        value = getConfigValue(context, "jdbc_batch_size");
+        if (value != context.nil) {
+            this.batchSize = toInt(context, value);
+        }
+
+        value = getConfigValue(context, "jdbc_statement_cache_size");
+        if (value != context.nil) {
+            final int size = toInt(context, value);
+            if (size > 0) this.statementCache = new StatementCache(size);
+        }
+
+        value = getConfigValue(context, "retry_attempts");
+        final IRubyObject retryBackoff = getConfigValue(context, "retry_backoff"); // millis
+        final IRubyObject retrySQLStates = getConfigValue(context, "retry_sql_states");
+        if (value != context.nil || retryBackoff != context.nil || retrySQLStates != context.nil) {
+            final IRubyObject maxBackoff = getConfigValue(context, "retry_max_backoff"); // millis
+            this.retryPolicy = new RetryPolicy(
+                    value == context.nil ? 1 : toInt(context, value),
+                    retryBackoff == context.nil ? 0 : toInt(context, retryBackoff),
+                    maxBackoff == context.nil ? 10_000 : toInt(context, maxBackoff),
+                    retrySQLStates == context.nil ? null : sqlStates(context, retrySQLStates)
+            );
+        }
+
+        value = getConfigValue(context, "circuit_breaker_threshold");
+        if (value != context.nil) {
+            final int threshold = toInt(context, value);
+            if (threshold > 0) {
+                final IRubyObject timeout = getConfigValue(context, "circuit_breaker_timeout"); // millis
+                this.circuitBreaker = CircuitBreaker.forDatabase(context,
+                        getDatabaseIdentifier(context), threshold, timeout == context.nil ? 30_000 : toInt(context, timeout)
+                );
+            }
+        }
+
+        value = getConfigValue(context, "jdbc_metrics");
+        if (value != context.nil && value != context.fals) {
+            IRubyObject url = getConfigValue(context, "url");
+            if (url == context.nil) url = getConfigValue(context, "jndi");
+            final IRubyObject username = getConfigValue(context, "username");
+            this.metrics = QueryMetrics.forDatabase(context, getDatabaseIdentifier(context),
+                    url.toString(), username == context.nil ? null : username.toString()).newConnectionMetrics();
+        }
+
+        value = getConfigValue(context, "query_sampler_size");
+        if (value != context.nil) {
+            final int size = toInt(context, value);
+            if (size > 0) {
+                final IRubyObject threshold = getConfigValue(context, "slow_query_threshold"); // millis
+                this.sampler = QuerySampler.forDatabase(context,
+                        getDatabaseIdentifier(context), size, threshold == context.nil ? 0 : toInt(context, threshold)
+                );
+            }
+        }
+
+        value = getConfigValue(context, "schema_cache_size");
+        if (value != context.nil) {
+            final int size = toInt(context, value);
+            if (size > 0) {
+                final IRubyObject ttl = getConfigValue(context, "schema_cache_ttl"); // millis
+                this.schemaCache = SchemaCache.forDatabase(context,
+                        getDatabaseIdentifier(context), size, ttl == context.nil ? SchemaCache.DEFAULT_TTL : toInt(context, ttl)
+                );
+            }
+        }
+    }
+
+    // retry_sql_states: [ '40001', '08' ] or '40001,08'
+    private static String[] sqlStates(final ThreadContext context, final IRubyObject value) {
+        if ( value instanceof RubyArray ) {
+            final RubyArray states = (RubyArray) value;
+            final String[] sqlStates = new String[states.getLength()];
+            for ( int i = 0; i < sqlStates.length; i++ ) sqlStates[i] = states.eltInternal(i).toString().trim();
+            return sqlStates;
+        }
+        return value.toString().trim().split("\\s*,\\s*");
+    }
+
+    // the (JDBC) URL or JNDI name along with the user name
+    private String getDatabaseIdentifier(final ThreadContext context) {
+        IRubyObject name = getConfigValue(context, "url");
+        if (name == context.nil) name = getConfigValue(context, "jndi");
+        final IRubyObject username = getConfigValue(context, "username");
+        return name.toString() + (username == context.nil ? "" : "?" + username);
     }
 
     @JRubyMethod(name = "adapter")
@@ -603,11 +787,25 @@ public class RubyJdbcConnection extends RubyObject {
         if ( adapter != null && ! adapter.isNil() ) {
             if ( adapter.respondsTo("configure_connection") ) {
                 final ThreadContext context = getRuntime().getCurrentContext();
-                adapter.callMethod(context, "configure_connection");
+                final long lastWrite = this.lastWrite;
+                final List<String> setup = new ArrayList<>(4);
+                this.sessionRecording = setup;
+                try {
+                    adapter.callMethod(context, "configure_connection");
+                }
+                finally { this.sessionRecording = null; }
+                this.sessionSetup = setup;
+                this.lastWrite = lastWrite; // session setup (SET statements) is not a write
             }
         }
     }
 
+    // statements configuring the session are recorded (to be replayed on replica connections)
+    private void recordSessionSetup(final RubyString sql) {
+        final List<String> recording = this.sessionRecording;
+        if ( recording != null && ! isSelect(sql) ) recording.add(sql.decodeString());
+    }
+
     @JRubyMethod(name = "configure_connection")
     public IRubyObject configure_connection(final ThreadContext context) {
         if ( ! lazy || getConnectionImpl() != null ) configureConnection();
@@ -640,20 +838,22 @@ public class RubyJdbcConnection extends RubyObject {
     private Connection connectionImpl(final ThreadContext context) {
         Connection connection = getConnection(false);
         if ( connection == null ) {
-            synchronized (this) {
+            lifecycleLock.lock();
+            try {
                 connection = getConnection(false);
                 if ( connection == null ) {
                     reconnect(context);
                     connection = getConnection(false);
                 }
             }
+            finally { lifecycleLock.unlock(); }
         }
         return connection;
     }
 
     @JRubyMethod(name = "active?", alias = "valid?")
     public RubyBoolean active_p(final ThreadContext context) {
-        if ( ! connected ) return context.fals;
+        if ( ! isConnected() ) return context.fals;
         if (jndi) {
             // for JNDI the data-source / pool is supposed to
             // manage connections for us thus no valid check!
@@ -662,9 +862,24 @@ public class RubyJdbcConnection extends RubyObject {
         }
         final Connection connection = getConnection(false);
         if ( connection == null ) return context.fals; // unlikely
+        if ( recentlyUsed() ) return context.tru;
         return context.runtime.newBoolean( isConnectionValid(context, connection) );
     }
 
+    /**
+     * @return whether the connection completed a statement within the (configured)
+     * <code>validation_interval</code>, thus is not worth validating
+     */
+    private boolean recentlyUsed() {
+        if ( validationInterval <= 0 ) return false;
+        final long lastUsed = this.lastUsed;
+        return lastUsed != 0 && System.nanoTime() - lastUsed < validationInterval;
+    }
+
+    private void markUsed() {
+        if ( validationInterval > 0 ) lastUsed = System.nanoTime();
+    }
+
     @JRubyMethod(name = "really_valid?")
     public RubyBoolean really_valid_p(final ThreadContext context) {
         final Connection connection = getConnection(true);
@@ -673,29 +888,57 @@ public class RubyJdbcConnection extends RubyObject {
     }
 
     @JRubyMethod(name = "disconnect!")
-    public synchronized IRubyObject disconnect(final ThreadContext context) {
-        setConnection(null); connected = false;
+    public IRubyObject disconnect(final ThreadContext context) {
+        lifecycleLock.lock();
+        try {
+            setConnection(null); state.set(ConnectionState.CLOSED);
+            setReplicaConnection(null, null);
+        }
+        finally { lifecycleLock.unlock(); }
         return context.nil;
     }
 
     @JRubyMethod(name = "reconnect!")
-    public synchronized IRubyObject reconnect(final ThreadContext context) {
+    public IRubyObject reconnect(final ThreadContext context) {
+        lifecycleLock.lock();
         try {
-            connectImpl( ! lazy ); connected = true;
+            connectImpl( ! lazy );
         }
         catch (SQLException e) {
             debugStackTrace(context, e);
             handleException(context, e);
         }
+        finally { lifecycleLock.unlock(); }
         return context.nil;
     }
 
     private void connectImpl(final boolean forceConnection) throws SQLException {
-        setConnection( forceConnection ? newConnection() : null );
-        if (forceConnection) {
-            if (getConnectionImpl() == null) throw new SQLException("Didn't get a connection. Wrong URL?");
-            configureConnection();
+        lifecycleLock.lock();
+        final ConnectionState previous = state.getAndSet(ConnectionState.RECONNECTING);
+        try {
+            setConnection( forceConnection ? connect(previous != ConnectionState.LAZY) : null );
+            if (forceConnection) {
+                if (getConnectionImpl() == null) throw new SQLException("Didn't get a connection. Wrong URL?");
+                configureConnection();
+                if ( metrics != null && previous != ConnectionState.LAZY ) metrics.reconnected();
+            }
         }
+        finally {
+            // failed to get a new connection - previous one (if any) is still in place
+            state.compareAndSet(ConnectionState.RECONNECTING, previous);
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * @return the current connection (life-cycle) state
+     */
+    protected final ConnectionState getConnectionState() {
+        return state.get();
+    }
+
+    private boolean isConnected() {
+        return state.get() != ConnectionState.CLOSED;
     }
 
     @JRubyMethod(name = "read_only?")
@@ -713,6 +956,7 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "read_only=")
     public IRubyObject set_read_only(final ThreadContext context, final IRubyObject flag) {
+        this.readOnly = flag.isTrue();
         try {
             final Connection connection = getConnectionInternal(true);
             connection.setReadOnly( flag.isTrue() );
@@ -789,6 +1033,9 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = "execute", required = 1)
     public IRubyObject execute(final ThreadContext context, final IRubyObject sql) {
         final String query = sqlString(sql);
+        final boolean ddl = schemaCache != null && isDDL(sql.asString());
+        final boolean schemaChange = isSchemaChange(sql.asString());
+        recordSessionSetup(sql.asString());
         return withConnection(context, connection -> {
             Statement statement = null;
             try {
@@ -796,11 +1043,14 @@ public class RubyJdbcConnection extends RubyObject {
 
                 // For DBs that do support multiple statements, lets return the last result set
                 // to be consistent with AR
+                final long start = statementTime();
                 boolean hasResultSet = doExecute(statement, query);
+                final long executed = statementTime();
+                final QueryMetrics.Kind kind = hasResultSet ? QueryMetrics.Kind.QUERY : QueryMetrics.Kind.UPDATE;
                 int updateCount = statement.getUpdateCount();
 
                 IRubyObject result = context.nil; // If no results, return nil
-                ResultSet resultSet;
+                ResultSet resultSet; int rows = 0;
 
                 while (hasResultSet || updateCount != -1) {
 
@@ -811,10 +1061,12 @@ public class RubyJdbcConnection extends RubyObject {
                         // is called, so we have to process the result sets as we get them
                         // this shouldn't be an issue in most cases since we're only getting 1 result set anyways
                         //result = mapExecuteResult(context, connection, resultSet);
-                        result = mapToRawResult(context, connection, resultSet, false);
+                        final RubyArray resultRows = mapToRawResult(context, connection, resultSet, false);
                         resultSet.close();
+                        result = resultRows; rows = resultRows.size();
                     } else {
                         result = context.runtime.newFixnum(updateCount);
+                        rows = updateCount;
                     }
 
                     // Check to see if there is another result set
@@ -822,6 +1074,7 @@ public class RubyJdbcConnection extends RubyObject {
                     updateCount = statement.getUpdateCount();
                 }
 
+                executed(kind, query, rows, start, start, executed);
                 return result;
 
             } catch (final SQLException e) {
@@ -829,6 +1082,8 @@ public class RubyJdbcConnection extends RubyObject {
                 throw e;
             } finally {
                 close(statement);
+                if ( ddl ) schemaCache.clear();
+                if ( schemaChange ) schemaChanged(connection);
             }
         });
     }
@@ -899,13 +1154,17 @@ public class RubyJdbcConnection extends RubyObject {
 
                 statement = createStatement(context, connection);
 
+                final long start = statementTime(); final int rowCount;
                 if (pk == context.nil || pk == context.fals || !supportsGeneratedKeys(connection)) {
-                    statement.executeUpdate(query, Statement.RETURN_GENERATED_KEYS);
+                    rowCount = statement.executeUpdate(query, Statement.RETURN_GENERATED_KEYS);
                 } else {
-                    statement.executeUpdate(query, createStatementPk(pk));
+                    rowCount = statement.executeUpdate(query, createStatementPk(pk));
                 }
+                final long executed = statementTime();
 
-                return mapGeneratedKeys(context, connection, statement);
+                final IRubyObject keys = mapGeneratedKeys(context, connection, statement);
+                executed(QueryMetrics.Kind.INSERT, query, rowCount, start, start, executed);
+                return keys;
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
                 throw e;
@@ -934,23 +1193,31 @@ public class RubyJdbcConnection extends RubyObject {
     public IRubyObject execute_insert_pk(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
                                          final IRubyObject pk) {
         return withConnection(context, connection -> {
-            PreparedStatement statement = null;
+            PreparedStatement statement = null; boolean failed = true;
             final String query = sqlString(sql);
+            final StatementCache.Key key;
+            if (pk == context.nil || pk == context.fals || !supportsGeneratedKeys(connection)) {
+                key = new StatementCache.Key(query, Statement.RETURN_GENERATED_KEYS, null, ResultSet.TYPE_FORWARD_ONLY);
+            } else {
+                key = new StatementCache.Key(query, Statement.NO_GENERATED_KEYS, createStatementPk(pk), ResultSet.TYPE_FORWARD_ONLY);
+            }
             try {
-                if (pk == context.nil || pk == context.fals || !supportsGeneratedKeys(connection)) {
-                    statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
-                } else {
-                    statement = connection.prepareStatement(query, createStatementPk(pk));
-                }
+                statement = prepareStatement(connection, key);
 
-                setStatementParameters(context, connection, statement, (RubyArray) binds);
-                statement.executeUpdate();
-                return mapGeneratedKeys(context, connection, statement);
+                final long start = statementTime();
+                setStatementParameters(context, connection, statement, (RubyArray) binds, bindPlan(key));
+                final long bound = statementTime();
+                final int rowCount = statement.executeUpdate();
+                final long executed = statementTime();
+                final IRubyObject keys = mapGeneratedKeys(context, connection, statement);
+                executed(QueryMetrics.Kind.INSERT, query, rowCount, start, bound, executed);
+                failed = false;
+                return keys;
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
                 throw e;
             } finally {
-                close(statement);
+                releaseStatement(connection, key, statement, failed);
             }
         });
     }
@@ -970,6 +1237,9 @@ public class RubyJdbcConnection extends RubyObject {
      */
     @JRubyMethod(name = {"execute_update", "execute_delete"}, required = 1)
     public IRubyObject execute_update(final ThreadContext context, final IRubyObject sql) {
+        final boolean ddl = schemaCache != null && isDDL(sql.asString());
+        final boolean schemaChange = isSchemaChange(sql.asString());
+        recordSessionSetup(sql.asString());
         return withConnection(context, (Callable<IRubyObject>) connection -> {
             Statement statement = null;
             final String query = sqlString(sql);
@@ -977,13 +1247,17 @@ public class RubyJdbcConnection extends RubyObject {
             try {
                 statement = createStatement(context, connection);
 
+                final long start = statementTime();
                 final int rowCount = statement.executeUpdate(query);
+                executed(QueryMetrics.Kind.UPDATE, query, rowCount, start, start, statementTime());
                 return context.runtime.newFixnum(rowCount);
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
                 throw e;
             } finally {
                 close(statement);
+                if ( ddl ) schemaCache.clear();
+                if ( schemaChange ) schemaChanged(connection);
             }
         });
     }
@@ -1000,22 +1274,131 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = {"execute_prepared_update", "execute_prepared_delete"}, required = 2)
     public IRubyObject execute_prepared_update(final ThreadContext context, final IRubyObject sql, final IRubyObject binds) {
         return withConnection(context, (Callable<IRubyObject>) connection -> {
-            PreparedStatement statement = null;
+            PreparedStatement statement = null; boolean failed = true;
             final String query = sqlString(sql);
+            final StatementCache.Key key = new StatementCache.Key(query);
             try {
-                statement = connection.prepareStatement(query);
-                setStatementParameters(context, connection, statement, (RubyArray) binds);
+                statement = prepareStatement(connection, key);
+                final long start = statementTime();
+                setStatementParameters(context, connection, statement, (RubyArray) binds, bindPlan(key));
+                final long bound = statementTime();
                 final int rowCount = statement.executeUpdate();
+                executed(QueryMetrics.Kind.UPDATE, query, rowCount, start, bound, statementTime());
+                failed = false;
                 return context.runtime.newFixnum(rowCount);
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
                 throw e;
             } finally {
-                close(statement);
+                releaseStatement(connection, key, statement, failed);
+            }
+        });
+    }
+
+    /**
+     * Executes the same SQL statement for each of the given binds (in JDBC batches).
+     * Arguments are <code>(sql, binds_list, pk = nil, batch_size = nil)</code> where
+     * a non-nil pk (true or the key column name(s)) means generated keys are returned.
+     * NOTE: a failure is not re-tried once a batch was executed (chunks executed in
+     * auto-commit mode are committed one by one).
+     *
+     * @param context
+     * @param args
+     * @return <code>[ update_counts, generated_keys ]</code> where keys are an
+     * <code>ActiveRecord::Result</code> (if requested and supported) or nil
+     * @throws SQLException
+     */
+    @JRubyMethod(name = "execute_batch_prepared", required = 2, optional = 2)
+    public IRubyObject execute_batch_prepared(final ThreadContext context, final IRubyObject[] args) {
+        final String query = sqlString(args[0]);
+        final RubyArray bindsList = (RubyArray) TypeConverter.checkArrayType(context, args[1]);
+        final IRubyObject pk = args.length > 2 ? args[2] : context.nil;
+        final int chunkSize = args.length > 3 && args[3] != context.nil ? toInt(context, args[3]) : batchSize;
+        if ( chunkSize <= 0 ) throw argumentError(context, "batch size must be positive, got: " + chunkSize);
+
+        return withConnection(context, connection -> {
+            final boolean returnKeys = pk != context.nil && pk != context.fals && supportsGeneratedKeys(connection);
+            final StatementCache.Key key;
+            if ( ! returnKeys ) {
+                key = new StatementCache.Key(query);
+            } else if ( pk == context.tru ) {
+                key = new StatementCache.Key(query, Statement.RETURN_GENERATED_KEYS, null, ResultSet.TYPE_FORWARD_ONLY);
+            } else {
+                key = new StatementCache.Key(query, Statement.NO_GENERATED_KEYS, createStatementPk(pk), ResultSet.TYPE_FORWARD_ONLY);
+            }
+
+            PreparedStatement statement = null; boolean failed = true; boolean batched = false;
+            try {
+                statement = prepareStatement(connection, key);
+                final BindPlan plan = bindPlan(key);
+
+                final Ruby runtime = context.runtime;
+                final int length = bindsList.getLength();
+                final IRubyObject[] counts = new IRubyObject[length];
+                ColumnData[] keyColumns = null; ColumnConverter[] keyConverters = null;
+                final RubyArray keyRows = returnKeys ? newArray(context) : null;
+                final long begin = statementTime(); long executeTime = 0;
+
+                for ( int start = 0; start < length; start += chunkSize ) {
+                    final int end = Math.min(start + chunkSize, length);
+                    for ( int i = start; i < end; i++ ) {
+                        setStatementParameters(context, connection, statement,
+                            (RubyArray) TypeConverter.checkArrayType(context, bindsList.eltInternal(i)), plan);
+                        statement.addBatch();
+                    }
+
+                    final long execute = statementTime();
+                    batched = true;
+                    final int[] chunkCounts = statement.executeBatch();
+                    executeTime += statementTime() - execute;
+                    for ( int i = 0; i < chunkCounts.length && start + i < end; i++ ) {
+                        counts[start + i] = runtime.newFixnum(chunkCounts[i]);
+                    }
+
+                    if ( returnKeys ) {
+                        final ResultSet genKeys = statement.getGeneratedKeys();
+                        if ( genKeys != null ) {
+                            try {
+                                if ( keyColumns == null ) {
+                                    keyColumns = extractColumns(context, connection, genKeys, false);
+                                    keyConverters = converters(keyColumns);
+                                }
+                                while ( genKeys.next() ) {
+                                    keyRows.append(context, mapRow(context, runtime, keyColumns, keyConverters, genKeys));
+                                }
+                            }
+                            finally { close(genKeys); }
+                        }
+                    }
+                }
+                if ( keyRows != null ) rowsMapped(keyRows.size());
+                executed(QueryMetrics.Kind.BATCH, query, length, begin, begin, begin + executeTime); // the rest is (bind) conversion time
+                failed = false;
+
+                final IRubyObject keys = keyColumns == null ? context.nil : newResult(context, keyColumns, keyRows);
+                return newArray(context, newArrayNoCopy(context, fillNils(context, counts)), keys);
+            } catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                // do not re-try (re-executing chunks) once a batch was sent, in auto-commit mode
+                // the previous chunks are already committed
+                if ( batched ) throw wrapException(context, e);
+                throw e;
+            } finally {
+                if ( statement != null && failed ) {
+                    try { statement.clearBatch(); } catch (SQLException e) { /* closing anyway */ }
+                }
+                releaseStatement(connection, key, statement, failed);
             }
         });
     }
 
+    private static IRubyObject[] fillNils(final ThreadContext context, final IRubyObject[] values) {
+        for ( int i = 0; i < values.length; i++ ) { // drivers might report less counts than executed
+            if ( values[i] == null ) values[i] = context.nil;
+        }
+        return values;
+    }
+
     /**
      * This is the same as execute_query but it will return a list of hashes.
      *
@@ -1060,40 +1443,55 @@ public class RubyJdbcConnection extends RubyObject {
         final String query, final int maxRows, final Block block, final RubyArray binds) {
         return withConnection(context, connection -> {
             Statement statement = null; boolean hasResult;
+            StatementCache.Key key = null; boolean failed = true;
             try {
+                final long start, bound;
                 if ( binds == null || binds.isEmpty()) { // plain statement
                     statement = createStatement(context, connection);
                     statement.setMaxRows(maxRows); // zero means there is no limit
+                    start = bound = statementTime();
                     hasResult = statement.execute(query);
                 }
                 else {
                     final PreparedStatement prepStatement;
-                    statement = prepStatement = connection.prepareStatement(query);
+                    statement = prepStatement = prepareStatement(connection, key = new StatementCache.Key(query));
                     if (fetchSize != 0) statement.setFetchSize(fetchSize);
                     statement.setMaxRows(maxRows); // zero means there is no limit
-                    setStatementParameters(context, connection, prepStatement, binds);
+                    start = statementTime();
+                    setStatementParameters(context, connection, prepStatement, binds, bindPlan(key));
+                    bound = statementTime();
                     hasResult = prepStatement.execute();
                 }
+                final long executed = statementTime();
 
+                final IRubyObject result; int rows = 0;
                 if (block.isGiven()) {
                     if (hasResult) {
                         // yield(id1, name1) ... row 1 result data
                         // yield(id2, name2) ... row 2 result data
-                        return yieldResultRows(context, connection, statement.getResultSet(), block);
+                        rows = yieldResultRows(context, connection, statement.getResultSet(), block);
                     }
-                    return context.nil;
+                    result = context.nil;
                 }
-                if (hasResult) {
-                    return mapToRawResult(context, connection, statement.getResultSet(), false);
+                else if (hasResult) {
+                    final RubyArray resultRows = mapToRawResult(context, connection, statement.getResultSet(), false);
+                    result = resultRows; rows = resultRows.size();
+                }
+                else {
+                    result = newEmptyArray(context);
                 }
-                return newEmptyArray(context);
+                executed(QueryMetrics.Kind.QUERY, query, rows, start, bound, executed);
+                if (maxRows != 0) statement.setMaxRows(0); // in case the statement gets cached
+                failed = false;
+                return result;
             }
             catch (final SQLException e) {
                 debugErrorSQL(context, query);
                 throw e;
             }
             finally {
-                close(statement);
+                if (key == null) close(statement);
+                else releaseStatement(connection, key, (PreparedStatement) statement, failed);
             }
         });
     }
@@ -1112,18 +1510,32 @@ public class RubyJdbcConnection extends RubyObject {
      */
     @JRubyMethod(required = 1)
     public IRubyObject execute_query(final ThreadContext context, final IRubyObject sql) {
-        return withConnection(context, connection -> {
+        return withReadConnection(context, sql, connection -> {
             Statement statement = null;
             final String query = sqlString(sql);
             try {
                 statement = createStatement(context, connection);
 
                 // At least until AR 5.1 #exec_query still gets called for things that don't return results in some cases :(
+                final JdbcEvents.Statement event = JdbcEvents.ENABLED ? new JdbcEvents.Statement() : null;
+                if ( event != null ) event.begin();
+                final long start = statementTime();
+                final IRubyObject result;
                 if (statement.execute(query)) {
-                    return mapQueryResult(context, connection, statement.getResultSet());
+                    final long executed = statementTime();
+                    final ResultSet resultSet = statement.getResultSet();
+                    result = mapQueryResult(context, connection, resultSet);
+                    final int rows = rowCount(context, result, event);
+                    executed(QueryMetrics.Kind.QUERY, query, rows, start, start, executed);
+                    if ( event != null ) statementEvent(event, query, null, resultSet, rows, start, start, executed);
                 }
-
-                return newEmptyResult(context);
+                else {
+                    final long executed = statementTime();
+                    executed(QueryMetrics.Kind.QUERY, query, 0, start, start, executed);
+                    if ( event != null ) statementEvent(event, query, null, null, 0, start, start, executed);
+                    result = newEmptyResult(context);
+                }
+                return result;
 
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
@@ -1141,11 +1553,18 @@ public class RubyJdbcConnection extends RubyObject {
             final String query = sqlString(sql);
             try {
                 statement = createStatement(context, connection);
+                final long start = statementTime();
                 statement.execute(query);
+                final long executed = statementTime();
                 ResultSet rs = statement.getResultSet();
-                if (rs == null || !rs.next()) return context.nil;
-
-                return jdbcToRuby(context, context.getRuntime(), 1, rs.getMetaData().getColumnType(1), rs);
+                final IRubyObject value;
+                if (rs == null || !rs.next()) value = context.nil;
+                else {
+                    value = jdbcToRuby(context, context.getRuntime(), 1, rs.getMetaData().getColumnType(1), rs);
+                    rowsMapped(1);
+                }
+                executed(QueryMetrics.Kind.QUERY, query, value == context.nil ? 0 : 1, start, start, executed);
+                return value;
 
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
@@ -1168,10 +1587,25 @@ public class RubyJdbcConnection extends RubyObject {
             final String query = sql.convertToString().getUnicodeValue();
             PreparedStatement statement = connection.prepareStatement(query);
             if (fetchSize != 0) statement.setFetchSize(fetchSize);
+            preparedPlans.put(statement, new BindPlan());
             return JavaUtil.convertJavaToRuby(context.runtime, statement);
         });
     }
 
+    /**
+     * Closes a statement returned from {@link #prepare_statement(ThreadContext, IRubyObject)}.
+     * @param context
+     * @param statement the wrapped <code>PreparedStatement</code>
+     * @return nil
+     */
+    @JRubyMethod(required = 1)
+    public IRubyObject close_statement(final ThreadContext context, final IRubyObject statement) {
+        final PreparedStatement prepared = (PreparedStatement) JavaEmbedUtils.rubyToJava(statement);
+        preparedPlans.remove(prepared);
+        close(prepared);
+        return context.nil;
+    }
+
     // Called from exec_query in abstract/database_statements
     /**
      * Executes a query and returns the (AR) result.  There are three parameters:
@@ -1191,48 +1625,588 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(required = 3)
     public IRubyObject execute_prepared_query(final ThreadContext context, final IRubyObject sql,
         final IRubyObject binds, final IRubyObject cachedStatement) {
-        return withConnection(context, connection -> {
-            final boolean cached = !(cachedStatement == null || cachedStatement.isNil());
+        final boolean cached = !(cachedStatement == null || cachedStatement.isNil());
+        // a (AR) cached statement belongs to the primary connection
+        return withReadConnection(context, cached ? null : sql, connection -> {
             String query = null;
             PreparedStatement statement = null;
+            StatementCache.Key key = null; boolean failed = true;
 
             try {
                 if (cached) {
                     statement = (PreparedStatement) JavaEmbedUtils.rubyToJava(cachedStatement);
                 } else {
                     query = sql.convertToString().getUnicodeValue();
-                    statement = connection.prepareStatement(query);
+                    statement = prepareStatement(connection, key = new StatementCache.Key(query));
                     if (fetchSize != 0) statement.setFetchSize(fetchSize);
                 }
 
-                setStatementParameters(context, connection, statement, (RubyArray) binds);
+                final JdbcEvents.Statement event = JdbcEvents.ENABLED ? new JdbcEvents.Statement() : null;
+                if ( event != null ) event.begin();
+                final long start = statementTime();
+                final BindPlan plan = cached ? preparedPlans.get(statement) : bindPlan(key);
+                setStatementParameters(context, connection, statement, (RubyArray) binds, plan);
+                final long bound = statementTime();
 
+                final IRubyObject results;
                 if (statement.execute()) {
+                    final long executed = statementTime();
                     ResultSet resultSet = statement.getResultSet();
-                    IRubyObject results = mapQueryResult(context, connection, resultSet);
+                    results = mapQueryResult(context, connection, resultSet);
+                    if (query == null && ( sampler != null || event != null )) query = sql.convertToString().getUnicodeValue();
+                    final int rows = rowCount(context, results, event);
+                    executed(QueryMetrics.Kind.QUERY, query, rows, start, bound, executed);
+                    if ( event != null ) {
+                        statementEvent(event, query, (RubyArray) binds, resultSet, rows, start, bound, executed);
+                    }
                     resultSet.close();
-
-                    return results;
                 } else {
-                    return newEmptyResult(context);
+                    final long executed = statementTime();
+                    if (query == null && ( sampler != null || event != null )) query = sql.convertToString().getUnicodeValue();
+                    executed(QueryMetrics.Kind.QUERY, query, 0, start, bound, executed);
+                    if ( event != null ) {
+                        statementEvent(event, query, (RubyArray) binds, null, 0, start, bound, executed);
+                    }
+                    results = newEmptyResult(context);
                 }
+                failed = false;
+                return results;
             } catch (final SQLException e) {
                 if (query == null) query = sql.convertToString().getUnicodeValue();
                 debugErrorSQL(context, query);
                 throw e;
             } finally {
                 if ( cached ) {
+                    if ( failed ) preparedPlans.replace(statement, new BindPlan()); // re-resolve types
                     statement.clearParameters();
                 } else {
+                    releaseStatement(connection, key, statement, failed);
+                }
+            }
+        });
+    }
+
+    /**
+     * Executes a query for its result to be read in batches, rows get mapped while being
+     * read using a forward-only read-only cursor so that the driver is able to stream them
+     * (instead of buffering the whole result in memory).
+     *
+     * The statement is executed and the first batch fetched before returning, the stream
+     * needs to be iterated (using <code>each</code>) or closed before the connection is used
+     * for anything else. NOTE: when the driver only streams within a transaction (and the
+     * connection is in auto-commit mode) the stream runs in an implicit transaction, that
+     * is committed once all rows were read (rolled back otherwise).
+     *
+     * @param context which context this method is executing on.
+     * @param sql the query to execute.
+     * @param binds an array of values to be set as parameters (or nil)
+     * @param batchSize the (maximum) number of rows in a yielded result
+     * @return a <code>QueryStream</code> yielding an <code>ActiveRecord::Result</code> for each batch
+     * @see #streamWithinTransaction()
+     */
+    @JRubyMethod(name = "execute_query_stream", required = 3)
+    public IRubyObject execute_query_stream(final ThreadContext context, final IRubyObject sql,
+        final IRubyObject binds, final IRubyObject batchSize) {
+        final int size = toInt(context, batchSize);
+        if ( size <= 0 ) throw argumentError(context, "batch size must be positive, got: " + size);
+
+        return withConnection(context, connection -> {
+            final String query = sqlString(sql);
+            final boolean transaction = streamWithinTransaction() && connection.getAutoCommit();
+            Statement statement = null; ResultSet resultSet = null; QueryStream stream = null;
+            try {
+                if ( transaction ) connection.setAutoCommit(false);
+
+                final long start, bound;
+                if ( binds == null || binds.isNil() || ((RubyArray) binds).isEmpty() ) { // plain statement
+                    statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(streamingFetchSize(connection, size));
+                    start = bound = statementTime();
+                    resultSet = statement.executeQuery(query);
+                }
+                else {
+                    final PreparedStatement prepStatement;
+                    statement = prepStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(streamingFetchSize(connection, size));
+                    start = statementTime();
+                    setStatementParameters(context, connection, prepStatement, (RubyArray) binds, null);
+                    bound = statementTime();
+                    resultSet = prepStatement.executeQuery();
+                }
+
+                return stream = QueryStream.open(context, this, connection, query, transaction,
+                        statement, resultSet, size, start, bound, statementTime());
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
+            }
+            finally {
+                if ( stream == null ) { // failed (might get re-tried)
+                    close(resultSet);
                     close(statement);
+                    if ( transaction ) {
+                        try {
+                            connection.rollback();
+                            connection.setAutoCommit(true);
+                        }
+                        catch (SQLException e) {
+                            debugMessage(context.runtime, "failed to restore auto-commit after streaming: ", e);
+                        }
+                    }
                 }
             }
         });
     }
 
+    /**
+     * Whether the driver only streams (uses a cursor for) results within a transaction.
+     * @return false by default
+     * @see #execute_query_stream(ThreadContext, IRubyObject, IRubyObject, IRubyObject)
+     */
+    protected boolean streamWithinTransaction() {
+        return false;
+    }
+
+    /**
+     * @param context
+     * @param columns
+     * @return converters for the rows of a streamed (query) result, the same as for query results by default
+     * @see #execute_query_stream(ThreadContext, IRubyObject, IRubyObject, IRubyObject)
+     */
+    protected ColumnConverter[] streamingConverters(final ThreadContext context, final ColumnData[] columns) {
+        return converters(columns);
+    }
+
+    /**
+     * @param context
+     * @param resultSet
+     * @param columns
+     * @return column types (a hash) for the <code>ActiveRecord::Result</code> batches of a streamed result or nil
+     * @throws SQLException
+     * @see #execute_query_stream(ThreadContext, IRubyObject, IRubyObject, IRubyObject)
+     */
+    protected IRubyObject streamingColumnTypes(final ThreadContext context,
+        final ResultSet resultSet, final ColumnData[] columns) throws SQLException {
+        return context.nil;
+    }
+
+    /**
+     * @param connection
+     * @param batchSize
+     * @return the fetch size for a streamed (query) result
+     * @throws SQLException
+     * @see #execute_query_stream(ThreadContext, IRubyObject, IRubyObject, IRubyObject)
+     */
+    protected int streamingFetchSize(final Connection connection, final int batchSize) throws SQLException {
+        return fetchSize != 0 ? fetchSize : batchSize;
+    }
+
+    /**
+     * Prepares a statement, re-using a cached one (if the statement cache is enabled).
+     * Statements should be released using {@link #releaseStatement} once done.
+     * @param connection
+     * @param key
+     * @return a prepared statement
+     * @throws SQLException
+     */
+    final PreparedStatement prepareStatement(final Connection connection, final StatementCache.Key key)
+        throws SQLException {
+        if ( statementCache != null && connection == getConnectionImpl() ) { // not for a replica connection
+            final PreparedStatement statement = statementCache.take(key);
+            if ( statement != null ) return statement;
+        }
+        if ( key.keyColumns != null ) {
+            return connection.prepareStatement(key.sql, key.keyColumns);
+        }
+        if ( key.autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ) {
+            return connection.prepareStatement(key.sql, Statement.RETURN_GENERATED_KEYS);
+        }
+        if ( key.resultSetType != ResultSet.TYPE_FORWARD_ONLY ) {
+            return connection.prepareStatement(key.sql, key.resultSetType, ResultSet.CONCUR_READ_ONLY);
+        }
+        return connection.prepareStatement(key.sql);
+    }
+
+    /**
+     * @param key
+     * @return resolved parameter types for a (cached) statement, null when not caching
+     */
+    final BindPlan bindPlan(final StatementCache.Key key) {
+        return statementCache == null ? null : statementCache.bindPlan(key);
+    }
+
+    /**
+     * Puts a statement back into the cache or closes it (when not caching).
+     * @param connection the connection used to prepare the statement
+     * @param key
+     * @param statement (might be null)
+     * @param failed whether the statement failed executing (won't get cached)
+     */
+    final void releaseStatement(final Connection connection, final StatementCache.Key key,
+        final PreparedStatement statement, final boolean failed) {
+        if ( statement == null ) return;
+        // connection might have been replaced in the meantime (cache got cleared)
+        if ( statementCache == null || connection != getConnectionImpl() ) {
+            close(statement); return;
+        }
+        if ( failed ) {
+            statementCache.discard(key); close(statement); return;
+        }
+        try {
+            statement.clearParameters();
+        }
+        catch (SQLException e) {
+            statementCache.discard(key); close(statement); return;
+        }
+        statementCache.release(key, statement);
+    }
+
+    /**
+     * Clears the schema (meta-data) cache, shared with other connections to the same database.
+     * @param context
+     * @return nil
+     */
+    @JRubyMethod(name = "clear_schema_cache")
+    public IRubyObject clear_schema_cache(final ThreadContext context) {
+        if ( schemaCache != null ) schemaCache.clear();
+        return context.nil;
+    }
+
+    /**
+     * Returns the cached schema meta-data for a table (or loads and caches it when not cached).
+     * The table name is resolved (against the current schema) for the cache key.
+     * @return the (cached) value
+     * @see #schemaCached(ThreadContext, SchemaCache.Key, Supplier)
+     */
+    private IRubyObject schemaCached(final ThreadContext context, final String kind,
+        final String catalog, final String schema, final String tableName, final Object other,
+        final Supplier<IRubyObject> loader) {
+        if ( schemaCache == null ) return loader.get();
+
+        final SchemaCache.Key key;
+        if ( tableName == null ) {
+            key = new SchemaCache.Key(kind, catalog, schema, null, other);
+        }
+        else {
+            key = withConnection(context, connection -> {
+                final TableName table = extractTableName(connection, catalog, schema, tableName);
+                // unqualified names are looked up in the current schema (search path)
+                final String tableSchema = table.schema == null ? currentSchema(connection) : table.schema;
+                return new SchemaCache.Key(kind, table.catalog, tableSchema, table.name, other);
+            });
+        }
+        return schemaCached(context, key, loader);
+    }
+
+    /**
+     * Returns the cached schema meta-data (or loads and caches it when not cached).
+     * A <code>false</code> value (table does not exist) is not cached.
+     * @return the (cached) value, arrays and their elements are returned as copies
+     */
+    private IRubyObject schemaCached(final ThreadContext context, final SchemaCache.Key key, final Supplier<IRubyObject> loader) {
+        final SchemaCache cache = this.schemaCache;
+        if ( cache == null ) return loader.get();
+
+        IRubyObject value = (IRubyObject) cache.get(key);
+        if ( value == null ) {
+            value = loader.get();
+            if ( value == context.fals ) return value;
+            cache.put(key, value);
+        }
+        return schemaCopy(context, value);
+    }
+
+    private static IRubyObject schemaCopy(final ThreadContext context, final IRubyObject value) {
+        if ( value instanceof RubyArray ) {
+            final RubyArray array = (RubyArray) value;
+            final IRubyObject[] copy = new IRubyObject[array.getLength()];
+            for ( int i = 0; i < copy.length; i++ ) copy[i] = schemaCopy(context, array.eltInternal(i));
+            return newArrayNoCopy(context, copy);
+        }
+        // columns, index and foreign key definitions, strings
+        return value.isImmediate() ? value : value.dup();
+    }
+
+    @JRubyMethod(name = "clear_statement_cache")
+    public IRubyObject clear_statement_cache(final ThreadContext context) {
+        if ( statementCache != null ) statementCache.clear();
+        preparedPlans.clear();
+        return context.nil;
+    }
+
+    /**
+     * @param context
+     * @return statement cache statistics (size, max_size, hits, misses, evictions) or nil if not enabled
+     */
+    @JRubyMethod(name = "statement_cache_stats")
+    public IRubyObject statement_cache_stats(final ThreadContext context) {
+        final StatementCache cache = this.statementCache;
+        if ( cache == null ) return context.nil;
+
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("size"), runtime.newFixnum(cache.size()));
+        stats.fastASet(runtime.newSymbol("max_size"), runtime.newFixnum(cache.getMaxSize()));
+        stats.fastASet(runtime.newSymbol("hits"), runtime.newFixnum(cache.getHits()));
+        stats.fastASet(runtime.newSymbol("misses"), runtime.newFixnum(cache.getMisses()));
+        stats.fastASet(runtime.newSymbol("evictions"), runtime.newFixnum(cache.getEvictions()));
+        return stats;
+    }
+
+    /**
+     * @param context
+     * @return retry and circuit breaker counters
+     */
+    @JRubyMethod(name = "retry_stats")
+    public IRubyObject retry_stats(final ThreadContext context) {
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("max_retries"), runtime.newFixnum(retryPolicy.getMaxRetries()));
+        stats.fastASet(runtime.newSymbol("retries"), runtime.newFixnum(retryPolicy.getRetries()));
+        final CircuitBreaker breaker = this.circuitBreaker;
+        if ( breaker != null ) {
+            stats.fastASet(runtime.newSymbol("circuit"), runtime.newSymbol(breaker.getState().name().toLowerCase()));
+            stats.fastASet(runtime.newSymbol("trips"), runtime.newFixnum(breaker.getTrips()));
+            stats.fastASet(runtime.newSymbol("rejections"), runtime.newFixnum(breaker.getRejections()));
+        }
+        return stats;
+    }
+
+    /**
+     * @param context
+     * @return connection pool counters (nil unless <code>jdbc_pool_size</code> is configured)
+     */
+    @JRubyMethod(name = "pool_stats")
+    public IRubyObject pool_stats(final ThreadContext context) {
+        ConnectionFactory factory = this.connectionFactory;
+        if ( factory instanceof RoutingConnectionFactory ) factory = ((RoutingConnectionFactory) factory).getPrimary();
+        if ( ! ( factory instanceof PooledConnectionFactory ) ) return context.nil;
+        final PooledConnectionFactory pool = (PooledConnectionFactory) factory;
+
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("size"), runtime.newFixnum(pool.getMaxSize()));
+        stats.fastASet(runtime.newSymbol("idle"), runtime.newFixnum(pool.getIdleCount()));
+        stats.fastASet(runtime.newSymbol("leased"), runtime.newFixnum(pool.getLeasedCount()));
+        stats.fastASet(runtime.newSymbol("created"), runtime.newFixnum(pool.getCreatedCount()));
+        stats.fastASet(runtime.newSymbol("leases"), runtime.newFixnum(pool.getLeaseCount()));
+        stats.fastASet(runtime.newSymbol("evicted"), runtime.newFixnum(pool.getEvictedCount()));
+        return stats;
+    }
+
+    /**
+     * @param context
+     * @return replica routing state (nil unless <code>replicas:</code> are configured)
+     */
+    @JRubyMethod(name = "replica_stats")
+    public IRubyObject replica_stats(final ThreadContext context) {
+        if ( ! ( connectionFactory instanceof RoutingConnectionFactory ) ) return context.nil;
+        final RoutingConnectionFactory routing = (RoutingConnectionFactory) connectionFactory;
+
+        final Ruby runtime = context.runtime;
+        final RoutingConnectionFactory.Replica[] replicas = routing.getReplicas();
+        final IRubyObject[] stats = new IRubyObject[replicas.length];
+        for ( int i = 0; i < replicas.length; i++ ) {
+            final RoutingConnectionFactory.Replica replica = replicas[i];
+            final RubyHash replicaStats = RubyHash.newHash(runtime);
+            replicaStats.fastASet(runtime.newSymbol("url"), runtime.newString(replica.url));
+            replicaStats.fastASet(runtime.newSymbol("healthy"), runtime.newBoolean(routing.isHealthy(replica)));
+            replicaStats.fastASet(runtime.newSymbol("outstanding"), runtime.newFixnum(replica.outstanding.get()));
+            replicaStats.fastASet(runtime.newSymbol("requests"), runtime.newFixnum(replica.requests.get()));
+            replicaStats.fastASet(runtime.newSymbol("ejections"), runtime.newFixnum(replica.ejections.get()));
+            stats[i] = replicaStats;
+        }
+        return newArrayNoCopy(context, stats);
+    }
+
+    /**
+     * Statement metrics, times are in microseconds where conversion time is the time
+     * spent on binds and mapping results (which includes fetching rows).
+     * @param context
+     * @param args <code>:database</code> for the metrics aggregated for all connections to the database
+     * @return statement counts and timings (nil unless <code>jdbc_metrics</code> is configured)
+     */
+    @JRubyMethod(name = "query_stats", optional = 1)
+    public IRubyObject query_stats(final ThreadContext context, final IRubyObject[] args) {
+        QueryMetrics metrics = this.metrics;
+        if ( metrics == null ) return context.nil;
+        if ( args.length > 0 && args[0] != context.nil ) {
+            if ( ! "database".equals(args[0].toString()) ) {
+                throw argumentError(context, "unknown metrics scope: " + args[0].inspect());
+            }
+            metrics = metrics.getParent();
+        }
+
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("query"), runtime.newFixnum(metrics.getQueryCount()));
+        stats.fastASet(runtime.newSymbol("update"), runtime.newFixnum(metrics.getUpdateCount()));
+        stats.fastASet(runtime.newSymbol("insert"), runtime.newFixnum(metrics.getInsertCount()));
+        stats.fastASet(runtime.newSymbol("batch"), runtime.newFixnum(metrics.getBatchCount()));
+        stats.fastASet(runtime.newSymbol("rows"), runtime.newFixnum(metrics.getRowsMapped()));
+        stats.fastASet(runtime.newSymbol("lob_bytes"), runtime.newFixnum(metrics.getLobBytesRead()));
+        stats.fastASet(runtime.newSymbol("lob_chars"), runtime.newFixnum(metrics.getLobCharsRead()));
+        stats.fastASet(runtime.newSymbol("retries"), runtime.newFixnum(metrics.getRetries()));
+        stats.fastASet(runtime.newSymbol("reconnects"), runtime.newFixnum(metrics.getReconnects()));
+        stats.fastASet(runtime.newSymbol("execute_time"), histogramStats(runtime, metrics.getExecuteTime()));
+        stats.fastASet(runtime.newSymbol("conversion_time"), histogramStats(runtime, metrics.getConversionTime()));
+        return stats;
+    }
+
+    private static RubyHash histogramStats(final Ruby runtime, final QueryMetrics.Histogram histogram) {
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("count"), runtime.newFixnum(histogram.count()));
+        stats.fastASet(runtime.newSymbol("mean"), runtime.newFixnum(histogram.mean()));
+        stats.fastASet(runtime.newSymbol("p50"), runtime.newFixnum(histogram.percentile(0.50)));
+        stats.fastASet(runtime.newSymbol("p99"), runtime.newFixnum(histogram.percentile(0.99)));
+        stats.fastASet(runtime.newSymbol("max"), runtime.newFixnum(histogram.max()));
+        return stats;
+    }
+
+    /**
+     * Statements sampled by their SQL shape (literals replaced with <code>?</code>), the ones
+     * with the most total time first - times are in milliseconds. A shape's <code>error</code> is
+     * the time it might be over-estimated by (it started being tracked after shapes got evicted).
+     * @param context
+     * @param args the (maximum) number of shapes returned
+     * @return an array of hashes (nil unless <code>query_sampler_size</code> is configured)
+     */
+    @JRubyMethod(name = "query_samples", optional = 1)
+    public IRubyObject query_samples(final ThreadContext context, final IRubyObject[] args) {
+        final QuerySampler sampler = this.sampler;
+        if ( sampler == null ) return context.nil;
+        final int limit = sampleLimit(context, args, Integer.MAX_VALUE);
+
+        final Ruby runtime = context.runtime;
+        final List<QuerySampler.Shape> shapes = sampler.getShapes();
+        final RubyArray samples = allocArray(context, Math.min(limit, shapes.size()));
+        for ( final QuerySampler.Shape shape : shapes.subList(0, Math.min(limit, shapes.size())) ) {
+            final long count = shape.count.sum(); final long total = shape.totalTime.sum();
+            final RubyHash sample = RubyHash.newHash(runtime);
+            sample.fastASet(runtime.newSymbol("sql"), RubyString.newUnicodeString(runtime, shape.sql));
+            sample.fastASet(runtime.newSymbol("count"), runtime.newFixnum(count));
+            sample.fastASet(runtime.newSymbol("total_time"), runtime.newFloat(QuerySampler.millis(total)));
+            sample.fastASet(runtime.newSymbol("error"), runtime.newFloat(QuerySampler.millis(shape.error)));
+            sample.fastASet(runtime.newSymbol("mean_time"), runtime.newFloat(count == 0 ? 0.0 : QuerySampler.millis(total / count)));
+            sample.fastASet(runtime.newSymbol("max_time"), runtime.newFloat(QuerySampler.millis(shape.maxTime.get())));
+            sample.fastASet(runtime.newSymbol("rows"), runtime.newFixnum(shape.rows.sum()));
+            samples.append(context, sample);
+        }
+        return samples;
+    }
+
+    private static int sampleLimit(final ThreadContext context, final IRubyObject[] args, final int defaultLimit) {
+        if ( args.length == 0 || args[0] == context.nil ) return defaultLimit;
+        final int limit = toInt(context, args[0]);
+        if ( limit < 0 ) throw argumentError(context, "negative limit: " + limit);
+        return limit;
+    }
+
+    /**
+     * Statements that took longer than <code>slow_query_threshold</code> (the most recent first),
+     * with their time (in milliseconds) spent binding, executing and mapping the result.
+     * @param context
+     * @return an array of hashes (nil unless <code>query_sampler_size</code> is configured)
+     */
+    @JRubyMethod(name = "slow_queries")
+    public IRubyObject slow_queries(final ThreadContext context) {
+        final QuerySampler sampler = this.sampler;
+        if ( sampler == null ) return context.nil;
+
+        final Ruby runtime = context.runtime;
+        final List<QuerySampler.SlowQuery> slowQueries = sampler.getSlowQueries();
+        final RubyArray queries = allocArray(context, slowQueries.size());
+        for ( final QuerySampler.SlowQuery slow : slowQueries ) {
+            final RubyHash query = RubyHash.newHash(runtime);
+            query.fastASet(runtime.newSymbol("sql"), RubyString.newUnicodeString(runtime, slow.sql));
+            query.fastASet(runtime.newSymbol("kind"), runtime.newSymbol(slow.kind.name().toLowerCase()));
+            query.fastASet(runtime.newSymbol("at"), RubyTime.newTime(runtime, slow.timestamp));
+            query.fastASet(runtime.newSymbol("bind_time"), runtime.newFloat(QuerySampler.millis(slow.bindTime)));
+            query.fastASet(runtime.newSymbol("execute_time"), runtime.newFloat(QuerySampler.millis(slow.executeTime)));
+            query.fastASet(runtime.newSymbol("map_time"), runtime.newFloat(QuerySampler.millis(slow.mapTime)));
+            query.fastASet(runtime.newSymbol("rows"), runtime.newFixnum(slow.rows));
+            queries.append(context, query);
+        }
+        return queries;
+    }
+
+    /**
+     * @param context
+     * @param args the (maximum) number of shapes (and slow statements) included
+     * @return a (printable) report of the sampled statements, nil when not sampling
+     */
+    @JRubyMethod(name = "dump_query_samples", optional = 1)
+    public IRubyObject dump_query_samples(final ThreadContext context, final IRubyObject[] args) {
+        final QuerySampler sampler = this.sampler;
+        if ( sampler == null ) return context.nil;
+        final int limit = sampleLimit(context, args, 20);
+        return RubyString.newUnicodeString(context.runtime, sampler.dump(limit));
+    }
+
+    @JRubyMethod(name = "reset_query_samples")
+    public IRubyObject reset_query_samples(final ThreadContext context) {
+        final QuerySampler sampler = this.sampler;
+        if ( sampler == null ) return context.nil;
+        sampler.reset();
+        return context.tru;
+    }
+
+    /**
+     * @return a (nano) time-stamp for measuring statements, 0 if not collecting metrics (or events)
+     */
+    final long statementTime() {
+        return metrics == null && sampler == null && ! JdbcEvents.ENABLED ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records an executed statement, binds are set between start and bound, the result
+     * (if any) is mapped after the statement got executed.
+     */
+    private void executed(final QueryMetrics.Kind kind, final String sql, final int rows,
+        final long start, final long bound, final long executed) {
+        executed(kind, sql, rows, start, bound, executed, 0);
+    }
+
+    /**
+     * @param excluded (nanos) spent after execution not accounted as mapping e.g. in a yielded block
+     */
+    final void executed(final QueryMetrics.Kind kind, final String sql, final int rows,
+        final long start, final long bound, final long executed, final long excluded) {
+        if ( kind != QueryMetrics.Kind.QUERY ) wrote();
+        final QueryMetrics metrics = this.metrics; final QuerySampler sampler = this.sampler;
+        if ( metrics == null && sampler == null ) return;
+        final long mapTime = System.nanoTime() - executed - excluded;
+        if ( metrics != null ) metrics.executed(kind, executed - bound, bound - start + mapTime);
+        if ( sampler != null ) sampler.sample(sql, kind, rows, bound - start, executed - bound, mapTime);
+    }
+
+    final void rowsMapped(final int rows) {
+        final QueryMetrics metrics = this.metrics;
+        if ( metrics != null ) metrics.rowsMapped(rows);
+    }
+
+    // rows of a mapped (ActiveRecord::Result) result, only counted when sampled or recorded
+    private int rowCount(final ThreadContext context, final IRubyObject result, final JdbcEvents.Statement event) {
+        if ( sampler == null && ( event == null || ! event.shouldCommit() ) ) return 0;
+        return toInt(context, result.callMethod(context, "length"));
+    }
+
+    private void statementEvent(final JdbcEvents.Statement event, final String sql, final RubyArray binds,
+        final ResultSet resultSet, final int rows, final long start, final long bound, final long executed) throws SQLException {
+        if ( event.shouldCommit() ) {
+            final int columns = resultSet == null ? 0 : resultSet.getMetaData().getColumnCount();
+            JdbcEvents.commit(event, sql, binds == null ? 0 : binds.getLength(), rows, columns,
+                    bound - start, executed - bound, System.nanoTime() - executed);
+        }
+    }
+
     protected IRubyObject mapQueryResult(final ThreadContext context,
         final Connection connection, final ResultSet resultSet) throws SQLException {
         final ColumnData[] columns = extractColumns(context, connection, resultSet, false);
+        if ( columnarResults ) {
+            return mapToColumnarResult(context, connection, resultSet, columns).toARResult(context, context.nil);
+        }
         return mapToResult(context, connection, resultSet, columns);
     }
 
@@ -1251,9 +2225,12 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "primary_keys", required = 1)
     public IRubyObject primary_keys(ThreadContext context, IRubyObject tableName) throws SQLException {
-        @SuppressWarnings("unchecked")
-        List<IRubyObject> primaryKeys = (List) primaryKeys(context, tableName.toString());
-        return newArray(context, primaryKeys);
+        final String name = tableName.toString();
+        return schemaCached(context, "primary_keys", null, null, name, null, () -> {
+            @SuppressWarnings("unchecked")
+            List<IRubyObject> primaryKeys = (List) primaryKeys(context, name);
+            return newArray(context, primaryKeys);
+        });
     }
 
     protected static final int PRIMARY_KEYS_COLUMN_NAME = 4;
@@ -1286,6 +2263,16 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "tables", required = 0, optional = 4)
     public IRubyObject tables(final ThreadContext context, final IRubyObject[] args) {
+        if ( schemaCache == null ) return tablesImpl(context, args);
+
+        final Object[] name = new Object[4];
+        for ( int i = 0; i < args.length; i++ ) {
+            name[i] = i < 3 ? toStringOrNull(args[i]) : Arrays.asList(getTypes(args[i]));
+        }
+        return schemaCached(context, new SchemaCache.Key("tables", name), () -> tablesImpl(context, args));
+    }
+
+    private IRubyObject tablesImpl(final ThreadContext context, final IRubyObject[] args) {
         switch ( args.length ) {
             case 0: // ()
                 return tables(context, null, null, null, TABLE_TYPE);
@@ -1315,7 +2302,8 @@ public class RubyJdbcConnection extends RubyObject {
         }
         final String tableName = table.toString();
 
-        return tableExists(context, null, tableName);
+        return schemaCached(context, "table_exists", null, null, tableName, null,
+                () -> tableExists(context, null, tableName));
     }
 
     @JRubyMethod(name = "table_exists?")
@@ -1326,7 +2314,8 @@ public class RubyJdbcConnection extends RubyObject {
         final String tableName = table.toString();
         final String defaultSchema = schema.isNil() ? null : schema.toString();
 
-        return tableExists(context, defaultSchema, tableName);
+        return schemaCached(context, "table_exists", null, defaultSchema, tableName, null,
+                () -> tableExists(context, defaultSchema, tableName));
     }
 
     protected IRubyObject tableExists(final ThreadContext context,
@@ -1340,24 +2329,31 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = {"columns", "columns_internal"}, required = 1, optional = 2)
     public RubyArray columns_internal(final ThreadContext context, final IRubyObject[] args)
         throws SQLException {
+        final String tableName = args[0].toString();
+        // optionals (NOTE: catalog argumnet was never used before 1.3.0) :
+        final String catalog = args.length > 1 ? toStringOrNull(args[1]) : null;
+        final String defaultSchema = args.length > 2 ? toStringOrNull(args[2]) : null;
+
+        return (RubyArray) schemaCached(context, "columns", catalog, defaultSchema, tableName, null,
+                () -> columnsImpl(context, tableName, catalog, defaultSchema));
+    }
+
+    private RubyArray columnsImpl(final ThreadContext context,
+        final String tableName, final String catalog, final String defaultSchema) {
         return withConnection(context, connection -> {
             ResultSet columns = null;
             try {
-                final String tableName = args[0].toString();
-                // optionals (NOTE: catalog argumnet was never used before 1.3.0) :
-                final String catalog = args.length > 1 ? toStringOrNull(args[1]) : null;
-                final String defaultSchema = args.length > 2 ? toStringOrNull(args[2]) : null;
-
                 final TableName components;
                 components = extractTableName(connection, catalog, defaultSchema, tableName);
 
-                if ( ! tableExists(context, connection, components) ) {
-                    throw new SQLException("table: " + tableName + " does not exist");
-                }
-
                 final DatabaseMetaData metaData = connection.getMetaData();
                 columns = metaData.getColumns(components.catalog, components.schema, components.name, null);
-                return mapColumnsResult(context, metaData, components, columns);
+                final RubyArray result = mapColumnsResult(context, metaData, components, columns);
+                // no columns - only check whether the table exists (saves a round-trip otherwise)
+                if ( result.isEmpty() && ! tableExists(context, connection, components) ) {
+                    throw new SQLException("table: " + tableName + " does not exist");
+                }
+                return result;
             }
             finally {
                 close(columns);
@@ -1367,12 +2363,16 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "indexes")
     public IRubyObject indexes(final ThreadContext context, IRubyObject tableName, IRubyObject name) {
-        return indexes(context, toStringOrNull(tableName), toStringOrNull(name), null);
+        final String table = toStringOrNull(tableName), indexName = toStringOrNull(name);
+        return schemaCached(context, "indexes", null, null, table, indexName,
+                () -> indexes(context, table, indexName, null));
     }
 
     @JRubyMethod(name = "indexes")
     public IRubyObject indexes(final ThreadContext context, IRubyObject tableName, IRubyObject name, IRubyObject schemaName) {
-        return indexes(context, toStringOrNull(tableName), toStringOrNull(name), toStringOrNull(schemaName));
+        final String table = toStringOrNull(tableName), indexName = toStringOrNull(name), schema = toStringOrNull(schemaName);
+        return schemaCached(context, "indexes", null, schema, table, indexName,
+                () -> indexes(context, table, indexName, schema));
     }
 
     // NOTE: metaData.getIndexInfo row mappings :
@@ -1404,6 +2404,7 @@ public class RubyJdbcConnection extends RubyObject {
             final RubyArray indexes = allocArray(context, 8);
             try {
                 final DatabaseMetaData metaData = connection.getMetaData();
+                final ConnectionCapabilities capabilities = getCapabilities(connection);
                 indexInfoSet = metaData.getIndexInfo(table.catalog, table.schema, table.name, false, true);
                 String currentIndex = null;
 
@@ -1412,11 +2413,11 @@ public class RubyJdbcConnection extends RubyObject {
                     if ( indexName == null ) continue;
                     RubyArray currentColumns = null;
 
-                    indexName = caseConvertIdentifierForRails(metaData, indexName);
+                    indexName = caseConvertIdentifierForRails(capabilities, indexName);
 
                     final String columnName = indexInfoSet.getString(INDEX_INFO_COLUMN_NAME);
                     final RubyString rubyColumnName = cachedString(
-                            context, caseConvertIdentifierForRails(metaData, columnName)
+                            context, caseConvertIdentifierForRails(capabilities, columnName)
                     );
                     if ( primaryKeys.contains(rubyColumnName) ) continue;
 
@@ -1425,7 +2426,7 @@ public class RubyJdbcConnection extends RubyObject {
                         currentIndex = indexName;
 
                         String indexTableName = indexInfoSet.getString(INDEX_INFO_TABLE_NAME);
-                        indexTableName = caseConvertIdentifierForRails(metaData, indexTableName);
+                        indexTableName = caseConvertIdentifierForRails(capabilities, indexTableName);
 
                         final boolean nonUnique = indexInfoSet.getBoolean(INDEX_INFO_NON_UNIQUE);
 
@@ -1457,7 +2458,9 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod
     public IRubyObject foreign_keys(final ThreadContext context, IRubyObject table_name) {
-        return foreignKeys(context, table_name.toString(), null, null);
+        final String tableName = table_name.toString();
+        return schemaCached(context, "foreign_keys", null, null, tableName, null,
+                () -> foreignKeys(context, tableName, null, null));
     }
 
     protected IRubyObject foreignKeys(final ThreadContext context, final String tableName, final String schemaName, final String catalog) {
@@ -1473,44 +2476,279 @@ public class RubyJdbcConnection extends RubyObject {
             final List<IRubyObject> fKeys = new ArrayList<>(8);
             try {
                 final DatabaseMetaData metaData = connection.getMetaData();
+                final ConnectionCapabilities capabilities = getCapabilities(connection);
                 fkInfoSet = metaData.getImportedKeys(table.catalog, table.schema, table.name);
 
                 while ( fkInfoSet.next() ) {
-                    final RubyHash options = RubyHash.newHash(runtime);
+                    fKeys.add( mapForeignKey(context, capabilities, fkInfoSet, FKDefinition) );
+                }
 
-                    String fkName = fkInfoSet.getString("FK_NAME");
-                    if (fkName != null) {
-                        fkName = caseConvertIdentifierForRails(metaData, fkName);
-                        options.put(runtime.newSymbol("name"), fkName);
-                    }
+                return newArray(context, fKeys);
+
+            } finally { close(fkInfoSet); }
+        });
+    }
 
-                    String columnName = fkInfoSet.getString("FKCOLUMN_NAME");
-                    options.put(runtime.newSymbol("column"), caseConvertIdentifierForRails(metaData, columnName));
+    // maps a metaData.getImportedKeys row
+    private IRubyObject mapForeignKey(final ThreadContext context, final ConnectionCapabilities capabilities,
+        final ResultSet fkInfoSet, final RubyClass FKDefinition) throws SQLException {
+        final Ruby runtime = context.runtime;
+        final RubyHash options = RubyHash.newHash(runtime);
+
+        String fkName = fkInfoSet.getString("FK_NAME");
+        if (fkName != null) {
+            fkName = caseConvertIdentifierForRails(capabilities, fkName);
+            options.put(runtime.newSymbol("name"), fkName);
+        }
+
+        String columnName = fkInfoSet.getString("FKCOLUMN_NAME");
+        options.put(runtime.newSymbol("column"), caseConvertIdentifierForRails(capabilities, columnName));
+
+        columnName = fkInfoSet.getString("PKCOLUMN_NAME");
+        options.put(runtime.newSymbol("primary_key"), caseConvertIdentifierForRails(capabilities, columnName));
+
+        String fkTableName = fkInfoSet.getString("FKTABLE_NAME");
+        fkTableName = caseConvertIdentifierForRails(capabilities, fkTableName);
+
+        String pkTableName = fkInfoSet.getString("PKTABLE_NAME");
+        pkTableName = caseConvertIdentifierForRails(capabilities, pkTableName);
 
-                    columnName = fkInfoSet.getString("PKCOLUMN_NAME");
-                    options.put(runtime.newSymbol("primary_key"), caseConvertIdentifierForRails(metaData, columnName));
+        final String onDelete = extractForeignKeyRule( fkInfoSet.getInt("DELETE_RULE") );
+        if ( onDelete != null ) options.op_aset(context, runtime.newSymbol("on_delete"), runtime.newSymbol(onDelete));
 
-                    String fkTableName = fkInfoSet.getString("FKTABLE_NAME");
-                    fkTableName = caseConvertIdentifierForRails(metaData, fkTableName);
+        final String onUpdate = extractForeignKeyRule( fkInfoSet.getInt("UPDATE_RULE") );
+        if ( onUpdate != null ) options.op_aset(context, runtime.newSymbol("on_update"), runtime.newSymbol(onUpdate));
 
-                    String pkTableName = fkInfoSet.getString("PKTABLE_NAME");
-                    pkTableName = caseConvertIdentifierForRails(metaData, pkTableName);
+        IRubyObject from_table = cachedString(context, fkTableName);
+        IRubyObject to_table = cachedString(context, pkTableName);
+        return FKDefinition.newInstance(context, from_table, to_table, options, Block.NULL_BLOCK); // ForeignKeyDefinition.new
+    }
 
-                    final String onDelete = extractForeignKeyRule( fkInfoSet.getInt("DELETE_RULE") );
-                    if ( onDelete != null ) options.op_aset(context, runtime.newSymbol("on_delete"), runtime.newSymbol(onDelete));
+    /**
+     * Introspects all tables (of a schema) at once, using a single meta-data query for
+     * each of the columns, primary keys, indexes and foreign keys (instead of a few
+     * queries for every table). Drivers not accepting a null table name for primary keys,
+     * indexes or imported keys are asked table by table. Adapters not
+     * {@link #supportsBulkSchemaSnapshot()} get their primary keys and indexes introspected
+     * using {@link #primaryKeys(ThreadContext, Connection, TableName)} and
+     * {@link #indexes(ThreadContext, String, String, String)}.
+     *
+     * @param context
+     * @param args <code>(schema = nil)</code> - the current schema when not given
+     * @return <code>{ table_name => { columns: [], primary_keys: [], indexes: [], foreign_keys: [] } }</code>
+     */
+    @JRubyMethod(name = "schema_snapshot", optional = 1)
+    public IRubyObject schema_snapshot(final ThreadContext context, final IRubyObject[] args) {
+        final String schemaName = args.length > 0 ? toStringOrNull(args[0]) : null;
+        final boolean bulk = supportsBulkSchemaSnapshot();
+
+        final Collection<TableSnapshot> tables = withConnection(context, connection -> {
+            final Ruby runtime = context.runtime;
+            final DatabaseMetaData metaData = connection.getMetaData();
+            final ConnectionCapabilities capabilities = getCapabilities(connection);
+            final boolean allTables = snapshotAllTables(connection);
 
-                    final String onUpdate = extractForeignKeyRule( fkInfoSet.getInt("UPDATE_RULE") );
-                    if ( onUpdate != null ) options.op_aset(context, runtime.newSymbol("on_update"), runtime.newSymbol(onUpdate));
+            String catalog = connection.getCatalog(); final String schema;
+            if ( schemaName != null ) {
+                if ( databaseSupportsSchemas() ) schema = caseConvertIdentifierForJdbc(connection, schemaName);
+                else {
+                    catalog = caseConvertIdentifierForJdbc(connection, schemaName); schema = null;
+                }
+            }
+            else {
+                schema = databaseSupportsSchemas() ? currentSchema(connection) : null;
+            }
+            final String _catalog = catalog;
 
-                    IRubyObject from_table = cachedString(context, fkTableName);
-                    IRubyObject to_table = cachedString(context, pkTableName);
-                    fKeys.add( FKDefinition.newInstance(context, from_table, to_table, options, Block.NULL_BLOCK) ); // ForeignKeyDefinition.new
+            final Map<String, TableSnapshot> snapshots = new LinkedHashMap<>(); // by (JDBC) table name
+            ResultSet resultSet = null;
+            try {
+                resultSet = metaData.getTables(catalog, schema, null, getTableTypes());
+                while ( resultSet.next() ) {
+                    final String name = resultSet.getString(TABLES_TABLE_NAME);
+                    snapshots.put(name, new TableSnapshot(context, name,
+                            cachedString(context, caseConvertIdentifierForRails(capabilities, name))));
                 }
+            }
+            finally { close(resultSet); }
 
-                return newArray(context, fKeys);
+            final RubyClass Column = getJdbcColumnClass(context);
+            snapshotRows(snapshots, allTables, table -> metaData.getColumns(_catalog, schema, table, null), TABLE_NAME,
+                    (table, rs) -> table.columns.append(context, mapColumn(context, runtime, capabilities, rs, Column))
+            );
 
-            } finally { close(fkInfoSet); }
+            if ( ! bulk ) {
+                for ( final TableSnapshot table : snapshots.values() ) {
+                    table.primaryKeys.addAll(primaryKeys(context, connection, new TableName(_catalog, schema, table.name)));
+                }
+            }
+            else {
+                snapshotRows(snapshots, allTables, table -> metaData.getPrimaryKeys(_catalog, schema, table), TABLE_NAME,
+                        (table, rs) -> table.primaryKeys.add(cachedString(context,
+                                caseConvertIdentifierForRails(capabilities, rs.getString(PRIMARY_KEYS_COLUMN_NAME))))
+                );
+            }
+
+            if ( bulk ) {
+                final RubyClass IndexDefinition = getIndexDefinition(context);
+                snapshotRows(snapshots, allTables, table -> metaData.getIndexInfo(_catalog, schema, table, false, true), INDEX_INFO_TABLE_NAME,
+                        (table, rs) -> {
+                            final String indexName = rs.getString(INDEX_INFO_NAME);
+                            if ( indexName == null ) return;
+
+                            final RubyString columnName = cachedString(context,
+                                    caseConvertIdentifierForRails(capabilities, rs.getString(INDEX_INFO_COLUMN_NAME)));
+                            if ( table.primaryKeys.contains(columnName) ) return;
+
+                            RubyArray columns = table.indexColumns.get(indexName);
+                            if ( columns == null ) {
+                                final boolean nonUnique = rs.getBoolean(INDEX_INFO_NON_UNIQUE);
+                                IRubyObject[] indexArgs = new IRubyObject[] {
+                                    table.rubyName, // table_name
+                                    cachedString(context, caseConvertIdentifierForRails(capabilities, indexName)), // index_name
+                                    nonUnique ? context.fals : context.tru, // unique
+                                    columns = allocArray(context, 4) // [] column names
+                                };
+                                table.indexColumns.put(indexName, columns);
+                                table.indexes.append(context, IndexDefinition.newInstance(context, indexArgs, Block.NULL_BLOCK));
+                            }
+                            columns.append(context, columnName);
+                        }
+                );
+            }
+
+            final RubyClass FKDefinition = getForeignKeyDefinition(context);
+            snapshotRows(snapshots, allTables, table -> metaData.getImportedKeys(_catalog, schema, table), FK_TABLE_NAME,
+                    (table, rs) -> table.foreignKeys.append(context, mapForeignKey(context, capabilities, rs, FKDefinition))
+            );
+
+            return snapshots.values();
         });
+
+        final Ruby runtime = context.runtime;
+        final RubyHash snapshot = RubyHash.newHash(runtime);
+        for ( final TableSnapshot table : tables ) {
+            final IRubyObject indexes = bulk ? table.indexes :
+                    indexes(context, table.name, null, databaseSupportsSchemas() ? schemaName : null);
+
+            final RubyHash entry = RubyHash.newHash(runtime);
+            entry.fastASet(runtime.newSymbol("columns"), table.columns);
+            entry.fastASet(runtime.newSymbol("primary_keys"), newArray(context, table.primaryKeys));
+            entry.fastASet(runtime.newSymbol("indexes"), indexes);
+            entry.fastASet(runtime.newSymbol("foreign_keys"), table.foreignKeys);
+            snapshot.fastASet(table.rubyName, entry);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Whether to try introspecting all tables at once (with a null table name) for a schema snapshot.
+     * Not tried within a transaction, a failed (meta-data) query would abort it e.g. on PostgreSQL.
+     * @param connection
+     * @return true to try a single meta-data query, false to ask table by table
+     * @throws SQLException
+     */
+    protected boolean snapshotAllTables(final Connection connection) throws SQLException {
+        return connection.getAutoCommit();
+    }
+
+    /**
+     * Whether primary keys and indexes of a schema snapshot can be read straight from the
+     * (JDBC) meta-data. Adapters customizing the {@link #primaryKeys(ThreadContext, Connection, TableName)}
+     * or {@link #indexes(ThreadContext, String, String, String)} introspection should return false.
+     * @return true by default
+     */
+    protected boolean supportsBulkSchemaSnapshot() {
+        return true;
+    }
+
+    // NOTE: metaData.getImportedKeys FKTABLE_NAME
+    private static final int FK_TABLE_NAME = 7;
+
+    private static final class TableSnapshot {
+
+        final String name;
+        final RubyString rubyName;
+        final RubyArray columns;
+        final List<IRubyObject> primaryKeys = new ArrayList<>(2);
+        final RubyArray indexes;
+        final Map<String, RubyArray> indexColumns = new HashMap<>(8);
+        final RubyArray foreignKeys;
+
+        TableSnapshot(final ThreadContext context, final String name, final RubyString rubyName) {
+            this.name = name;
+            this.rubyName = rubyName;
+            this.columns = newArray(context);
+            this.indexes = newArray(context);
+            this.foreignKeys = newArray(context);
+        }
+
+    }
+
+    private interface MetaDataQuery {
+        ResultSet query(String table) throws SQLException;
+    }
+
+    private interface SnapshotRowMapper {
+        void map(TableSnapshot table, ResultSet resultSet) throws SQLException;
+    }
+
+    private static void snapshotRows(final Map<String, TableSnapshot> tables, final boolean allTables,
+        final MetaDataQuery query, final int tableNameColumn, final SnapshotRowMapper mapper)
+        throws SQLException {
+        ResultSet resultSet = null;
+        if ( allTables ) {
+            try {
+                resultSet = query.query(null); // all tables at once
+            }
+            catch (SQLException e) { // driver needs a table name
+                resultSet = null;
+            }
+        }
+
+        if ( resultSet != null ) {
+            try {
+                while ( resultSet.next() ) {
+                    final TableSnapshot table = tables.get(resultSet.getString(tableNameColumn));
+                    if ( table != null ) mapper.map(table, resultSet);
+                }
+            }
+            finally { close(resultSet); }
+            return;
+        }
+
+        for ( final TableSnapshot table : tables.values() ) {
+            try {
+                resultSet = query.query(table.name);
+                while ( resultSet.next() ) mapper.map(table, resultSet);
+            }
+            finally { close(resultSet); }
+        }
+    }
+
+    // remembered per connection, as drivers might do a round-trip e.g. <code>SELECT current_schema()</code>
+    private String currentSchema(final Connection connection) throws SQLException {
+        return getCapabilities(connection).currentSchema(connection);
+    }
+
+    // the current schema (search path) might have been changed by a statement
+    private void schemaChanged(final Connection connection) {
+        final ConnectionCapabilities capabilities = this.capabilities;
+        if ( capabilities != null ) capabilities.schemaChanged();
+        try {
+            if ( ! connection.getAutoCommit() ) schemaChangePending = true; // reverted on rollback
+        }
+        catch (SQLException e) {
+            schemaChangePending = true;
+        }
+    }
+
+    private void transactionEnded() {
+        if ( schemaChangePending ) {
+            schemaChangePending = false;
+            final ConnectionCapabilities capabilities = this.capabilities;
+            if ( capabilities != null ) capabilities.schemaChanged();
+        }
     }
 
     protected String extractForeignKeyRule(final int rule) {
@@ -1642,7 +2880,12 @@ public class RubyJdbcConnection extends RubyObject {
     protected String caseConvertIdentifierForRails(final Connection connection, final String value)
         throws SQLException {
         if ( value == null ) return null;
-        return caseConvertIdentifierForRails(connection.getMetaData(), value);
+        return caseConvertIdentifierForRails(getCapabilities(connection), value);
+    }
+
+    protected static String caseConvertIdentifierForRails(final ConnectionCapabilities capabilities, final String value) {
+        if ( value == null ) return null;
+        return capabilities.storesUpperCaseIdentifiers() ? value.toLowerCase() : value;
     }
 
     /**
@@ -1665,7 +2908,19 @@ public class RubyJdbcConnection extends RubyObject {
     protected String caseConvertIdentifierForJdbc(final Connection connection, final String value)
         throws SQLException {
         if ( value == null ) return null;
-        return caseConvertIdentifierForJdbc(connection.getMetaData(), value);
+        return caseConvertIdentifierForJdbc(getCapabilities(connection), value);
+    }
+
+    protected static String caseConvertIdentifierForJdbc(final ConnectionCapabilities capabilities, final String value) {
+        if ( value == null ) return null;
+
+        if ( capabilities.storesUpperCaseIdentifiers() ) {
+            return value.toUpperCase();
+        }
+        else if ( capabilities.storesLowerCaseIdentifiers() ) {
+            return value.toLowerCase();
+        }
+        return value;
     }
 
     /**
@@ -1790,7 +3045,7 @@ public class RubyJdbcConnection extends RubyObject {
         if ( driver_instance != null && ! driver_instance.isNil() ) {
             final Object driverInstance = driver_instance.toJava(Object.class);
             if ( driverInstance instanceof DriverWrapper ) {
-                setConnectionFactory(factory = new DriverConnectionFactory(
+                setConnectionFactory(factory = driverFactory(context,
                         (DriverWrapper) driverInstance, jdbcURL,
                         ( username.isNil() ? null : username.toString() ),
                         ( password.isNil() ? null : password.toString() )
@@ -1807,12 +3062,72 @@ public class RubyJdbcConnection extends RubyObject {
             }
         }
 
-        final String user = username.isNil() ? null : username.toString();
-        final String pass = password.isNil() ? null : password.toString();
+        final String user = username.isNil() ? null : username.toString();
+        final String pass = password.isNil() ? null : password.toString();
+
+        final DriverWrapper driverWrapper = newDriverWrapper(context, driver.toString());
+        setConnectionFactory(factory = driverFactory(context, driverWrapper, jdbcURL, user, pass));
+        return factory;
+    }
+
+    /**
+     * A driver connection factory (pooled when configured), routing reads to <code>replicas:</code>
+     * (JDBC URLs connected to using the same driver and credentials) when configured.
+     */
+    private ConnectionFactory driverFactory(final ThreadContext context, final DriverWrapper driver,
+        final String url, final String user, final String pass) {
+        final ConnectionFactory primary = pooled(context, new DriverConnectionFactory(driver, url, user, pass));
+
+        final IRubyObject replicaURLs = getConfigValue(context, "replicas");
+        if ( replicaURLs == context.nil ) return primary;
+
+        final IRubyObject replicaReads = getConfigValue(context, "replica_reads");
+        this.replicaReads = replicaReads != context.nil && replicaReads != context.fals;
+        this.replicaStickyTime = TimeUnit.MILLISECONDS.toNanos(configMillis(context, "replica_sticky_time", 1_000));
+
+        final RubyArray urls = (RubyArray) TypeConverter.checkArrayType(context, replicaURLs);
+        final RoutingConnectionFactory.Replica[] replicas = new RoutingConnectionFactory.Replica[urls.getLength()];
+        for ( int i = 0; i < replicas.length; i++ ) {
+            final String replicaURL = buildURL(context, urls.eltInternal(i));
+            replicas[i] = new RoutingConnectionFactory.Replica(replicaURL,
+                    pooled(context, new DriverConnectionFactory(driver, replicaURL, user, pass))
+            );
+        }
+        return new RoutingConnectionFactory(primary, replicas, configMillis(context, "replica_ejection_time", 30_000));
+    }
+
+    /**
+     * Wraps the (driver) factory into a shared pool when <code>jdbc_pool_size</code> is configured.
+     * @param context
+     * @param factory
+     * @return pooled factory or the given one
+     */
+    private ConnectionFactory pooled(final ThreadContext context, final DriverConnectionFactory factory) {
+        final IRubyObject size = getConfigValue(context, "jdbc_pool_size");
+        if ( size == context.nil || toInt(context, size) <= 0 ) return factory;
+
+        final IRubyObject resetSQL = getConfigValue(context, "jdbc_pool_reset_sql");
+        return PooledConnectionFactory.forDatabase(context, factory,
+                resetSQL == context.nil ? getPoolResetSQL() : ( resetSQL == context.fals ? null : resetSQL.toString() ),
+                toInt(context, size),
+                configMillis(context, "jdbc_pool_timeout", 5_000),
+                configMillis(context, "jdbc_pool_idle_timeout", 600_000),
+                configMillis(context, "jdbc_pool_max_lifetime", 1_800_000),
+                configMillis(context, "jdbc_pool_keepalive", 0)
+        );
+    }
 
-        final DriverWrapper driverWrapper = newDriverWrapper(context, driver.toString());
-        setConnectionFactory(factory = new DriverConnectionFactory(driverWrapper, jdbcURL, user, pass));
-        return factory;
+    /**
+     * @return SQL executed on connections returned to the (<code>jdbc_pool_size</code>) pool,
+     *         unless configured using <code>jdbc_pool_reset_sql</code>
+     */
+    protected String getPoolResetSQL() {
+        return null;
+    }
+
+    private long configMillis(final ThreadContext context, final String key, final long defaultValue) {
+        final IRubyObject value = getConfigValue(context, key);
+        return value == context.nil ? defaultValue : toInt(context, value);
     }
 
     protected DriverWrapper newDriverWrapper(final ThreadContext context, final String driver) throws RaiseException {
@@ -1933,6 +3248,12 @@ public class RubyJdbcConnection extends RubyObject {
 
     protected boolean isJndi() { return this.jndi; }
 
+    /**
+     * @return whether query results are mapped into a (lazy) columnar result
+     * @see ColumnarResult
+     */
+    protected boolean isColumnarResults() { return this.columnarResults; }
+
     @JRubyMethod(name = "config")
     public IRubyObject config() { return config; }
 
@@ -2000,6 +3321,19 @@ public class RubyJdbcConnection extends RubyObject {
         return getConnectionFactory().newConnection();
     }
 
+    private Connection connect(final boolean reconnect) throws SQLException {
+        if ( ! JdbcEvents.ENABLED ) return newConnection();
+
+        final JdbcEvents.Connect event = new JdbcEvents.Connect();
+        event.begin(); Connection connection = null;
+        try {
+            return connection = newConnection();
+        }
+        finally {
+            JdbcEvents.commit(event, reconnect, connection != null);
+        }
+    }
+
     private static String[] getTypes(final IRubyObject typeArg) {
         if ( typeArg instanceof RubyArray ) {
             final RubyArray typesArr = (RubyArray) typeArg;
@@ -2025,82 +3359,358 @@ public class RubyJdbcConnection extends RubyObject {
                                       final ResultSet resultSet, final ColumnData[] columns) throws SQLException {
         final Ruby runtime = context.runtime;
 
+        final JdbcEvents.ResultMapping event = JdbcEvents.ENABLED ? new JdbcEvents.ResultMapping() : null;
+        if ( event != null ) event.begin();
+
         final RubyArray resultRows = newArray(context);
+        final ColumnConverter[] converters = converters(columns);
 
-        while (resultSet.next()) {
-            resultRows.append(context, mapRow(context, runtime, columns, resultSet, this));
+        final ResultSet rows = fetchAhead(resultSet, columnTypes(columns));
+        try {
+            while (rows.next()) {
+                resultRows.append(context, mapRow(context, runtime, columns, converters, rows));
+            }
         }
+        finally { if (rows != resultSet) rows.close(); }
+        rowsMapped(resultRows.size());
+        if ( event != null ) JdbcEvents.commit(event, resultRows.size(), columns.length);
 
         return newResult(context, columns, resultRows);
     }
 
+    /**
+     * Maps a query result into a columnar buffer, values are not converted into Ruby
+     * objects until the rows are accessed (where the column's buffer permits).
+     * @param context
+     * @param connection
+     * @param resultSet
+     * @param columns
+     * @return the (columnar) result buffer
+     * @throws SQLException
+     * @see #columnarColumnFor(ThreadContext, ResultSetMetaData, ColumnData, ColumnConverter)
+     */
+    protected ColumnarResult mapToColumnarResult(final ThreadContext context, final Connection connection,
+                                                 final ResultSet resultSet, final ColumnData[] columns) throws SQLException {
+        return ColumnarResult.newResult(context, this, resultSet, columns);
+    }
+
+    /**
+     * Resolves how values of a column are buffered in a {@link ColumnarResult}.
+     * Primitive buffers skip the (integer or float) xxxToRuby conversion and are
+     * only used for types the adapter {@link #canBufferPrimitive(int)}.
+     * @param context
+     * @param metaData the result set's meta-data
+     * @param column the column
+     * @param converter the converter resolved for the column
+     * @return a column buffer
+     * @throws SQLException
+     */
+    protected ColumnarResult.Column columnarColumnFor(final ThreadContext context,
+        final ResultSetMetaData metaData, final ColumnData column, final ColumnConverter converter)
+        throws SQLException {
+        if ( ! canBufferPrimitive(column.type) ) return ColumnarResult.objectColumn(converter);
+        switch (column.type) {
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+            return ColumnarResult.longColumn();
+        case Types.BIGINT:
+            // unsigned BIGINT (e.g. MySQL) does not fit a long
+            if ( ! metaData.isSigned(column.index) && metaData.getPrecision(column.index) >= 19 ) break;
+            return ColumnarResult.longColumn();
+        case Types.REAL:
+        case Types.FLOAT:
+        case Types.DOUBLE:
+            return ColumnarResult.doubleColumn();
+        }
+        return ColumnarResult.objectColumn(converter);
+    }
+
+    /**
+     * Whether (integer or float) values of the given type can be buffered as primitives
+     * in a {@link ColumnarResult}, without going through {@link #converterFor(int)}.
+     * Adapters customizing the conversion of such types should return false.
+     * @param type the (JDBC) column type
+     * @return true by default
+     */
+    protected boolean canBufferPrimitive(final int type) {
+        return true;
+    }
+
+    /**
+     * Converts a single value, for mapping (many) rows resolve the converters
+     * up-front using {@link #converters(ColumnData[])} instead.
+     */
     protected IRubyObject jdbcToRuby(
         final ThreadContext context, final Ruby runtime,
         final int column, final int type, final ResultSet resultSet)
         throws SQLException {
+        return converterFor(type).toRuby(context, runtime, resultSet, column);
+    }
+
+    /**
+     * Resolves the converters to be used for mapping the given columns (a "row plan").
+     * @param columns
+     * @return converters at the same (0-based) positions as the columns
+     */
+    protected ColumnConverter[] converters(final ColumnData[] columns) {
+        final ColumnConverter[] converters = new ColumnConverter[columns.length];
+        for ( int i = 0; i < columns.length; i++ ) {
+            converters[i] = interning(converterFor(columns[i].type), columns[i].type);
+        }
+        return converters;
+    }
+
+    /**
+     * @param columnTypes JDBC types
+     * @return converters at the same (0-based) positions as the types
+     * @see #converters(ColumnData[])
+     */
+    protected ColumnConverter[] converters(final int[] columnTypes) {
+        final ColumnConverter[] converters = new ColumnConverter[columnTypes.length];
+        for ( int i = 0; i < columnTypes.length; i++ ) {
+            converters[i] = interning(converterFor(columnTypes[i]), columnTypes[i]);
+        }
+        return converters;
+    }
+
+    /**
+     * With <code>intern_strings</code> configured values of (short) character columns
+     * are shared (frozen) within a result, as long as the column has few distinct values.
+     */
+    private ColumnConverter interning(final ColumnConverter converter, final int type) {
+        if ( internStrings == 0 ) return converter;
+        switch (type) {
+        case Types.CHAR:
+        case Types.VARCHAR:
+        case Types.NCHAR:
+        case Types.NVARCHAR:
+            return new InterningConverter(converter, internStrings);
+        default:
+            return converter;
+        }
+    }
+
+    /**
+     * Resolves a (JDBC) type into a converter, adapters customizing how values
+     * of a given type are mapped should override this (or the matching
+     * <code>xxxToRuby</code> method) instead of {@link #jdbcToRuby}.
+     * @param type the (JDBC) column type
+     * @return a converter (maps into a String by default)
+     */
+    protected ColumnConverter converterFor(final int type) {
+        switch (type) {
+        case Types.BLOB:
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+            return (context, runtime, resultSet, column) -> {
+                try {
+                    final IRubyObject value = streamToRuby(context, runtime, resultSet, column);
+                    if ( metrics != null && value instanceof RubyString ) {
+                        metrics.lobRead(((RubyString) value).getByteList().length(), 0);
+                    }
+                    return value;
+                }
+                catch (IOException e) {
+                    throw new SQLException(e.getMessage(), e);
+                }
+            };
+        case Types.CLOB:
+        case Types.NCLOB: // JDBC 4.0
+        case Types.LONGVARCHAR:
+        case Types.LONGNVARCHAR: // JDBC 4.0
+            return (context, runtime, resultSet, column) -> {
+                try {
+                    final IRubyObject value = readerToRuby(context, runtime, resultSet, column);
+                    if ( metrics != null && value instanceof RubyString ) {
+                        metrics.lobRead(0, ((RubyString) value).strLength());
+                    }
+                    return value;
+                }
+                catch (IOException e) {
+                    throw new SQLException(e.getMessage(), e);
+                }
+            };
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+            return this::integerToRuby;
+        case Types.REAL:
+        case Types.FLOAT:
+        case Types.DOUBLE:
+            return this::doubleToRuby;
+        case Types.BIGINT:
+            return this::bigIntegerToRuby;
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+            return this::decimalToRuby;
+        case Types.DATE:
+            return this::dateToRuby;
+        case Types.TIME:
+            return this::timeToRuby;
+        case Types.TIMESTAMP:
+            return this::timestampToRuby;
+        case Types.BIT:
+            return this::bitToRuby;
+        case Types.BOOLEAN:
+            return this::booleanToRuby;
+        case Types.SQLXML: // JDBC 4.0
+            return this::xmlToRuby;
+        case Types.ARRAY: // we handle JDBC Array into (Ruby) []
+            return this::arrayToRuby;
+        case Types.NULL:
+            return NULL_CONVERTER;
+        // NOTE: (JDBC) exotic stuff just cause it's so easy with JRuby :)
+        case Types.JAVA_OBJECT:
+        case Types.OTHER:
+            return this::objectToRuby;
+        // (default) String
+        case Types.CHAR:
+        case Types.VARCHAR:
+        case Types.NCHAR: // JDBC 4.0
+        case Types.NVARCHAR: // JDBC 4.0
+        default:
+            return this::stringToRuby;
+        }
+        // NOTE: not mapped types :
+        //case Types.DISTINCT:
+        //case Types.STRUCT:
+        //case Types.REF:
+        //case Types.DATALINK:
+    }
+
+    private static final ColumnConverter NULL_CONVERTER =
+        (context, runtime, resultSet, column) -> context.nil;
+
+    private static int[] columnTypes(final ColumnData[] columns) {
+        final int[] types = new int[columns.length];
+        for ( int i = 0; i < columns.length; i++ ) types[i] = columns[i].type;
+        return types;
+    }
 
+    /**
+     * Wraps a result set so that rows are fetched ahead (on the <code>pipelined_fetch_executor</code>
+     * or a shared thread pool) while being mapped, if configured (<code>pipelined_fetch</code>) and
+     * all columns are of types that can be fetched ahead. The returned result set needs to be closed
+     * (before the given one gets closed) when not the same as the given one.
+     * @param resultSet
+     * @param types (JDBC) column types
+     * @return the result set to map rows from
+     * @throws SQLException
+     * @see #canFetchAhead(int)
+     */
+    final ResultSet fetchAhead(final ResultSet resultSet, final int[] types) throws SQLException {
+        if ( fetchAhead == 0 ) return resultSet;
+        for ( final int type : types ) {
+            if ( ! canFetchAhead(type) ) return resultSet;
+        }
+        final Executor executor = fetchExecutor;
         try {
-            switch (type) {
-            case Types.BLOB:
-            case Types.BINARY:
-            case Types.VARBINARY:
-            case Types.LONGVARBINARY:
-                return streamToRuby(context, runtime, resultSet, column);
-            case Types.CLOB:
-            case Types.NCLOB: // JDBC 4.0
-                return readerToRuby(context, runtime, resultSet, column);
-            case Types.LONGVARCHAR:
-            case Types.LONGNVARCHAR: // JDBC 4.0
-                return readerToRuby(context, runtime, resultSet, column);
-            case Types.TINYINT:
-            case Types.SMALLINT:
-            case Types.INTEGER:
-                return integerToRuby(context, runtime, resultSet, column);
-            case Types.REAL:
-            case Types.FLOAT:
-            case Types.DOUBLE:
-                return doubleToRuby(context, runtime, resultSet, column);
-            case Types.BIGINT:
-                return bigIntegerToRuby(context, runtime, resultSet, column);
-            case Types.NUMERIC:
-            case Types.DECIMAL:
-                return decimalToRuby(context, runtime, resultSet, column);
-            case Types.DATE:
-                return dateToRuby(context, runtime, resultSet, column);
-            case Types.TIME:
-                return timeToRuby(context, runtime, resultSet, column);
-            case Types.TIMESTAMP:
-                return timestampToRuby(context, runtime, resultSet, column);
-            case Types.BIT:
-                return bitToRuby(context, runtime, resultSet, column);
-            case Types.BOOLEAN:
-                return booleanToRuby(context, runtime, resultSet, column);
-            case Types.SQLXML: // JDBC 4.0
-                return xmlToRuby(context, runtime, resultSet, column);
-            case Types.ARRAY: // we handle JDBC Array into (Ruby) []
-                return arrayToRuby(context, runtime, resultSet, column);
-            case Types.NULL:
-                return context.nil;
-            // NOTE: (JDBC) exotic stuff just cause it's so easy with JRuby :)
-            case Types.JAVA_OBJECT:
-            case Types.OTHER:
-                return objectToRuby(context, runtime, resultSet, column);
-            // (default) String
-            case Types.CHAR:
-            case Types.VARCHAR:
-            case Types.NCHAR: // JDBC 4.0
-            case Types.NVARCHAR: // JDBC 4.0
-            default:
-                return stringToRuby(context, runtime, resultSet, column);
-            }
-            // NOTE: not mapped types :
-            //case Types.DISTINCT:
-            //case Types.STRUCT:
-            //case Types.REF:
-            //case Types.DATALINK:
+            return new PipelinedResultSet(this, resultSet, types, fetchAhead,
+                    executor == null ? PipelinedResultSet.defaultExecutor() : executor);
+        }
+        catch (RejectedExecutionException e) {
+            return resultSet; // e.g. a (configured) executor shut down - fetch on the caller
+        }
+    }
+
+    /**
+     * Whether values of the given type can be fetched ahead using {@link #fetchValue(ResultSet, int, int)}.
+     * Adapters whose converters need more than a (fetched) value should return false.
+     * @param type the (JDBC) column type
+     * @return true for types read by value (LOBs are read fully)
+     */
+    protected boolean canFetchAhead(final int type) {
+        switch (type) {
+        case Types.BLOB:
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+        case Types.CLOB:
+        case Types.NCLOB:
+        case Types.LONGVARCHAR:
+        case Types.LONGNVARCHAR:
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+        case Types.BIGINT:
+        case Types.REAL:
+        case Types.FLOAT:
+        case Types.DOUBLE:
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+        case Types.DATE:
+        case Types.TIME:
+        case Types.TIMESTAMP:
+        case Types.BIT:
+        case Types.BOOLEAN:
+        case Types.NULL:
+        case Types.JAVA_OBJECT:
+        case Types.OTHER:
+        case Types.CHAR:
+        case Types.VARCHAR:
+        case Types.NCHAR:
+        case Types.NVARCHAR:
+            return true;
+        default: // ARRAY, SQLXML, STRUCT as well as (non-standard) vendor types
+            return false;
         }
-        catch (IOException e) {
-            throw new SQLException(e.getMessage(), e);
+    }
+
+    /**
+     * Reads a column value when fetching ahead, the value is expected to be what the
+     * column's converter reads (using the same getter) since converters then read from
+     * the buffered values. NOTE: called on the fetching (not a Ruby) thread!
+     * @param resultSet positioned at the row being fetched
+     * @param column 1-based column index
+     * @param type the (JDBC) column type
+     * @return the (raw) value, null for SQL NULL
+     * @throws SQLException
+     * @see #converterFor(int)
+     */
+    protected Object fetchValue(final ResultSet resultSet, final int column, final int type) throws SQLException {
+        switch (type) {
+        case Types.BLOB:
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+            return resultSet.getBytes(column);
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER: {
+            final long value = resultSet.getLong(column);
+            return value == 0 && resultSet.wasNull() ? null : value;
+        }
+        case Types.REAL:
+        case Types.FLOAT:
+        case Types.DOUBLE: {
+            final double value = resultSet.getDouble(column);
+            return value == 0 && resultSet.wasNull() ? null : value;
+        }
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+            return resultSet.getBigDecimal(column);
+        case Types.DATE:
+            return resultSet.getDate(column);
+        case Types.TIME:
+            return resultSet.getTime(column);
+        case Types.TIMESTAMP:
+            return resultSet.getTimestamp(column);
+        case Types.BIT:
+        case Types.BOOLEAN: {
+            if ( rawBoolean != null && rawBoolean ) return resultSet.getString(column);
+            final boolean value = resultSet.getBoolean(column);
+            return ! value && resultSet.wasNull() ? null : value;
+        }
+        case Types.NULL:
+            return null;
+        case Types.JAVA_OBJECT:
+        case Types.OTHER:
+            return resultSet.getObject(column);
+        // (default) String - also BIGINT and CLOBs
+        default:
+            return resultSet.getString(column);
         }
     }
 
@@ -2154,6 +3764,11 @@ public class RubyJdbcConnection extends RubyObject {
         return newDefaultInternalString(runtime, value);
     }
 
+    /**
+     * Converts a string column from the raw bytes, without decoding (and re-encoding) a Java
+     * String in between. NOTE: the bytes need to be in Ruby's default internal encoding
+     * (or the Java default), usually UTF-8 - see {@link StringHelper#isDefaultInternalUTF8(Ruby)}.
+     */
     protected static IRubyObject bytesToRubyString(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column)
         throws SQLException { // optimized String -> byte[]
@@ -2409,8 +4024,9 @@ public class RubyJdbcConnection extends RubyObject {
                 return stringToRuby(context, runtime, resultSet, column);
             }
 
+            final ColumnConverter converter = converterFor(baseType);
             while ( arrayResult.next() ) {
-                array.append(context, jdbcToRuby(context, runtime, 2, baseType, arrayResult));
+                array.append(context, converter.toRuby(context, runtime, arrayResult, 2));
             }
             arrayResult.close();
 
@@ -2449,6 +4065,58 @@ public class RubyJdbcConnection extends RubyObject {
         }
     }
 
+    /**
+     * Sets parameters of a cached statement, attribute types resolved on a previous
+     * execution (with the same type object) are taken from the plan.
+     * @param context
+     * @param connection
+     * @param statement
+     * @param binds
+     * @param plan (when null parameters are set as usual)
+     * @throws SQLException
+     */
+    final void setStatementParameters(final ThreadContext context,
+        final Connection connection, final PreparedStatement statement,
+        final RubyArray binds, final BindPlan plan) throws SQLException {
+
+        if ( JdbcEvents.ENABLED ) {
+            final JdbcEvents.BindParameters event = new JdbcEvents.BindParameters();
+            event.begin();
+            if ( plan == null ) setStatementParameters(context, connection, statement, binds);
+            else setPlannedParameters(context, connection, statement, binds, plan);
+            JdbcEvents.commit(event, binds.getLength(), plan != null);
+            return;
+        }
+
+        if ( plan == null ) {
+            setStatementParameters(context, connection, statement, binds); return;
+        }
+        setPlannedParameters(context, connection, statement, binds, plan);
+    }
+
+    private void setPlannedParameters(final ThreadContext context,
+        final Connection connection, final PreparedStatement statement,
+        final RubyArray binds, final BindPlan plan) throws SQLException {
+        for ( int i = 0; i < binds.getLength(); i++ ) {
+            final IRubyObject attribute = binds.eltInternal(i);
+            if ( ! attributeClass.isInstance(attribute) ) {
+                setStatementParameter(context, connection, statement, i + 1, attribute);
+                continue;
+            }
+
+            final IRubyObject attributeType = attributeType(context, attribute);
+            int type = plan.jdbcType(i, attributeType);
+            if ( type == BindPlan.UNRESOLVED ) {
+                type = jdbcTypeForAttribute(context, attribute);
+                // with no (SQL) type the JDBC type depends on the value
+                if ( attributeType != null && attributeType.callMethod(context, "type") != context.nil ) {
+                    plan.resolved(i, attributeType, type);
+                }
+            }
+            setStatementParameter(context, connection, statement, i + 1, valueForDatabase(context, attribute), attribute, type);
+        }
+    }
+
     // Set the prepared statement attributes based on the passed in Attribute object
     protected void setStatementParameter(final ThreadContext context,
             final Connection connection, final PreparedStatement statement,
@@ -2468,6 +4136,14 @@ public class RubyJdbcConnection extends RubyObject {
             value = attribute;
         }
 
+        setStatementParameter(context, connection, statement, index, value, attribute, type);
+    }
+
+    protected void setStatementParameter(final ThreadContext context,
+            final Connection connection, final PreparedStatement statement,
+            final int index, final IRubyObject value,
+            final IRubyObject attribute, final int type) throws SQLException {
+
         // All the set methods were calling this first so save a method call in the nil case
         if ( value == context.nil ) {
             statement.setNull(index, type);
@@ -2936,14 +4612,16 @@ public class RubyJdbcConnection extends RubyObject {
     protected Connection getConnectionInternal(final boolean required) throws SQLException {
         Connection connection = getConnectionImpl();
         if (connection == null && required) {
-            if (!connected) handleNotConnected(getRuntime().getCurrentContext()); // raise ConnectionNotEstablished
-            synchronized (this) {
+            if (!isConnected()) handleNotConnected(getRuntime().getCurrentContext()); // raise ConnectionNotEstablished
+            lifecycleLock.lock();
+            try {
                 connection = getConnectionImpl();
                 if ( connection == null ) {
                     connectImpl(true); // throws SQLException
                     connection = getConnectionImpl();
                 }
             }
+            finally { lifecycleLock.unlock(); }
         }
         return connection;
     }
@@ -2958,12 +4636,16 @@ public class RubyJdbcConnection extends RubyObject {
      * @return current JDBC connection
      */
     protected final Connection getConnectionImpl() {
-        return (Connection) dataGetStruct(); // synchronized
+        return currentConnection; // volatile read
     }
 
     private void setConnection(final Connection connection) {
+        if ( statementCache != null ) statementCache.clear(); // statements of the previous connection
+        preparedPlans.clear();
         close( getConnectionImpl() ); // close previously open connection if there is one
-        dataWrapStruct(connection);
+        this.currentConnection = connection; this.lastUsed = 0;
+        this.capabilities = null; // re-read for the new connection
+        state.set( connection == null ? ConnectionState.LAZY : ConnectionState.CONNECTED );
         if ( connection != null ) logDriverUsed(connection);
     }
 
@@ -2977,12 +4659,18 @@ public class RubyJdbcConnection extends RubyObject {
                 statement = createStatement(context, connection);
                 statement.setQueryTimeout(aliveTimeout); // 0 - no timeout
                 statement.execute(aliveSQL);
+                markUsed();
                 return true; // connection alive
             }
-            return connection.isValid(aliveTimeout); // isValid(0) (default) means no timeout applied
+            if ( connection.isValid(aliveTimeout) ) { // isValid(0) (default) means no timeout applied
+                markUsed(); return true;
+            }
+            PooledConnectionFactory.markBroken(connection);
+            return false;
         }
         catch (Exception e) {
             debugMessage(context.runtime, "connection considered not valid due: ", e);
+            PooledConnectionFactory.markBroken(connection);
             return false;
         }
         catch (AbstractMethodError e) { // non-JDBC 4.0 driver
@@ -3155,27 +4843,35 @@ public class RubyJdbcConnection extends RubyObject {
         throws SQLException {
 
         final Ruby runtime = context.runtime;
+        final ConnectionCapabilities capabilities = getCapabilities(metaData.getConnection());
 
         final RubyArray columns = newArray(context);
         while ( results.next() ) {
-            final String colName = results.getString(COLUMN_NAME);
-            final RubyString columnName = cachedString(context, caseConvertIdentifierForRails(metaData, colName));
-            final IRubyObject defaultValue = defaultValueFromResultSet( runtime, results );
-            final RubyString sqlType = cachedString(context, typeFromResultSet(results));
-            final RubyBoolean nullable = runtime.newBoolean( ! results.getString(IS_NULLABLE).trim().equals("NO") );
+            columns.append(context, mapColumn(context, runtime, capabilities, results, Column));
+        }
+        return columns;
+    }
 
-            final String tabName = results.getString(TABLE_NAME);
-            final RubyString tableName = cachedString(context, caseConvertIdentifierForRails(metaData, tabName));
+    // maps a metaData.getColumns row
+    private IRubyObject mapColumn(final ThreadContext context, final Ruby runtime,
+        final ConnectionCapabilities capabilities, final ResultSet results, final RubyClass Column)
+        throws SQLException {
+        final String colName = results.getString(COLUMN_NAME);
+        final RubyString columnName = cachedString(context, caseConvertIdentifierForRails(capabilities, colName));
+        final IRubyObject defaultValue = defaultValueFromResultSet( runtime, results );
+        final RubyString sqlType = cachedString(context, typeFromResultSet(results));
+        final RubyBoolean nullable = runtime.newBoolean( ! results.getString(IS_NULLABLE).trim().equals("NO") );
 
-            final IRubyObject type_metadata = adapter.callMethod(context, "fetch_type_metadata", sqlType);
+        final String tabName = results.getString(TABLE_NAME);
+        final RubyString tableName = cachedString(context, caseConvertIdentifierForRails(capabilities, tabName));
 
-            // (name, default, sql_type_metadata = nil, null = true, table_name = nil, default_function = nil, collation = nil, comment: nil)
-            final IRubyObject[] args = new IRubyObject[] {
-                columnName, defaultValue, type_metadata, nullable, tableName
-            };
-            columns.append(context, Column.newInstance(context, args, Block.NULL_BLOCK));
-        }
-        return columns;
+        final IRubyObject type_metadata = adapter.callMethod(context, "fetch_type_metadata", sqlType);
+
+        // (name, default, sql_type_metadata = nil, null = true, table_name = nil, default_function = nil, collation = nil, comment: nil)
+        final IRubyObject[] args = new IRubyObject[] {
+            columnName, defaultValue, type_metadata, nullable, tableName
+        };
+        return Column.newInstance(context, args, Block.NULL_BLOCK);
     }
 
     private static Collection<String> getPrimaryKeyNames(final DatabaseMetaData metaData,
@@ -3258,14 +4954,22 @@ public class RubyJdbcConnection extends RubyObject {
         return asFixnum(context, genKeys.getLong(1));
     }
 
-    private transient Boolean supportsGeneratedKeys;
-
     protected boolean supportsGeneratedKeys(final Connection connection) throws SQLException {
-        Boolean supportsGeneratedKeys = this.supportsGeneratedKeys;
-        if (supportsGeneratedKeys == null) {
-            supportsGeneratedKeys = this.supportsGeneratedKeys = (Boolean) connection.getMetaData().supportsGetGeneratedKeys();
+        return getCapabilities(connection).supportsGeneratedKeys();
+    }
+
+    /**
+     * @param connection
+     * @return the capabilities snapshot of the (current) connection, read once per connection
+     * @throws SQLException
+     */
+    protected final ConnectionCapabilities getCapabilities(final Connection connection) throws SQLException {
+        ConnectionCapabilities capabilities = this.capabilities;
+        if ( capabilities == null ) {
+            capabilities = ConnectionCapabilities.of(connection.getMetaData());
+            if ( connection == getConnectionImpl() ) this.capabilities = capabilities;
         }
-        return supportsGeneratedKeys;
+        return capabilities;
     }
 
     /**
@@ -3274,38 +4978,42 @@ public class RubyJdbcConnection extends RubyObject {
      * @param downCase should column names only be in lower case?
      */
     @SuppressWarnings("unchecked")
-    private IRubyObject mapToRawResult(final ThreadContext context,
+    private RubyArray mapToRawResult(final ThreadContext context,
             final Connection connection, final ResultSet resultSet,
             final boolean downCase) throws SQLException {
 
         final ColumnData[] columns = extractColumns(context, connection, resultSet, downCase);
 
+        final ColumnConverter[] converters = converters(columns);
+
         final RubyArray results = newArray(context);
         // [ { 'col1': 1, 'col2': 2 }, { 'col1': 3, 'col2': 4 } ]
 
         while ( resultSet.next() ) {
-            results.append(context, mapRawRow(context, context.runtime, columns, resultSet, this));
+            results.append(context, mapRawRow(context, context.runtime, columns, converters, resultSet));
         }
+        rowsMapped(results.size());
         return results;
     }
 
-    private IRubyObject yieldResultRows(final ThreadContext context,
+    private int yieldResultRows(final ThreadContext context,
             final Connection connection, final ResultSet resultSet,
             final Block block) throws SQLException {
 
         final ColumnData[] columns = extractColumns(context, connection, resultSet, false);
+        final ColumnConverter[] converters = converters(columns);
 
-        final Ruby runtime = context.runtime;
+        final Ruby runtime = context.runtime; int rows = 0;
         while ( resultSet.next() ) {
             final IRubyObject[] blockArgs = new IRubyObject[columns.length];
             for ( int i = 0; i < columns.length; i++ ) {
-                final ColumnData column = columns[i];
-                blockArgs[i] = jdbcToRuby(context, runtime, column.index, column.type, resultSet);
+                blockArgs[i] = converters[i].toRuby(context, runtime, resultSet, columns[i].index);
             }
-            block.call( context, blockArgs );
+            block.call( context, blockArgs ); rows++;
         }
+        rowsMapped(rows);
 
-        return context.nil; // yielded result rows
+        return rows; // yielded result rows
     }
 
     /**
@@ -3323,6 +5031,135 @@ public class RubyJdbcConnection extends RubyObject {
         return setupColumns(context, connection, resultSet.getMetaData(), downCase);
     }
 
+    /**
+     * Runs a read on a replica connection (when replicas are configured) for reads outside
+     * of a transaction when <code>replica_reads: true</code> or all reads when <code>read_only</code>,
+     * otherwise on the connection. Reads stay on the primary for <code>replica_sticky_time</code>
+     * after a write (or commit), as replicas might not have caught up yet.
+     * Connection failures eject the replica and the read gets re-tried on another replica,
+     * falling back to the primary connection. NOTE: replica failures are handled by ejection
+     * only, they are not accounted by the (primary's) circuit breaker and the retry policy does
+     * not apply to them (other than the read being re-tried elsewhere). While the circuit breaker
+     * is not closed reads go to the primary, as any other statement.
+     * @param context
+     * @param sql the read (select) statement, null to always use the primary
+     * @param block
+     * @return the block's result
+     */
+    protected <T> T withReadConnection(final ThreadContext context, final IRubyObject sql, final Callable<T> block)
+            throws RaiseException {
+        final ConnectionFactory factory = this.connectionFactory;
+        if ( sql == null || ! ( factory instanceof RoutingConnectionFactory ) || ! isReplicaRead(sql) ) {
+            return withConnection(context, block);
+        }
+        final CircuitBreaker breaker = this.circuitBreaker;
+        if ( breaker != null && breaker.getState() != CircuitBreaker.State.CLOSED ) {
+            return withConnection(context, block); // fail fast (or a trial) as any other statement
+        }
+
+        final JdbcEvents.ConnectionUse event = JdbcEvents.ENABLED ? new JdbcEvents.ConnectionUse() : null;
+        if ( event != null ) event.begin();
+
+        final RoutingConnectionFactory routing = (RoutingConnectionFactory) factory;
+        RoutingConnectionFactory.Replica replica; int retries = 0; boolean failed = true;
+        try {
+            while ( ( replica = connectReplica(context, routing) ) != null ) {
+                final Connection connection = this.replicaConnection;
+                replica.started();
+                try {
+                    final T result = block.call(connection);
+                    markUsed(); failed = false;
+                    return result;
+                }
+                catch (SQLException e) {
+                    if ( isConnectionValid(context, connection) ) return handleException(context, e);
+                    debugErrorSQL(context, sqlString(sql));
+                    debugMessage(context.runtime, "replica " + replica.url + " ejected due: ", e);
+                    routing.eject(replica); // connection failure - try another replica
+                    setReplicaConnection(replica, null);
+                    if ( metrics != null ) metrics.retried();
+                    retries++;
+                }
+                finally {
+                    replica.finished();
+                }
+            }
+        }
+        finally {
+            if ( event != null ) JdbcEvents.commit(event, retries, failed);
+        }
+        return withConnection(context, block); // all replicas ejected
+    }
+
+    private boolean isReplicaRead(final IRubyObject sql) {
+        if ( ! readOnly && ! replicaReads ) return false; // routing is opt-in
+        final long lastWrite = this.lastWrite;
+        if ( lastWrite != 0 && System.nanoTime() - lastWrite < replicaStickyTime ) return false; // read own writes
+
+        final ByteList sqlBytes = sql.asString().getByteList();
+        if ( StringHelper.startsWithIgnoreCase(sqlBytes, CALL) || ! isSelect(sql.asString()) ) return false;
+        if ( readOnly ) return true;
+        final Connection connection = getConnectionImpl();
+        try {
+            return connection == null || connection.getAutoCommit(); // not in a transaction
+        }
+        catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void wrote() {
+        if ( replicaStickyTime > 0 ) lastWrite = System.nanoTime();
+    }
+
+    private RoutingConnectionFactory.Replica connectReplica(final ThreadContext context, final RoutingConnectionFactory routing) {
+        final RoutingConnectionFactory.Replica previous = this.replica;
+        if ( previous != null && replicaConnection != null && routing.isHealthy(previous) ) return previous;
+
+        RoutingConnectionFactory.Replica replica;
+        while ( ( replica = routing.pickReplica() ) != null ) {
+            Connection connection = null;
+            try {
+                connection = replica.factory.newConnection();
+                connection.setReadOnly(true);
+                configureReplica(connection);
+                setReplicaConnection(replica, connection);
+                if ( previous != null && metrics != null ) metrics.reconnected();
+                return replica;
+            }
+            catch (SQLException|RaiseException e) {
+                close(connection);
+                debugMessage(context.runtime, "replica " + replica.url + " ejected due: ", e);
+                routing.eject(replica);
+            }
+        }
+        setReplicaConnection(null, null);
+        return null;
+    }
+
+    /**
+     * Sets up a replica connection the same way as the primary one e.g. time-zone or search path,
+     * by replaying the statements the adapter's <code>configure_connection</code> executed on the primary.
+     */
+    private void configureReplica(final Connection connection) throws SQLException {
+        List<String> setup = this.sessionSetup;
+        if ( setup == null && configureConnection ) { // primary not configured (connected) yet
+            getConnectionInternal(true); setup = this.sessionSetup;
+        }
+        if ( setup == null || setup.isEmpty() ) return;
+        final Statement statement = connection.createStatement();
+        try {
+            for ( final String sql : setup ) statement.execute(sql);
+        }
+        finally { close(statement); }
+    }
+
+    private void setReplicaConnection(final RoutingConnectionFactory.Replica replica, final Connection connection) {
+        final Connection previous = this.replicaConnection;
+        this.replicaConnection = connection; this.replica = replica;
+        if ( previous != null && previous != connection ) close(previous);
+    }
+
     protected <T> T withConnection(final ThreadContext context, final Callable<T> block)
             throws RaiseException {
         try {
@@ -3336,13 +5173,24 @@ public class RubyJdbcConnection extends RubyObject {
     private <T> T withConnection(final ThreadContext context, final boolean handleException,
                                  final Callable<T> block) throws RaiseException, SQLException {
 
+        final CircuitBreaker breaker = this.circuitBreaker;
+        if ( breaker != null && ! breaker.allowRequest() ) {
+            throw context.runtime.newRaiseException(getConnectionNotEstablished(context),
+                    "circuit breaker open (database considered down)");
+        }
+
+        final JdbcEvents.ConnectionUse event = JdbcEvents.ENABLED ? new JdbcEvents.ConnectionUse() : null;
+        if ( event != null ) event.begin();
+
         Exception exception; int retry = 0; int i = 0;
 
-        boolean reconnectOnRetry = true; boolean gotConnection = false;
+        boolean reconnectOnRetry = true; boolean gotConnection = false; boolean connectionFailed = false;
         do {
             boolean autoCommit = true; // retry in-case getAutoCommit throws
             try {
                 if ( retry > 0 ) { // we're retrying running the block
+                    retryPolicy.beforeRetry(i);
+                    if ( metrics != null ) metrics.retried();
                     if ( reconnectOnRetry ) {
                         gotConnection = false;
                         debugMessage(context.runtime, "trying to re-connect using a new connection ...");
@@ -3355,32 +5203,43 @@ public class RubyJdbcConnection extends RubyObject {
 
                 final Connection connection = getConnectionInternal(false); // getConnection()
                 if ( connection == null ) {
-                    if ( ! connected ) handleNotConnected(context); // raise ConnectionNotEstablished
+                    if ( ! isConnected() ) handleNotConnected(context); // raise ConnectionNotEstablished
                     throw new NoConnectionException();
                 }
                 gotConnection = true;
                 autoCommit = connection.getAutoCommit();
-                return block.call(connection);
+                final T result = block.call(connection);
+                markUsed();
+                if ( breaker != null ) breaker.success();
+                if ( event != null ) JdbcEvents.commit(event, i, false);
+                return result;
             }
             catch (final Exception e) { // SQLException or RuntimeException
-                exception = e;
+                exception = e; connectionFailed = false;
+
+                if ( i == 0 ) retry = retryPolicy.getMaxRetries();
 
-                if ( i == 0 ) retry = 1;
+                if ( gotConnection && PooledConnectionFactory.isConnectionFailure(e) ) {
+                    // do not hand out a dead (pooled) connection to the next lease
+                    PooledConnectionFactory.markBroken(getConnectionImpl());
+                }
 
                 if ( ! gotConnection ) { // SQLException from driver/data-source
-                    reconnectOnRetry = connected;
+                    // NOTE: not connected (explicitly disconnected) is not a database failure
+                    connectionFailed = reconnectOnRetry = isConnected();
                 }
                 else if (!autoCommit) {
                     // never retry inside a transaction
                     break;
                 }
-                else if ( isTransient(exception) ) {
+                else if ( isTransient(exception) || retryPolicy.isRetryable(exception) ) {
                     reconnectOnRetry = false; // continue;
                 }
                 else {
                     if ( isConnectionValid(context, getConnectionImpl()) ) {
                         break; // connection not broken yet failed (do not retry)
                     }
+                    connectionFailed = true;
 
                     if ( ! isRecoverable(exception) ) break;
 
@@ -3389,6 +5248,13 @@ public class RubyJdbcConnection extends RubyObject {
             }
         } while ( i++ < retry ); // i == 0, retry == 1 means we should retry once
 
+        if ( breaker != null ) { // database did respond unless the connection failed
+            if ( connectionFailed ) breaker.failure();
+            else breaker.success();
+        }
+
+        if ( event != null ) JdbcEvents.commit(event, Math.min(i, retry), true);
+
         // (retry) loop ended and we did not return ... exception != null
         return withConnectionError(context, exception, handleException, gotConnection);
     }
@@ -3550,36 +5416,89 @@ public class RubyJdbcConnection extends RubyObject {
         return context.runtime.newBoolean( startsWithIgnoreCase(sqlBytes, INSERT) );
     }
 
+    private static final byte[] CREATE = new byte[] { 'c','r','e','a','t','e' };
+    private static final byte[] ALTER = new byte[] { 'a','l','t','e','r' };
+    private static final byte[] DROP = new byte[] { 'd','r','o','p' };
+    private static final byte[] RENAME = new byte[] { 'r','e','n','a','m','e' };
+    private static final byte[] COMMENT = new byte[] { 'c','o','m','m','e','n','t' };
+    private static final byte[] SET = new byte[] { 's','e','t',' ' };
+    private static final byte[] USE = new byte[] { 'u','s','e',' ' };
+    private static final byte[] ALTER_SESSION = new byte[] { 'a','l','t','e','r',' ','s','e','s','s','i','o','n' };
+
+    @JRubyMethod(name = "ddl?", required = 1, meta = true, frame = false)
+    public static RubyBoolean ddl_p(final ThreadContext context,
+        final IRubyObject self, final IRubyObject sql) {
+        return context.runtime.newBoolean( isDDL(sql.asString()) );
+    }
+
+    private static boolean isDDL(final RubyString sql) {
+        final ByteList sqlBytes = skipLeadingComments(sql.getByteList());
+        if ( sqlBytes.getRealSize() == 0 ) return false;
+        return StringHelper.startsWithIgnoreCase(sqlBytes, CREATE) ||
+               StringHelper.startsWithIgnoreCase(sqlBytes, ALTER) ||
+               StringHelper.startsWithIgnoreCase(sqlBytes, DROP) ||
+               StringHelper.startsWithIgnoreCase(sqlBytes, RENAME) ||
+               StringHelper.startsWithIgnoreCase(sqlBytes, COMMENT);
+    }
+
+    // e.g. "SET search_path TO ...", "SET SCHEMA ...", "USE ..." or "ALTER SESSION SET CURRENT_SCHEMA = ..."
+    private static boolean isSchemaChange(final RubyString sql) {
+        final ByteList sqlBytes = skipLeadingComments(sql.getByteList());
+        if ( StringHelper.startsWithIgnoreCase(sqlBytes, USE) ) return true;
+        if ( ! StringHelper.startsWithIgnoreCase(sqlBytes, SET) &&
+             ! StringHelper.startsWithIgnoreCase(sqlBytes, ALTER_SESSION) ) return false;
+        final String statement = sqlBytes.toString().toLowerCase(Locale.ENGLISH);
+        return statement.contains("schema") || statement.contains("search_path");
+    }
+
+    // skips leading white-space and comments e.g. "/* controller:users */ ALTER TABLE ..."
+    private static ByteList skipLeadingComments(final ByteList sql) {
+        final byte[] bytes = sql.unsafeBytes();
+        final int begin = sql.getBegin(), end = begin + sql.getRealSize();
+        int p = StringHelper.nonWhitespaceIndex(sql, begin);
+        while ( p + 1 < end ) {
+            if ( bytes[p] == '-' && bytes[p + 1] == '-' ) {
+                while ( p < end && bytes[p] != '\n' ) p++;
+            }
+            else if ( bytes[p] == '/' && bytes[p + 1] == '*' ) {
+                int c = p + 2;
+                while ( c + 1 < end && ! ( bytes[c] == '*' && bytes[c + 1] == '/' ) ) c++;
+                p = Math.min(c + 2, end);
+            }
+            else break;
+            p = StringHelper.nonWhitespaceIndex(sql, p);
+        }
+        return p == begin ? sql : sql.makeShared(p - begin, end - p);
+    }
+
     protected static boolean startsWithIgnoreCase(final ByteList bytes, final byte[] start) {
         return StringHelper.startsWithIgnoreCase(bytes, start);
     }
 
-    // maps a AR::Result row
+    // maps a AR::Result row using resolved converters
     protected static IRubyObject mapRow(final ThreadContext context, final Ruby runtime,
-        final ColumnData[] columns, final ResultSet resultSet,
-        final RubyJdbcConnection connection) throws SQLException {
+        final ColumnData[] columns, final ColumnConverter[] converters,
+        final ResultSet resultSet) throws SQLException {
 
         final IRubyObject[] row = new IRubyObject[columns.length];
 
         for (int i = 0; i < columns.length; i++) {
-            final ColumnData column = columns[i];
-            row[i] = connection.jdbcToRuby(context, runtime, column.index, column.type, resultSet);
+            row[i] = converters[i].toRuby(context, runtime, resultSet, columns[i].index);
         }
 
         return newArrayNoCopy(context, row);
     }
 
     private static IRubyObject mapRawRow(final ThreadContext context, final Ruby runtime,
-        final ColumnData[] columns, final ResultSet resultSet,
-        final RubyJdbcConnection connection) throws SQLException {
+        final ColumnData[] columns, final ColumnConverter[] converters,
+        final ResultSet resultSet) throws SQLException {
 
         final RubyHash row = RubyHash.newHash(runtime);
 
         for ( int i = 0; i < columns.length; i++ ) {
-            final ColumnData column = columns[i];
             // NOTE: we know keys are always String so maybe we could take it even further ?!
-            row.fastASetCheckString(runtime, column.getName(context),
-                connection.jdbcToRuby(context, runtime, column.index, column.type, resultSet)
+            row.fastASetCheckString(runtime, columns[i].getName(context),
+                converters[i].toRuby(context, runtime, resultSet, columns[i].index)
             );
         }
 
@@ -3591,6 +5510,13 @@ public class RubyJdbcConnection extends RubyObject {
         return Result.newInstance(context, columnsToArray(context, columns), rows, Block.NULL_BLOCK); // Result.new
     }
 
+    protected static IRubyObject newResult(final ThreadContext context, ColumnData[] columns, IRubyObject rows,
+        final IRubyObject columnTypes) {
+        if ( columnTypes == null || columnTypes.isNil() ) return newResult(context, columns, rows);
+        final RubyClass Result = getResult(context);
+        return Result.newInstance(context, columnsToArray(context, columns), rows, columnTypes, Block.NULL_BLOCK); // Result.new
+    }
+
     protected static IRubyObject newEmptyResult(final ThreadContext context) {
         final RubyClass Result = getResult(context);
         return Result.newInstance(context, newEmptyArray(context), newEmptyArray(context), Block.NULL_BLOCK); // Result.new
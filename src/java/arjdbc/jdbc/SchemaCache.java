@@ -0,0 +1,122 @@
+package arjdbc.jdbc;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.runtime.ThreadContext;
+
+/**
+ * A cache of (JDBC) schema meta-data e.g. columns or indexes of a table.
+ *
+ * Caches are shared by all connections to the same database (URL) within a
+ * Ruby runtime, entries expire after a time-to-live and the least recently used
+ * ones are dropped once the cache is full. Executing DDL on any of the
+ * connections clears the whole cache.
+ */
+final class SchemaCache {
+
+    static final long DEFAULT_TTL = 60_000; // millis
+
+    /**
+     * @param context
+     * @param database the database (URL) identifier
+     * @param maxSize
+     * @param ttlMillis time-to-live of an entry (0 for no expiry)
+     * @return a (shared) cache for the given database
+     */
+    static SchemaCache forDatabase(final ThreadContext context, final String database, final int maxSize, final long ttlMillis) {
+        final Map<String, SchemaCache> shared = RubyJdbcConnection.sharedMap(context, "schema_caches");
+        return shared.computeIfAbsent(database + '#' + maxSize + '#' + ttlMillis, (key) -> new SchemaCache(maxSize, ttlMillis));
+    }
+
+    /**
+     * Cache key: the kind of meta-data + (table) name components.
+     */
+    static final class Key {
+
+        final String kind;
+        final Object[] name;
+        private final int hash;
+
+        Key(final String kind, final Object... name) {
+            this.kind = kind;
+            this.name = name;
+            this.hash = 31 * kind.hashCode() + Arrays.hashCode(name);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( this == obj ) return true;
+            if ( ! ( obj instanceof Key ) ) return false;
+            final Key that = (Key) obj;
+            return this.hash == that.hash && this.kind.equals(that.kind) && Arrays.equals(this.name, that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{kind=" + kind + ",name=" + Arrays.toString(name) + "}";
+        }
+
+    }
+
+    private static final class Entry {
+
+        final Object value;
+        final long created;
+
+        Entry(final Object value, final long created) {
+            this.value = value;
+            this.created = created;
+        }
+
+    }
+
+    private final int maxSize;
+    private final long ttl; // nanos
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private SchemaCache(final int maxSize, final long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 64), 0.75f, true);
+    }
+
+    /**
+     * @param key
+     * @return cached value or null if not cached (or expired)
+     */
+    synchronized Object get(final Key key) {
+        final Entry entry = entries.get(key);
+        if ( entry == null ) return null;
+        if ( ttl > 0 && System.nanoTime() - entry.created > ttl ) {
+            entries.remove(key); return null;
+        }
+        return entry.value;
+    }
+
+    synchronized void put(final Key key, final Object value) {
+        entries.put(key, new Entry(value, System.nanoTime()));
+        final Iterator<Key> it = entries.keySet().iterator();
+        while ( entries.size() > maxSize && it.hasNext() ) {
+            it.next(); it.remove();
+        }
+    }
+
+    /**
+     * Clears all cached meta-data (e.g. after DDL got executed).
+     */
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() { return entries.size(); }
+
+}
@@ -0,0 +1,166 @@
+package arjdbc.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A (LRU) cache of prepared statements for a single (JDBC) connection.
+ *
+ * Statements are taken out of the cache while being used and put back once
+ * done, thus a statement is never shared (e.g. when the same SQL gets executed
+ * while iterating over a result of another execution).
+ *
+ * Each cached statement (key) also gets a {@link BindPlan} remembering resolved
+ * parameter types, dropped along with the statement.
+ */
+final class StatementCache {
+
+    /**
+     * Statement (cache) key: SQL + generated keys mode + result set type.
+     */
+    static final class Key {
+
+        final String sql;
+        final int autoGeneratedKeys;
+        final String[] keyColumns;
+        final int resultSetType;
+        private final int hash;
+
+        Key(final String sql, final int autoGeneratedKeys, final String[] keyColumns, final int resultSetType) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.keyColumns = keyColumns;
+            this.resultSetType = resultSetType;
+
+            int hash = sql.hashCode();
+            hash = 31 * hash + autoGeneratedKeys;
+            hash = 31 * hash + Arrays.hashCode(keyColumns);
+            this.hash = 31 * hash + resultSetType;
+        }
+
+        Key(final String sql) {
+            this(sql, Statement.NO_GENERATED_KEYS, null, ResultSet.TYPE_FORWARD_ONLY);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( this == obj ) return true;
+            if ( ! ( obj instanceof Key ) ) return false;
+            final Key that = (Key) obj;
+            return this.hash == that.hash &&
+                   this.autoGeneratedKeys == that.autoGeneratedKeys &&
+                   this.resultSetType == that.resultSetType &&
+                   this.sql.equals(that.sql) &&
+                   Arrays.equals(this.keyColumns, that.keyColumns);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{sql=" + sql + ",autoGeneratedKeys=" + autoGeneratedKeys +
+                   ",keyColumns=" + Arrays.toString(keyColumns) + ",resultSetType=" + resultSetType + "}";
+        }
+
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<Key, PreparedStatement> statements;
+    private final Map<Key, BindPlan> bindPlans;
+
+    private long hits, misses, evictions;
+
+    StatementCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(Math.min(maxSize, 64), 0.75f, true);
+        this.bindPlans = new HashMap<>(Math.min(maxSize, 64));
+    }
+
+    int getMaxSize() { return maxSize; }
+
+    /**
+     * Takes a statement (out of the cache).
+     * @param key
+     * @return a cached statement or null (if not cached)
+     */
+    synchronized PreparedStatement take(final Key key) {
+        final PreparedStatement statement = statements.remove(key);
+        if ( statement == null ) misses++;
+        else hits++;
+        return statement;
+    }
+
+    /**
+     * Puts back a (taken or newly prepared) statement.
+     * The least recently used statement gets closed if the cache is full.
+     * @param key
+     * @param statement
+     */
+    void release(final Key key, final PreparedStatement statement) {
+        final List<PreparedStatement> evicted = new ArrayList<>(2);
+        synchronized (this) {
+            final PreparedStatement previous = statements.put(key, statement);
+            if ( previous != null && previous != statement ) evicted.add(previous);
+
+            final Iterator<Map.Entry<Key, PreparedStatement>> it = statements.entrySet().iterator();
+            while ( statements.size() > maxSize && it.hasNext() ) {
+                final Map.Entry<Key, PreparedStatement> entry = it.next();
+                evicted.add( entry.getValue() ); it.remove();
+                bindPlans.remove( entry.getKey() );
+                evictions++;
+            }
+        }
+        for ( PreparedStatement stmt : evicted ) RubyJdbcConnection.close(stmt);
+    }
+
+    /**
+     * Closes all cached statements (e.g. when the connection gets replaced).
+     */
+    void clear() {
+        final List<PreparedStatement> cached;
+        synchronized (this) {
+            cached = new ArrayList<>(statements.values());
+            statements.clear();
+            bindPlans.clear();
+        }
+        for ( PreparedStatement stmt : cached ) RubyJdbcConnection.close(stmt);
+    }
+
+    /**
+     * Forgets the plan of a (failed) statement that is not put back.
+     * @param key
+     */
+    synchronized void discard(final Key key) {
+        bindPlans.remove(key);
+    }
+
+    /**
+     * @param key
+     * @return the (resolved parameter types) plan for the statement
+     */
+    synchronized BindPlan bindPlan(final Key key) {
+        BindPlan plan = bindPlans.get(key);
+        if ( plan == null ) bindPlans.put(key, plan = new BindPlan());
+        return plan;
+    }
+
+    synchronized int size() { return statements.size(); }
+
+    synchronized long getHits() { return hits; }
+
+    synchronized long getMisses() { return misses; }
+
+    synchronized long getEvictions() { return evictions; }
+
+}
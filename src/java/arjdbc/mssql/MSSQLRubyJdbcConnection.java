@@ -26,6 +26,7 @@
 package arjdbc.mssql;
 
 import arjdbc.jdbc.Callable;
+import arjdbc.jdbc.ColumnConverter;
 import arjdbc.jdbc.RubyJdbcConnection;
 
 import java.lang.reflect.InvocationTargetException;
@@ -374,41 +375,54 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
      * Also handle datetimeoffset values here
      */
     @Override
-    protected IRubyObject jdbcToRuby(
+    protected ColumnConverter converterFor(int type) {
+        if (type == DATETIMEOFFSET_TYPE) return this::dateTimeOffsetToRuby;
+
+        if (type == Types.LONGVARCHAR || type == Types.LONGNVARCHAR) type = Types.CLOB;
+        return super.converterFor(type);
+    }
+
+    @Override
+    protected boolean canFetchAhead(final int type) {
+        return type == DATETIMEOFFSET_TYPE || super.canFetchAhead(type);
+    }
+
+    @Override
+    protected Object fetchValue(final ResultSet resultSet, final int column, final int type) throws SQLException {
+        if (type == DATETIMEOFFSET_TYPE) return resultSet.getObject(column); // see dateTimeOffsetToRuby
+        if (type == Types.TIME) return resultSet.getTimestamp(column); // see timeToRuby
+        return super.fetchValue(resultSet, column, type);
+    }
+
+    private IRubyObject dateTimeOffsetToRuby(
         final ThreadContext context, final Ruby runtime,
-        final int column, int type, final ResultSet resultSet)
+        final ResultSet resultSet, final int column)
         throws SQLException {
 
-        if (type == DATETIMEOFFSET_TYPE) {
+        Object dto = resultSet.getObject(column); // Returns a microsoft.sql.DateTimeOffset
 
-            Object dto = resultSet.getObject(column); // Returns a microsoft.sql.DateTimeOffset
+        if (dto == null) return context.nil;
 
-            if (dto == null) return context.nil;
-
-            try {
+        try {
 
-                int minutes = (int) DateTimeOffsetGetMinutesOffsetMethod.invoke(dto);
-                DateTimeZone zone = DateTimeZone.forOffsetHoursMinutes(minutes / 60, minutes % 60);
-                Timestamp ts = (Timestamp) DateTimeOffsetGetTimestampMethod.invoke(dto);
+            int minutes = (int) DateTimeOffsetGetMinutesOffsetMethod.invoke(dto);
+            DateTimeZone zone = DateTimeZone.forOffsetHoursMinutes(minutes / 60, minutes % 60);
+            Timestamp ts = (Timestamp) DateTimeOffsetGetTimestampMethod.invoke(dto);
 
-                int nanos = ts.getNanos(); // max 999-999-999
-                nanos = nanos % 1000000;
+            int nanos = ts.getNanos(); // max 999-999-999
+            nanos = nanos % 1000000;
 
-                // We have to do this differently than the newTime helper because the Timestamp loses its zone information when passed around
-                DateTime dateTime = new DateTime(ts.getTime(), zone);
-                return RubyTime.newTime(context.runtime, dateTime, nanos);
+            // We have to do this differently than the newTime helper because the Timestamp loses its zone information when passed around
+            DateTime dateTime = new DateTime(ts.getTime(), zone);
+            return RubyTime.newTime(context.runtime, dateTime, nanos);
 
-            } catch (IllegalAccessException e) {
-                debugMessage(runtime, e.getMessage());
-                return context.nil;
-            } catch (InvocationTargetException e) {
-                debugMessage(runtime, e.getMessage());
-                return context.nil;
-            }
+        } catch (IllegalAccessException e) {
+            debugMessage(runtime, e.getMessage());
+            return context.nil;
+        } catch (InvocationTargetException e) {
+            debugMessage(runtime, e.getMessage());
+            return context.nil;
         }
-
-        if (type == Types.LONGVARCHAR || type == Types.LONGNVARCHAR) type = Types.CLOB;
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
     }
 
     /**
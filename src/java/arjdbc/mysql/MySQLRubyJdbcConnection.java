@@ -26,6 +26,7 @@
 package arjdbc.mysql;
 
 import arjdbc.jdbc.Callable;
+import arjdbc.jdbc.ColumnConverter;
 import arjdbc.jdbc.DriverWrapper;
 import arjdbc.jdbc.RubyJdbcConnection;
 import arjdbc.util.DateTimeUtils;
@@ -39,6 +40,7 @@ import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
 import org.jruby.util.SafePropertyAccessor;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -48,7 +50,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.Locale;
 
+import static arjdbc.util.StringHelper.isDefaultInternalUTF8;
 import static org.jruby.api.Create.newEmptyString;
 import static org.jruby.api.Create.newString;
 
@@ -183,14 +187,69 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
         return statement.execute(query, Statement.RETURN_GENERATED_KEYS);
     }
 
+    /**
+     * Connector/J only streams results (row-by-row) with a fetch size of Integer.MIN_VALUE,
+     * otherwise the whole result is read into memory (unless useCursorFetch=true is set).
+     */
     @Override
-    protected IRubyObject jdbcToRuby(final ThreadContext context, final Ruby runtime,
-        final int column, final int type, final ResultSet resultSet) throws SQLException {
-        if ( type == Types.BIT ) {
+    protected int streamingFetchSize(final Connection connection, final int batchSize) throws SQLException {
+        final String driverName = connection.getMetaData().getDriverName();
+        if ( driverName != null && driverName.startsWith("MySQL Connector") ) return Integer.MIN_VALUE;
+        return super.streamingFetchSize(connection, batchSize);
+    }
+
+    private volatile boolean utf8Results; // (raw) string bytes are UTF-8, checked for every new connection
+
+    private boolean useStringBytes(final Ruby runtime) {
+        return utf8Results && isDefaultInternalUTF8(runtime);
+    }
+
+    @Override
+    protected IRubyObject stringToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException {
+        if ( useStringBytes(runtime) ) return bytesToRubyString(context, runtime, resultSet, column);
+        return super.stringToRuby(context, runtime, resultSet, column);
+    }
+
+    @Override // TEXT columns
+    protected IRubyObject readerToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException, IOException {
+        if ( useStringBytes(runtime) ) return bytesToRubyString(context, runtime, resultSet, column);
+        return super.readerToRuby(context, runtime, resultSet, column);
+    }
+
+    @Override
+    protected ColumnConverter converterFor(final int type) {
+        if ( type == Types.BIT ) return MySQLRubyJdbcConnection::bitToInteger;
+        return super.converterFor(type);
+    }
+
+    private static IRubyObject bitToInteger(final ThreadContext context, final Ruby runtime,
+        final ResultSet resultSet, final int column) throws SQLException {
+        final int value = resultSet.getInt(column);
+        return resultSet.wasNull() ? context.nil : runtime.newFixnum(value);
+    }
+
+    @Override
+    protected Object fetchValue(final ResultSet resultSet, final int column, final int type) throws SQLException {
+        switch (type) {
+        case Types.BIT: { // see bitToInteger
             final int value = resultSet.getInt(column);
-            return resultSet.wasNull() ? context.nil : runtime.newFixnum(value);
+            return resultSet.wasNull() ? null : value;
+        }
+        case Types.TIME: // see timeToRuby
+            return resultSet.getTimestamp(column);
+        case Types.CHAR:
+        case Types.VARCHAR:
+        case Types.NCHAR:
+        case Types.NVARCHAR:
+        case Types.LONGVARCHAR:
+        case Types.LONGNVARCHAR:
+        case Types.CLOB: // see stringToRuby
+            return utf8Results ? resultSet.getBytes(column) : resultSet.getString(column);
+        default:
+            return super.fetchValue(resultSet, column, type);
         }
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
     }
 
     @Override
@@ -236,17 +295,11 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
         return value; // MySQL does not storesUpperCaseIdentifiers() :
     }
 
-    private transient Boolean lowerCaseIdentifiers;
-
     @Override
     protected final String caseConvertIdentifierForJdbc(
         final Connection connection, final String value) throws SQLException {
         if ( value == null ) return null;
-        Boolean lowerCase = lowerCaseIdentifiers;
-        if (lowerCase == null) {
-            lowerCase = lowerCaseIdentifiers = connection.getMetaData().storesLowerCaseIdentifiers();
-        }
-        return lowerCase ? value.toLowerCase() : value;
+        return getCapabilities(connection).storesLowerCaseIdentifiers() ? value.toLowerCase() : value;
     }
 
     @Override
@@ -262,9 +315,22 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
             throw ex;
         }
         if ( doStopCleanupThread() ) shutdownCleanupThread();
+        utf8Results = isUTF8Results(connection);
         return connection;
     }
 
+    // NOTE: with character_set_results NULL values are sent in the column's charset
+    private static boolean isUTF8Results(final Connection connection) {
+        try ( Statement statement = connection.createStatement();
+              ResultSet resultSet = statement.executeQuery("SELECT @@character_set_results") ) {
+            final String charset = resultSet.next() ? resultSet.getString(1) : null;
+            return charset != null && charset.toLowerCase(Locale.ENGLISH).startsWith("utf8");
+        }
+        catch (SQLException e) {
+            return false; // strings decoded by the driver
+        }
+    }
+
     private static Boolean stopCleanupThread;
     static {
         final String stopThread = SafePropertyAccessor.getProperty("arjdbc.mysql.stop_cleanup_thread");
@@ -0,0 +1,179 @@
+package arjdbc.postgresql;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.jcodings.specific.ASCIIEncoding;
+import org.jcodings.specific.USASCIIEncoding;
+import org.jcodings.specific.UTF8Encoding;
+import org.jruby.RubyArray;
+import org.jruby.RubyBoolean;
+import org.jruby.RubyString;
+import org.jruby.RubyTime;
+import org.jruby.ext.date.RubyDateTime;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.jruby.util.ByteList;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Encodes (Ruby) rows for a <code>COPY ... FROM STDIN</code> operation.
+ *
+ * Rows are encoded (in the text or CSV format) into a re-used buffer which
+ * gets written to the server whenever it fills up, thus memory usage does
+ * not depend on the number of rows copied.
+ */
+final class CopyInWriter {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    enum Format { TEXT, CSV, BINARY }
+
+    private static final byte[] TEXT_NULL = { '\\', 'N' };
+    private static final byte[] TRUE = { 't' }, FALSE = { 'f' };
+
+    private final CopyIn copyIn;
+    private final Format format;
+    private final ByteList buffer = new ByteList(BUFFER_SIZE + 1024);
+
+    CopyInWriter(final CopyIn copyIn, final Format format) {
+        this.copyIn = copyIn;
+        this.format = format;
+    }
+
+    /**
+     * Encodes and (eventually) writes the given row.
+     * @param context
+     * @param row column values (nil for NULL)
+     * @throws SQLException
+     */
+    void writeRow(final ThreadContext context, final RubyArray row) throws SQLException {
+        final byte delimiter = format == Format.CSV ? (byte) ',' : (byte) '\t';
+        for ( int i = 0; i < row.getLength(); i++ ) {
+            if ( i > 0 ) buffer.append(delimiter);
+            writeValue(context, row.eltInternal(i));
+        }
+        buffer.append('\n');
+        if ( buffer.getRealSize() >= BUFFER_SIZE ) flush();
+    }
+
+    /**
+     * Writes already encoded (raw) data e.g. read from an IO.
+     * @param bytes
+     * @throws SQLException
+     */
+    void write(final ByteList bytes) throws SQLException {
+        if ( buffer.getRealSize() + bytes.getRealSize() > BUFFER_SIZE ) {
+            flush();
+            if ( bytes.getRealSize() >= BUFFER_SIZE ) { // no need to copy
+                copyIn.writeToCopy(bytes.getUnsafeBytes(), bytes.getBegin(), bytes.getRealSize());
+                return;
+            }
+        }
+        buffer.append(bytes);
+    }
+
+    void flush() throws SQLException {
+        if ( buffer.getRealSize() > 0 ) {
+            copyIn.writeToCopy(buffer.getUnsafeBytes(), buffer.getBegin(), buffer.getRealSize());
+            buffer.setRealSize(0);
+        }
+    }
+
+    /**
+     * @return number of rows copied
+     * @throws SQLException
+     */
+    long end() throws SQLException {
+        flush();
+        return copyIn.endCopy();
+    }
+
+    void cancel() {
+        try {
+            if ( copyIn.isActive() ) copyIn.cancelCopy();
+        }
+        catch (SQLException e) { /* connection is probably broken */ }
+    }
+
+    private void writeValue(final ThreadContext context, final IRubyObject value) {
+        if ( value == context.nil ) {
+            if ( format == Format.TEXT ) buffer.append(TEXT_NULL);
+            // in CSV an unquoted empty value is NULL
+            return;
+        }
+        final ByteList bytes;
+        if ( value instanceof RubyString ) {
+            bytes = utf8Bytes((RubyString) value);
+        }
+        else if ( value instanceof RubyBoolean ) {
+            buffer.append( value == context.tru ? TRUE : FALSE ); return;
+        }
+        else if ( value instanceof RubyTime || value instanceof RubyDateTime ) {
+            final String time = PgDateTimeUtils.timestampValueToString(context, value, null, true);
+            buffer.append( time.getBytes(StandardCharsets.US_ASCII) ); return;
+        }
+        else {
+            bytes = utf8Bytes(value.asString());
+        }
+
+        if ( format == Format.CSV ) appendCSV(bytes);
+        else appendText(bytes);
+    }
+
+    private static ByteList utf8Bytes(final RubyString str) {
+        final ByteList bytes = str.getByteList();
+        if ( bytes.getEncoding() == UTF8Encoding.INSTANCE ||
+             bytes.getEncoding() == USASCIIEncoding.INSTANCE ||
+             bytes.getEncoding() == ASCIIEncoding.INSTANCE ) return bytes;
+        return new ByteList(str.decodeString().getBytes(StandardCharsets.UTF_8), false);
+    }
+
+    private void appendText(final ByteList bytes) {
+        final byte[] src = bytes.getUnsafeBytes();
+        final int end = bytes.getBegin() + bytes.getRealSize();
+        int from = bytes.getBegin();
+        for ( int i = from; i < end; i++ ) {
+            final byte escaped;
+            switch ( src[i] ) {
+                case '\\': escaped = '\\'; break;
+                case '\t': escaped = 't'; break;
+                case '\n': escaped = 'n'; break;
+                case '\r': escaped = 'r'; break;
+                default: continue;
+            }
+            buffer.append(src, from, i - from);
+            buffer.append('\\'); buffer.append(escaped);
+            from = i + 1;
+        }
+        buffer.append(src, from, end - from);
+    }
+
+    private void appendCSV(final ByteList bytes) {
+        final byte[] src = bytes.getUnsafeBytes();
+        final int begin = bytes.getBegin();
+        final int end = begin + bytes.getRealSize();
+
+        boolean quote = begin == end; // empty string (otherwise NULL)
+        for ( int i = begin; i < end && ! quote; i++ ) {
+            switch ( src[i] ) {
+                case ',': case '"': case '\n': case '\r': case '\\': quote = true;
+            }
+        }
+        if ( ! quote ) {
+            buffer.append(src, begin, end - begin); return;
+        }
+
+        buffer.append('"');
+        int from = begin;
+        for ( int i = begin; i < end; i++ ) {
+            if ( src[i] == '"' ) { // "" escapes a quote
+                buffer.append(src, from, i + 1 - from);
+                from = i;
+            }
+        }
+        buffer.append(src, from, end - from);
+        buffer.append('"');
+    }
+
+}
@@ -81,6 +81,11 @@ public class PostgreSQLResult extends JdbcResult {
      */
     @Override
     protected IRubyObject columnTypeMap(final ThreadContext context) throws SQLException {
+        return columnTypeMap(context, connection, resultSetMetaData, columnNames);
+    }
+
+    static RubyHash columnTypeMap(final ThreadContext context, final RubyJdbcConnection connection,
+        final ResultSetMetaData resultSetMetaData, final RubyString[] columnNames) throws SQLException {
         Ruby runtime = context.runtime;
         RubyHash types = RubyHash.newHash(runtime);
         int columnCount = columnNames.length;
@@ -138,14 +143,14 @@ public class PostgreSQLResult extends JdbcResult {
         }
     }
 
-    private RubyClass getBinaryDataClass(final ThreadContext context) {
+    static RubyClass getBinaryDataClass(final ThreadContext context) {
         return getModule(context, "ActiveModel").
                 getModule(context, "Type").
                 getClass(context, "Binary").
                 getClass(context, "Data");
     }
 
-    private boolean isBinaryType(final int type) {
+    static boolean isBinaryType(final int type) {
         return type == Types.BLOB || type == Types.BINARY || type == Types.VARBINARY || type == Types.LONGVARBINARY;
     }
 
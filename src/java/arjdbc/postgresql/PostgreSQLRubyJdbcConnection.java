@@ -27,6 +27,8 @@
 package arjdbc.postgresql;
 
 import arjdbc.jdbc.Callable;
+import arjdbc.jdbc.ColumnConverter;
+import arjdbc.jdbc.ColumnarResult;
 import arjdbc.jdbc.DriverWrapper;
 import arjdbc.util.DateTimeUtils;
 import arjdbc.util.PG;
@@ -42,6 +44,9 @@ import java.util.*;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
+import org.jcodings.Encoding;
+import org.jcodings.specific.ASCIIEncoding;
+import org.jcodings.specific.UTF8Encoding;
 import org.joda.time.DateTime;
 import org.jruby.*;
 import org.jruby.anno.JRubyMethod;
@@ -49,7 +54,10 @@ import org.jruby.exceptions.RaiseException;
 import org.jruby.ext.bigdecimal.RubyBigDecimal;
 import org.jruby.ext.date.RubyDate;
 import org.jruby.javasupport.JavaUtil;
+import org.jruby.runtime.Block;
+import org.jruby.runtime.CallBlock;
 import org.jruby.runtime.ObjectAllocator;
+import org.jruby.runtime.Signature;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
 import org.jruby.util.ByteList;
@@ -57,6 +65,7 @@ import org.jruby.util.ByteList;
 import org.jruby.util.TypeConverter;
 import org.postgresql.PGConnection;
 import org.postgresql.PGStatement;
+import org.postgresql.copy.CopyOut;
 import org.postgresql.geometric.PGbox;
 import org.postgresql.geometric.PGcircle;
 import org.postgresql.geometric.PGline;
@@ -67,6 +76,8 @@ import org.postgresql.geometric.PGpolygon;
 import org.postgresql.util.PGInterval;
 import org.postgresql.util.PGobject;
 
+import static org.jruby.api.Error.argumentError;
+
 /**
  *
  * @author enebo
@@ -148,6 +159,11 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         return DriverWrapper.buildURL(url, Collections.EMPTY_MAP);
     }
 
+    @Override
+    protected String getPoolResetSQL() {
+        return "DISCARD ALL"; // session variables, temporary tables, prepared statements, advisory locks
+    }
+
     @Override
     protected DriverWrapper newDriverWrapper(final ThreadContext context, final String driver) {
         DriverWrapper driverWrapper = super.newDriverWrapper(context, driver);
@@ -220,6 +236,162 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         return execute_prepared_query(context, sql, binds, null);
     }
 
+    /**
+     * Bulk loads data using <code>COPY ... FROM STDIN</code>.
+     * The source is either an enumerable of rows (arrays of column values, or already
+     * formatted lines as strings) or an IO (or a string) with formatted data.
+     * @param context
+     * @param sql the COPY statement
+     * @param source
+     * @param format <code>:csv</code>, <code>:text</code> or <code>:binary</code>
+     * @return the number of rows copied
+     */
+    @JRubyMethod(name = "copy_from", required = 3)
+    public IRubyObject copy_from(final ThreadContext context, final IRubyObject sql,
+        final IRubyObject source, final IRubyObject format) {
+        final CopyInWriter.Format copyFormat = copyFormat(context, format);
+
+        return withConnection(context, connection -> {
+            final String query = sqlString(sql);
+            final CopyInWriter writer = new CopyInWriter(getPGConnection(connection).getCopyAPI().copyIn(query), copyFormat);
+            boolean done = false;
+            try {
+                copyData(context, writer, source, copyFormat);
+                final long count = writer.end(); done = true;
+                return context.runtime.newFixnum(count);
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                // do not re-try as the source (an IO or enumerator) might not be re-readable
+                throw wrapException(context, e);
+            }
+            finally {
+                if ( ! done ) writer.cancel();
+            }
+        });
+    }
+
+    /**
+     * Exports data using <code>COPY ... TO STDOUT</code>.
+     * Data is written to the given IO (or yielded to the block) in (raw) chunks as
+     * received from the server, without mapping any of the rows into Ruby objects.
+     * @param context
+     * @param sql the COPY statement
+     * @param format <code>:csv</code>, <code>:text</code> or <code>:binary</code>
+     * @param io to write the data to (nil when a block is given)
+     * @param block
+     * @return the number of rows copied
+     */
+    @JRubyMethod(name = "copy_to", required = 3)
+    public IRubyObject copy_to(final ThreadContext context, final IRubyObject sql,
+        final IRubyObject format, final IRubyObject io, final Block block) {
+        final CopyInWriter.Format copyFormat = copyFormat(context, format);
+        if ( io == context.nil && ! block.isGiven() ) throw argumentError(context, "io or block expected");
+
+        return withConnection(context, connection -> {
+            final String query = sqlString(sql);
+            final CopyOut copyOut = getPGConnection(connection).getCopyAPI().copyOut(query);
+            final Encoding encoding = copyFormat == CopyInWriter.Format.BINARY ?
+                    ASCIIEncoding.INSTANCE : UTF8Encoding.INSTANCE;
+            final ByteList buffer = new ByteList(CopyInWriter.BUFFER_SIZE + 1024);
+            boolean emitted = false;
+            try {
+                byte[] data;
+                while ( ( data = copyOut.readFromCopy() ) != null ) {
+                    buffer.append(data);
+                    if ( buffer.getRealSize() >= CopyInWriter.BUFFER_SIZE ) {
+                        emitted = true;
+                        emitCopyData(context, buffer, encoding, io, block);
+                    }
+                }
+                if ( buffer.getRealSize() > 0 ) {
+                    emitted = true;
+                    emitCopyData(context, buffer, encoding, io, block);
+                }
+                return context.runtime.newFixnum(copyOut.getHandledRowCount());
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                // do not re-try (re-emitting data) once some chunks were written out
+                if ( emitted ) throw wrapException(context, e);
+                throw e;
+            }
+            finally {
+                if ( copyOut.isActive() ) {
+                    try { copyOut.cancelCopy(); }
+                    catch (SQLException e) { /* connection is probably broken */ }
+                }
+            }
+        });
+    }
+
+    private static void emitCopyData(final ThreadContext context, final ByteList buffer, final Encoding encoding,
+        final IRubyObject io, final Block block) {
+        final RubyString chunk = RubyString.newString(context.runtime, buffer.getUnsafeBytes(), 0, buffer.getRealSize(), encoding);
+        buffer.setRealSize(0);
+        if ( io != context.nil ) io.callMethod(context, "write", chunk);
+        else block.yield(context, chunk);
+    }
+
+    private static CopyInWriter.Format copyFormat(final ThreadContext context, final IRubyObject format) {
+        switch ( format.asJavaString() ) {
+            case "csv": return CopyInWriter.Format.CSV;
+            case "text": return CopyInWriter.Format.TEXT;
+            case "binary": return CopyInWriter.Format.BINARY;
+        }
+        throw argumentError(context, "unsupported COPY format: " + format.inspect());
+    }
+
+    private void copyData(final ThreadContext context, final CopyInWriter writer,
+        final IRubyObject source, final CopyInWriter.Format format) throws SQLException {
+        if ( source instanceof RubyString ) {
+            writer.write(((RubyString) source).getByteList());
+        }
+        else if ( source.respondsTo("read") ) { // IO
+            final IRubyObject length = context.runtime.newFixnum(CopyInWriter.BUFFER_SIZE);
+            IRubyObject data;
+            while ( ( data = source.callMethod(context, "read", length) ) != context.nil ) {
+                writer.write(data.convertToString().getByteList());
+            }
+        }
+        else if ( source instanceof RubyArray ) {
+            final RubyArray rows = (RubyArray) source;
+            for ( int i = 0; i < rows.getLength(); i++ ) {
+                copyRow(context, writer, rows.eltInternal(i), format);
+            }
+        }
+        else {
+            final Block eachRow = CallBlock.newCallClosure(context, source, Signature.OPTIONAL, (ctx, args, block) -> {
+                try {
+                    copyRow(ctx, writer, args.length == 1 ? args[0] : RubyArray.newArrayMayCopy(ctx.runtime, args), format);
+                }
+                catch (SQLException e) {
+                    throw wrapException(ctx, e);
+                }
+                return ctx.nil;
+            });
+            source.callMethod(context, "each", IRubyObject.NULL_ARRAY, eachRow);
+        }
+    }
+
+    private static void copyRow(final ThreadContext context, final CopyInWriter writer,
+        final IRubyObject row, final CopyInWriter.Format format) throws SQLException {
+        if ( row instanceof RubyString ) { // already formatted
+            writer.write(((RubyString) row).getByteList());
+        }
+        else if ( format == CopyInWriter.Format.BINARY ) {
+            throw argumentError(context, "binary COPY data needs to be (pre-)encoded, got: " + row.getMetaClass());
+        }
+        else {
+            writer.writeRow(context, (RubyArray) TypeConverter.checkArrayType(context, row));
+        }
+    }
+
+    private static PGConnection getPGConnection(final Connection connection) throws SQLException {
+        if ( connection instanceof PGConnection ) return (PGConnection) connection;
+        return connection.unwrap(PGConnection.class);
+    }
+
     private transient RubyClass oidArray; // PostgreSQL::OID::Array
 
     private RubyClass oidArray(final ThreadContext context) {
@@ -245,13 +417,7 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
             }
             throw ex;
         }
-        final PGConnection pgConnection;
-        if ( connection instanceof PGConnection ) {
-            pgConnection = (PGConnection) connection;
-        }
-        else {
-            pgConnection = connection.unwrap(PGConnection.class);
-        }
+        final PGConnection pgConnection = getPGConnection(connection);
         pgConnection.addDataType("daterange", DateRangeType.class);
         pgConnection.addDataType("tsrange",   TsRangeType.class);
         pgConnection.addDataType("tstzrange", TstzRangeType.class);
@@ -278,9 +444,75 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
     @Override
     protected IRubyObject mapQueryResult(final ThreadContext context, final Connection connection,
                                          final ResultSet resultSet) throws SQLException {
+        if (isColumnarResults()) {
+            final ColumnData[] columns = extractColumns(context, connection, resultSet, false);
+            final ColumnarResult result = mapToColumnarResult(context, connection, resultSet, columns);
+            return result.toARResult(context,
+                    PostgreSQLResult.columnTypeMap(context, this, resultSet.getMetaData(), result.getColumnNames()));
+        }
         return mapExecuteResult(context, connection, resultSet).toARResult(context);
     }
 
+    /**
+     * PostgreSQL only uses a cursor (portal) to fetch rows in batches when not in auto-commit mode.
+     */
+    @Override
+    protected boolean streamWithinTransaction() {
+        return true;
+    }
+
+    @Override
+    protected ColumnConverter[] streamingConverters(final ThreadContext context, final ColumnData[] columns) {
+        final ColumnConverter[] converters = super.streamingConverters(context, columns);
+        for (int i = 0; i < columns.length; i++) {
+            if (PostgreSQLResult.isBinaryType(columns[i].type)) {
+                converters[i] = binaryDataConverter(context, converters[i]);
+            }
+        }
+        return converters;
+    }
+
+    @Override
+    protected IRubyObject streamingColumnTypes(final ThreadContext context,
+        final ResultSet resultSet, final ColumnData[] columns) throws SQLException {
+        final RubyString[] columnNames = new RubyString[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnNames[i] = cachedString(context, columns[i].getName());
+        }
+        return PostgreSQLResult.columnTypeMap(context, this, resultSet.getMetaData(), columnNames);
+    }
+
+    // marks (converted) values as already unencoded, same as PostgreSQLResult#toARResult does
+    private static ColumnConverter binaryDataConverter(final ThreadContext context, final ColumnConverter converter) {
+        final RubyClass BinaryDataClass = PostgreSQLResult.getBinaryDataClass(context);
+        return (ctx, runtime, resultSet, index) -> {
+            final IRubyObject value = converter.toRuby(ctx, runtime, resultSet, index);
+            return value == ctx.nil ? value : BinaryDataClass.newInstance(ctx, value, Block.NULL_BLOCK);
+        };
+    }
+
+    @Override
+    protected ColumnarResult.Column columnarColumnFor(final ThreadContext context,
+        final ResultSetMetaData metaData, final ColumnData column, final ColumnConverter converter)
+        throws SQLException {
+        final int type = column.type;
+        if (PostgreSQLResult.isBinaryType(type)) {
+            return ColumnarResult.objectColumn(binaryDataConverter(context, converter));
+        }
+        if (typeMap != null) return ColumnarResult.objectColumn(converter);
+
+        switch (type) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                return ColumnarResult.bytesColumn(); // same as stringToRuby (raw bytes)
+        }
+        return super.columnarColumnFor(context, metaData, column, converter);
+    }
+
     @Override
     protected void setArrayParameter(final ThreadContext context,
                                      final Connection connection, final PreparedStatement statement,
@@ -570,17 +802,48 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         return interval;
     }
 
-    protected IRubyObject jdbcToRuby(ThreadContext context, Ruby runtime, int column, int type, ResultSet resultSet) throws SQLException {
-        return typeMap != null ?
-                convertWithTypeMap(context, runtime, column, type, resultSet) :
-                super.jdbcToRuby(context, runtime, column, type, resultSet);
+    @Override
+    protected ColumnConverter converterFor(final int type) {
+        final ColumnConverter converter = super.converterFor(type);
+        if (typeMap == null) return converter;
+        return (context, runtime, resultSet, column) -> convertWithTypeMap(context, runtime, column, converter, resultSet);
+    }
+
+    @Override
+    protected boolean canFetchAhead(final int type) {
+        // type map decoders are resolved per value (from the column's type name)
+        return typeMap == null && super.canFetchAhead(type);
+    }
+
+    @Override
+    protected Object fetchValue(final ResultSet resultSet, final int column, final int type) throws SQLException {
+        switch (type) {
+        case Types.CHAR:
+        case Types.VARCHAR:
+        case Types.NCHAR:
+        case Types.NVARCHAR:
+        case Types.CLOB:
+        case Types.NCLOB:
+        case Types.LONGVARCHAR:
+        case Types.LONGNVARCHAR:
+            return resultSet.getBytes(column); // see stringToRuby
+        case Types.DATE:
+        case Types.TIME:
+        case Types.TIMESTAMP:
+        case Types.BIT: // parsed from strings (e.g. infinity, BC dates)
+        case Types.NUMERIC:
+        case Types.DECIMAL: // NaN
+            return resultSet.getString(column);
+        default:
+            return super.fetchValue(resultSet, column, type);
+        }
     }
 
-    private IRubyObject convertWithTypeMap(ThreadContext context, Ruby runtime, int column, int type, ResultSet resultSet) throws SQLException {
+    private IRubyObject convertWithTypeMap(ThreadContext context, Ruby runtime, int column, ColumnConverter converter, ResultSet resultSet) throws SQLException {
         ResultSetMetaData metaData = resultSet.getMetaData();
         IRubyObject decoder = typeMap.op_aref(context, STRING_CACHE.get(context, metaData.getColumnTypeName(column)));
 
-        if (decoder.isNil()) return super.jdbcToRuby(context, runtime, column, type, resultSet);
+        if (decoder.isNil()) return converter.toRuby(context, runtime, resultSet, column);
 
         return decoder.callMethod(context, "decode", StringHelper.newDefaultInternalString(runtime, resultSet.getString(column)));
     }
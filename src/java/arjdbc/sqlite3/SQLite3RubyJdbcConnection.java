@@ -56,9 +56,10 @@ import org.jruby.runtime.builtin.IRubyObject;
 import org.jruby.util.SafePropertyAccessor;
 
 import arjdbc.jdbc.Callable;
+import arjdbc.jdbc.ColumnConverter;
 import arjdbc.jdbc.RubyJdbcConnection;
 
-import static arjdbc.util.StringHelper.newDefaultInternalString;
+import static arjdbc.util.StringHelper.isDefaultInternalUTF8;
 import static arjdbc.util.StringHelper.newString;
 import static org.jruby.api.Access.getModule;
 import static org.jruby.api.Convert.asFixnum;
@@ -176,6 +177,16 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
         return statement;
     }
 
+    @Override
+    protected boolean snapshotAllTables(final Connection connection) {
+        return false; // driver fails (NPE) on a null table name
+    }
+
+    @Override
+    protected boolean supportsBulkSchemaSnapshot() {
+        return false; // indexes are introspected table by table (getIndexInfo fails on tables without any)
+    }
+
     @Override
     protected IRubyObject indexes(final ThreadContext context, String table, final String name, String schema) {
         if ( table != null ) {
@@ -279,32 +290,50 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
     }
 
     @Override
-    protected IRubyObject jdbcToRuby(final ThreadContext context,
-        final Ruby runtime, final int column, int type, final ResultSet resultSet)
-        throws SQLException {
+    protected ColumnConverter converterFor(final int type) {
         // This is rather gross, and only needed because the resultset metadata for SQLite tries to be overly
         // clever, and returns a type for the column of the "current" row, so an integer value stored in a
         // decimal column is returned as Types.INTEGER.  Therefore, if the first row of a resultset was an
         // integer value, all rows of that result set would get truncated.
-        if ( resultSet instanceof ResultSetMetaData ) {
-            type = ((ResultSetMetaData) resultSet).getColumnType(column);
-        }
+        final ColumnConverter converter = rowTypeConverterFor(type);
+        return (context, runtime, resultSet, column) -> {
+            if ( resultSet instanceof ResultSetMetaData ) {
+                final int rowType = ((ResultSetMetaData) resultSet).getColumnType(column);
+                if ( rowType != type ) {
+                    return rowTypeConverterFor(rowType).toRuby(context, runtime, resultSet, column);
+                }
+            }
+            return converter.toRuby(context, runtime, resultSet, column);
+        };
+    }
+
+    @Override
+    protected boolean canFetchAhead(final int type) {
+        return false; // the (declared) column type might not match all rows, see converterFor
+    }
+
+    @Override
+    protected boolean canBufferPrimitive(final int type) {
+        return false; // the (declared) column type might not match all rows, see converterFor
+    }
+
+    private ColumnConverter rowTypeConverterFor(final int type) {
         // since JDBC 3.8 there seems to be more cleverness built-in that
         // causes (<= 3.8.7) to get things wrong ... reports DATE SQL type
         // for "datetime" columns :
         if ( type == Types.DATE ) {
             // return timestampToRuby(context, runtime, resultSet, column);
-            return stringToRuby(context, runtime, resultSet, column);
+            return this::stringToRuby;
         }
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
+        return super.converterFor(type);
     }
 
     @Override
     protected IRubyObject stringToRuby(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException {
-        final byte[] value = resultSet.getBytes(column);
-        if ( value == null ) return context.nil; // resultSet.wasNull()
-        return newDefaultInternalString(runtime, value);
+        // (UTF-8) text bytes are usable as they are unless strings are to be created in another encoding
+        if ( ! isDefaultInternalUTF8(runtime) ) return super.stringToRuby(context, runtime, resultSet, column);
+        return bytesToRubyString(context, runtime, resultSet, column);
     }
 
     @Override
@@ -0,0 +1,193 @@
+package arjdbc.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL "shapes" - statements with literals replaced by <code>?</code> and white-space collapsed,
+ * thus statements only differing in (inlined) values share the same fingerprint e.g.
+ * <code>SELECT * FROM users WHERE id IN (1, 2, 3) AND name = 'x'</code> becomes
+ * <code>SELECT * FROM users WHERE id IN (?) AND name = ?</code>.
+ * Only <code>IN (...)</code> lists get collapsed, other lists e.g. <code>VALUES (?, ?)</code> keep their length.
+ *
+ * Fingerprints are cached (up to a limit) by the SQL string.
+ */
+public final class SqlFingerprint {
+
+    private static final int CACHE_SIZE = 2048;
+
+    private static final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<>(64);
+
+    private SqlFingerprint() { /* static utils */ }
+
+    /**
+     * @param sql
+     * @return the (cached) fingerprint of the given SQL
+     */
+    public static String of(final String sql) {
+        if ( sql == null ) return null;
+        String fingerprint = cache.get(sql);
+        if ( fingerprint == null ) {
+            fingerprint = normalize(sql);
+            if ( cache.size() >= CACHE_SIZE ) cache.clear(); // SQL with inlined values might never repeat
+            cache.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    // kinds of the previous token (to tell a negative number from a subtraction)
+    private static final int OPERATOR = 0, OPERAND = 1;
+
+    // key-words an expression (operand) follows e.g. "SELECT -1" or "THEN -1"
+    private static final Set<String> EXPRESSION_KEYWORDS = new HashSet<>(Arrays.asList(
+        "SELECT", "WHERE", "AND", "OR", "NOT", "ON", "HAVING", "WHEN", "THEN", "ELSE", "CASE",
+        "IN", "IS", "LIKE", "BETWEEN", "VALUES", "SET", "LIMIT", "OFFSET", "RETURN", "BY", "DEFAULT"
+    ));
+
+    static String normalize(final String sql) {
+        final int len = sql.length();
+        final StringBuilder out = new StringBuilder(Math.min(len, 256));
+        int prev = OPERATOR;
+        int depth = 0; long inLists = 0; // bit per (parenthesis) depth of an IN (...) list
+        boolean in = false; // previous token is the IN key-word
+        int i = 0;
+        while ( i < len ) {
+            final char c = sql.charAt(i);
+            if ( Character.isWhitespace(c) ) {
+                while ( i < len && Character.isWhitespace(sql.charAt(i)) ) i++;
+                space(out); continue;
+            }
+            if ( c == '-' && i + 1 < len && sql.charAt(i + 1) == '-' ) { // -- comment
+                while ( i < len && sql.charAt(i) != '\n' ) i++;
+                space(out); continue;
+            }
+            if ( c == '/' && i + 1 < len && sql.charAt(i + 1) == '*' ) { /* comment */
+                final int end = sql.indexOf("*/", i + 2);
+                i = end == -1 ? len : end + 2;
+                space(out); continue;
+            }
+
+            final boolean inList = depth < 64 && ( inLists & ( 1L << depth ) ) != 0;
+            boolean keywordIn = false;
+            if ( c == '\'' ) { // 'string' literal ('' escapes a quote)
+                i = skipString(sql, i + 1);
+                placeholder(out, inList); prev = OPERAND;
+            }
+            else if ( c == '"' || c == '`' ) { // quoted identifier
+                final int end = sql.indexOf(c, i + 1);
+                final int stop = end == -1 ? len : end + 1;
+                out.append(sql, i, stop); i = stop; prev = OPERAND;
+            }
+            else if ( isDigit(sql, i) || ( ( c == '-' || c == '+' ) && prev == OPERATOR && isDigit(sql, i + 1) ) ) {
+                i = skipNumber(sql, i + 1); // (signed) number
+                placeholder(out, inList); prev = OPERAND;
+            }
+            else if ( c == '$' && i + 1 < len && Character.isDigit(sql.charAt(i + 1)) ) { // $1 (PostgreSQL) parameter
+                i++;
+                while ( i < len && Character.isDigit(sql.charAt(i)) ) i++;
+                placeholder(out, inList); prev = OPERAND;
+            }
+            else if ( c == '?' ) { // (JDBC) parameter
+                i++; placeholder(out, inList); prev = OPERAND;
+            }
+            else if ( Character.isLetter(c) || c == '_' ) { // identifier or key-word
+                final int start = i;
+                while ( i < len && isIdentifierChar(sql.charAt(i)) ) i++;
+                final String word = sql.substring(start, i);
+                if ( word.equalsIgnoreCase("null") || word.equalsIgnoreCase("true") || word.equalsIgnoreCase("false") ) {
+                    placeholder(out, inList); prev = OPERAND;
+                }
+                else {
+                    out.append(word);
+                    final String keyword = word.toUpperCase(Locale.ENGLISH);
+                    prev = EXPRESSION_KEYWORDS.contains(keyword) ? OPERATOR : OPERAND;
+                    keywordIn = keyword.equals("IN");
+                }
+            }
+            else if ( c == '(' ) {
+                out.append(c); i++; depth++; prev = OPERATOR;
+                if ( in && depth < 64 ) inLists |= 1L << depth;
+            }
+            else if ( c == ')' ) {
+                if ( depth < 64 ) inLists &= ~( 1L << depth );
+                if ( depth > 0 ) depth--;
+                out.append(c); i++; prev = OPERAND;
+            }
+            else {
+                out.append(c); i++; prev = OPERATOR;
+            }
+            in = keywordIn;
+        }
+        // trailing white-space (or a removed comment)
+        int end = out.length();
+        while ( end > 0 && out.charAt(end - 1) == ' ' ) end--;
+        out.setLength(end);
+        return out.toString();
+    }
+
+    private static int skipString(final String sql, int i) {
+        final int len = sql.length();
+        while ( i < len ) {
+            if ( sql.charAt(i) == '\'' ) {
+                if ( i + 1 < len && sql.charAt(i + 1) == '\'' ) i += 2;
+                else return i + 1;
+            }
+            else i++;
+        }
+        return len;
+    }
+
+    // 42, 4.2, .42, 4.2e-1 or 0x2A
+    private static int skipNumber(final String sql, int i) {
+        final int len = sql.length();
+        while ( i < len ) {
+            final char c = sql.charAt(i);
+            if ( Character.isLetterOrDigit(c) || c == '.' ) i++;
+            else if ( ( c == '-' || c == '+' ) && ( sql.charAt(i - 1) == 'e' || sql.charAt(i - 1) == 'E' ) &&
+                    i + 1 < len && Character.isDigit(sql.charAt(i + 1)) && ! isHex(sql, i) ) i++;
+            else break;
+        }
+        return i;
+    }
+
+    private static boolean isHex(final String sql, final int i) {
+        int start = i;
+        while ( start > 0 && Character.isLetterOrDigit(sql.charAt(start - 1)) ) start--;
+        return start + 1 < i && sql.charAt(start) == '0' && ( sql.charAt(start + 1) == 'x' || sql.charAt(start + 1) == 'X' );
+    }
+
+    private static boolean isDigit(final String sql, final int i) {
+        if ( i >= sql.length() ) return false;
+        final char c = sql.charAt(i);
+        return Character.isDigit(c) || ( c == '.' && i + 1 < sql.length() && Character.isDigit(sql.charAt(i + 1)) );
+    }
+
+    // collapses IN lists e.g. "IN (?, ?, ?)" into "IN (?)"
+    private static void placeholder(final StringBuilder out, final boolean inList) {
+        if ( inList ) {
+            int end = out.length();
+            while ( end > 0 && out.charAt(end - 1) == ' ' ) end--;
+            if ( end > 0 && out.charAt(end - 1) == ',' ) {
+                int prev = end - 1;
+                while ( prev > 0 && out.charAt(prev - 1) == ' ' ) prev--;
+                if ( prev > 0 && out.charAt(prev - 1) == '?' ) {
+                    out.setLength(prev); return;
+                }
+            }
+        }
+        out.append('?');
+    }
+
+    private static void space(final StringBuilder out) {
+        final int len = out.length();
+        if ( len > 0 && out.charAt(len - 1) != ' ' ) out.append(' ');
+    }
+
+    private static boolean isIdentifierChar(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.jcodings.Encoding;
+import org.jcodings.specific.UTF8Encoding;
 import org.jruby.Ruby;
 import org.jruby.RubyString;
 import org.jruby.util.ByteList;
@@ -65,6 +66,17 @@ public abstract class StringHelper {
         return RubyString.newString(runtime, byteList, enc);
     }
 
+    /**
+     * @param runtime
+     * @return whether strings are created as UTF-8 (Ruby's default internal or the Java default encoding),
+     * thus (raw) UTF-8 bytes can be used as they are
+     */
+    public static boolean isDefaultInternalUTF8(final Ruby runtime) {
+        Encoding enc = runtime.getDefaultInternalEncoding();
+        if (enc == null) enc = runtime.getEncodingService().getJavaDefault();
+        return enc == UTF8Encoding.INSTANCE;
+    }
+
     public static RubyString newDefaultInternalString(final Ruby runtime, final CharSequence str) {
         Encoding enc = runtime.getDefaultInternalEncoding();
         if (enc == null) enc = runtime.getEncodingService().getJavaDefault();
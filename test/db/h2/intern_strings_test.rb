@@ -0,0 +1,38 @@
+require 'db/h2'
+
+class H2InternStringsTest < Test::Unit::TestCase
+
+  def test_low_cardinality_strings_are_shared
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(intern_strings: true)
+      connection = ActiveRecord::Base.connection
+      connection.execute 'CREATE TABLE intern_test (id INT, status VARCHAR(20), name VARCHAR(50))'
+      values = (1..500).map { |i| "(#{i}, 'status #{i % 3}', 'name #{i}')" }
+      connection.execute "INSERT INTO intern_test VALUES #{values.join(', ')}"
+
+      rows = connection.exec_query('SELECT status, name FROM intern_test ORDER BY id').rows
+      statuses = rows.map(&:first)
+      assert_equal 3, statuses.map(&:object_id).uniq.size
+      assert statuses.all?(&:frozen?)
+      assert_equal [ 'status 1', 'status 2', 'status 0' ], statuses.first(3)
+
+      names = rows.map(&:last)
+      assert_equal 500, names.uniq.size
+      assert_equal 500, names.map(&:object_id).uniq.size
+      assert ! names.last.frozen? # high cardinality - no longer interned
+    ensure
+      connection.execute 'DROP TABLE IF EXISTS intern_test' if connection
+    end
+  end
+
+  def test_strings_not_shared_by_default
+    connection = ActiveRecord::Base.connection
+    connection.execute 'CREATE TABLE not_interned_test (status VARCHAR(20))'
+    connection.execute "INSERT INTO not_interned_test VALUES ('on'), ('on')"
+    statuses = connection.exec_query('SELECT status FROM not_interned_test').rows.map(&:first)
+    assert_equal 2, statuses.map(&:object_id).uniq.size
+  ensure
+    connection.execute 'DROP TABLE IF EXISTS not_interned_test'
+  end
+
+end
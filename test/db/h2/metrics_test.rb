@@ -0,0 +1,42 @@
+require 'db/h2'
+
+class H2MetricsTest < Test::Unit::TestCase
+
+  def test_query_stats
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(jdbc_metrics: true)
+      connection = ActiveRecord::Base.connection
+      connection.execute 'CREATE TABLE metrics_test (id INT, data VARCHAR(100))'
+      connection.exec_update "INSERT INTO metrics_test VALUES (1, 'uno')"
+      connection.exec_query 'SELECT * FROM metrics_test'
+
+      stats = connection.raw_connection.query_stats
+      assert stats[:query] >= 1
+      assert stats[:update] >= 1
+      assert stats[:rows] >= 1
+      assert_equal stats[:query] + stats[:update] + stats[:insert] + stats[:batch], stats[:execute_time][:count]
+      assert stats[:conversion_time][:max] >= stats[:conversion_time][:p50]
+
+      database_stats = connection.raw_connection.query_stats(:database)
+      assert database_stats[:query] >= stats[:query]
+    end
+  end
+
+  def test_database_metrics_registered_per_runtime
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(jdbc_metrics: true)
+      ActiveRecord::Base.connection.exec_query 'SELECT 1'
+
+      server = java.lang.management.ManagementFactory.getPlatformMBeanServer
+      runtime = JRuby.runtime.getRuntimeNumber
+      names = server.queryNames(javax.management.ObjectName.new("arjdbc:type=QueryMetrics,runtime=#{runtime},*"), nil)
+      assert ! names.empty?
+      assert names.any? { |name| server.getAttribute(name, 'QueryCount') >= 1 }
+    end
+  end
+
+  def test_query_stats_nil_without_metrics
+    assert_nil ActiveRecord::Base.connection.raw_connection.query_stats
+  end
+
+end
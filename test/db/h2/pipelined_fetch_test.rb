@@ -0,0 +1,51 @@
+require 'db/h2'
+
+class H2PipelinedFetchTest < Test::Unit::TestCase
+
+  def test_pipelined_fetch_maps_same_rows
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(pipelined_fetch: 128)
+      connection = ActiveRecord::Base.connection
+      connection.execute 'CREATE TABLE pipelined_test (id INT, data VARCHAR(100), amount DECIMAL(10,2), created_at TIMESTAMP, flag BOOLEAN)'
+      values = (1..1000).map { |i| "(#{i}, 'data #{i}', #{i}.5, '2020-01-01 10:00:00', #{i.even?})" }
+      connection.execute "INSERT INTO pipelined_test VALUES #{values.join(', ')}"
+      connection.execute 'INSERT INTO pipelined_test VALUES (NULL, NULL, NULL, NULL, NULL)'
+
+      result = connection.exec_query 'SELECT * FROM pipelined_test ORDER BY id NULLS LAST'
+      assert_equal 1001, result.rows.size
+      assert_equal [ 1, 'data 1', BigDecimal('1.5'), false ], result.rows.first.values_at(0, 1, 2, 4)
+      assert_equal [ 1000, 'data 1000', true ], result.rows[999].values_at(0, 1, 4)
+      assert_equal [ nil ] * 5, result.rows.last
+
+      assert_equal 1001, connection.select_value('SELECT COUNT(*) FROM pipelined_test')
+    end
+  end
+
+  class CountingExecutor
+    include java.util.concurrent.Executor
+    attr_reader :count
+    def initialize; @count = 0; end
+    def execute(task); @count += 1; java.lang.Thread.new(task).start; end
+  end
+
+  def test_pipelined_fetch_on_configured_executor
+    executor = CountingExecutor.new
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(pipelined_fetch: true, pipelined_fetch_executor: executor)
+      connection = ActiveRecord::Base.connection
+      assert_equal (1..100).to_a, connection.exec_query('SELECT X FROM SYSTEM_RANGE(1, 100)').rows.flatten
+      assert_equal 1, executor.count
+    end
+  end
+
+  def test_rejected_pipelined_fetch_maps_rows
+    executor = java.util.concurrent.Executors.newSingleThreadExecutor
+    executor.shutdown
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(pipelined_fetch: true, pipelined_fetch_executor: executor)
+      connection = ActiveRecord::Base.connection
+      assert_equal (1..100).to_a, connection.exec_query('SELECT X FROM SYSTEM_RANGE(1, 100)').rows.flatten
+    end
+  end
+
+end
@@ -0,0 +1,75 @@
+require 'db/h2'
+
+class H2PoolTest < Test::Unit::TestCase
+
+  def test_reconnect_reuses_pooled_connection
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(jdbc_pool_size: 2, jdbc_pool_keepalive: 60_000)
+      connection = ActiveRecord::Base.connection
+      raw_connection = connection.raw_connection
+      connection.execute 'SELECT 1'
+
+      stats = raw_connection.pool_stats
+      assert_equal 2, stats[:size]
+      created = stats[:created]
+
+      connection.reconnect! # returns the connection to the pool and leases it again
+      connection.execute 'SELECT 1'
+      assert_equal created, connection.raw_connection.pool_stats[:created]
+    end
+  end
+
+  def test_pooled_connection_state_reset
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(jdbc_pool_size: 1)
+      connection = ActiveRecord::Base.connection
+      connection.raw_connection.connection.setAutoCommit(false)
+      connection.reconnect!
+      assert connection.raw_connection.connection.getAutoCommit
+    end
+  end
+
+  def test_pooled_connection_reset_sql
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(jdbc_pool_size: 1, jdbc_pool_reset_sql: 'SET SCHEMA PUBLIC')
+      connection = ActiveRecord::Base.connection
+      connection.execute 'CREATE SCHEMA IF NOT EXISTS pool_test'
+      connection.execute 'SET SCHEMA pool_test'
+      connection.reconnect!
+      assert_equal 'PUBLIC', connection.select_value('SELECT CURRENT_SCHEMA')
+      connection.execute 'DROP SCHEMA pool_test'
+    end
+  end
+
+  def test_pooled_meta_data_returns_leased_connection
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(jdbc_pool_size: 1)
+      jdbc_connection = ActiveRecord::Base.connection.raw_connection.connection
+      assert_equal jdbc_connection, jdbc_connection.getMetaData.getConnection
+    end
+  end
+
+  def test_pool_not_shared_with_different_properties
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(jdbc_pool_size: 1)
+      pool_stats = ActiveRecord::Base.connection.raw_connection.pool_stats
+      assert_equal 1, pool_stats[:leased]
+
+      other_model = Class.new(ActiveRecord::Base) do
+        self.abstract_class = true
+        def self.name; 'OtherPoolModel' end
+      end
+      other_model.establish_connection config.merge(jdbc_pool_size: 1, properties: { 'LOCK_TIMEOUT' => '5000' })
+      begin # would time out waiting for the (single) connection if the pool was shared
+        assert_equal 1, other_model.connection.raw_connection.pool_stats[:created]
+      ensure
+        other_model.remove_connection
+      end
+    end
+  end
+
+  def test_pool_stats_nil_without_pool
+    assert_nil ActiveRecord::Base.connection.raw_connection.pool_stats
+  end
+
+end
@@ -0,0 +1,59 @@
+require 'db/h2'
+
+class H2QuerySamplerTest < Test::Unit::TestCase
+
+  def test_query_samples
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(query_sampler_size: 10, slow_query_threshold: 60_000)
+      connection = ActiveRecord::Base.connection
+      connection.execute 'CREATE TABLE sampler_test (id INT, data VARCHAR(100))'
+      connection.exec_update "INSERT INTO sampler_test VALUES (1, 'uno')"
+      connection.raw_connection.reset_query_samples
+      connection.exec_query 'SELECT * FROM sampler_test WHERE id = 1'
+      connection.exec_query 'SELECT * FROM sampler_test WHERE id = 2'
+
+      samples = connection.raw_connection.query_samples
+      assert_equal 1, samples.size
+      sample = samples.first
+      assert_equal 'SELECT * FROM sampler_test WHERE id = ?', sample[:sql]
+      assert_equal 2, sample[:count]
+      assert_equal 1, sample[:rows]
+      assert sample[:max_time] >= sample[:mean_time]
+
+      assert_equal [], connection.raw_connection.slow_queries
+      assert_match(/SELECT \* FROM sampler_test WHERE id = \?/, connection.raw_connection.dump_query_samples)
+    end
+  end
+
+  def test_query_samples_negative_limit
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(query_sampler_size: 10)
+      raw_connection = ActiveRecord::Base.connection.raw_connection
+      assert_raise(ArgumentError) { raw_connection.query_samples(-1) }
+      assert_raise(ArgumentError) { raw_connection.dump_query_samples(-1) }
+      assert_equal [], raw_connection.query_samples(0)
+    end
+  end
+
+  def test_new_shapes_inherit_evicted_time
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(query_sampler_size: 10)
+      connection = ActiveRecord::Base.connection
+      raw_connection = connection.raw_connection
+      raw_connection.reset_query_samples
+      12.times { |i| connection.exec_query "SELECT #{i} AS c#{i}" } # distinct shapes
+
+      samples = raw_connection.query_samples
+      assert samples.size <= 10
+      newest = samples.find { |sample| sample[:sql] == 'SELECT ? AS c11' }
+      assert newest, "newest shape evicted: #{samples.map { |sample| sample[:sql] }.inspect}"
+      assert newest[:error] > 0
+    end
+  end
+
+  def test_query_samples_nil_without_sampler
+    assert_nil ActiveRecord::Base.connection.raw_connection.query_samples
+    assert_nil ActiveRecord::Base.connection.raw_connection.slow_queries
+  end
+
+end
@@ -0,0 +1,97 @@
+require 'db/h2'
+
+class H2ReplicaTest < Test::Unit::TestCase
+
+  def test_reads_routed_to_replica
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(replicas: [ 'jdbc:h2:mem:replica_test' ],
+                                                           replica_reads: true, replica_sticky_time: 0)
+      connection = ActiveRecord::Base.connection
+      connection.execute 'CREATE TABLE IF NOT EXISTS primary_only (id INT)'
+      begin
+        # the table does not exist on the (empty in-memory) replica
+        assert_raise(ActiveRecord::StatementInvalid) { connection.exec_query 'SELECT * FROM primary_only' }
+        stats = connection.raw_connection.replica_stats
+        assert_equal 1, stats.size
+        assert stats.first[:healthy]
+        assert_equal 1, stats.first[:requests]
+
+        connection.transaction do # reads within a transaction stay on the primary
+          assert_equal [], connection.exec_query('SELECT * FROM primary_only').rows
+        end
+      ensure
+        connection.execute 'DROP TABLE primary_only'
+      end
+    end
+  end
+
+  def test_reads_stay_on_primary_unless_opted_in
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(replicas: [ 'jdbc:h2:mem:replica_test' ])
+      connection = ActiveRecord::Base.connection
+      assert_equal [ [ 1 ] ], connection.exec_query('SELECT 1').rows
+      assert_equal 0, connection.raw_connection.replica_stats.first[:requests]
+
+      connection.raw_connection.read_only = true
+      begin
+        connection.exec_query('SELECT 1')
+        assert_equal 1, connection.raw_connection.replica_stats.first[:requests]
+      ensure
+        connection.raw_connection.read_only = false
+      end
+    end
+  end
+
+  def test_reads_stay_on_primary_after_write
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(replicas: [ 'jdbc:h2:mem:replica_test' ],
+                                                           replica_reads: true, replica_sticky_time: 60_000)
+      connection = ActiveRecord::Base.connection
+      connection.exec_query('SELECT 1')
+      assert_equal 1, connection.raw_connection.replica_stats.first[:requests]
+
+      connection.execute 'CREATE TABLE IF NOT EXISTS primary_only (id INT)'
+      begin
+        assert_equal [], connection.exec_query('SELECT * FROM primary_only').rows # not yet on the replica
+        assert_equal 1, connection.raw_connection.replica_stats.first[:requests]
+      ensure
+        connection.execute 'DROP TABLE primary_only'
+      end
+    end
+  end
+
+  def test_replica_connect_keeps_statement_cache
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(replicas: [ 'jdbc:h2:mem:replica_test' ],
+                                                           jdbc_statement_cache_size: 10, replica_sticky_time: 0)
+      raw_connection = ActiveRecord::Base.connection.raw_connection
+      raw_connection.execute_prepared_update('CREATE TABLE IF NOT EXISTS cache_keep (id INT)', [])
+      raw_connection.execute_prepared_update('DELETE FROM cache_keep', [])
+      assert_equal 2, raw_connection.statement_cache_stats[:size]
+
+      raw_connection.read_only = true
+      begin
+        assert_equal [ [ 1 ] ], raw_connection.execute_query('SELECT 1').rows
+        assert_equal 1, raw_connection.replica_stats.first[:requests]
+        assert_equal 2, raw_connection.statement_cache_stats[:size] # primary statements not closed
+      ensure
+        raw_connection.read_only = false
+        raw_connection.execute 'DROP TABLE cache_keep'
+      end
+    end
+  end
+
+  def test_unreachable_replica_gets_ejected
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(replicas: [ 'jdbc:h2:tcp://127.0.0.1:1/missing' ],
+                                                           replica_reads: true)
+      connection = ActiveRecord::Base.connection
+      assert_equal [ [ 1 ] ], connection.exec_query('SELECT 1').rows # primary fallback
+
+      stats = connection.raw_connection.replica_stats
+      assert_equal false, stats.first[:healthy]
+      assert_equal 1, stats.first[:ejections]
+    end
+  end
+
+end
@@ -0,0 +1,103 @@
+require 'db/h2'
+
+class H2RetryTest < Test::Unit::TestCase
+
+  def test_retry_stats
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(retry_attempts: 3, retry_backoff: 1, retry_sql_states: '40001, 08')
+      stats = ActiveRecord::Base.connection.raw_connection.retry_stats
+      assert_equal 3, stats[:max_retries]
+      assert_equal 0, stats[:retries]
+      assert_nil stats[:circuit]
+    end
+  end
+
+  def test_circuit_breaker_stays_closed_on_statement_errors
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(circuit_breaker_threshold: 1, circuit_breaker_timeout: 1_000)
+      connection = ActiveRecord::Base.connection
+      2.times do
+        assert_raise(ActiveRecord::StatementInvalid) { connection.execute 'SELECT * FROM a_missing_table' }
+      end
+      connection.execute 'SELECT 1'
+
+      stats = connection.raw_connection.retry_stats
+      assert_equal :closed, stats[:circuit]
+      assert_equal 0, stats[:trips]
+    end
+  end
+
+  def test_retry_backoff
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(retry_attempts: 20, retry_backoff: 20, retry_max_backoff: 20, retry_sql_states: '42')
+      raw_connection = ActiveRecord::Base.connection.raw_connection
+      started = Time.now
+      assert_raise(ActiveRecord::StatementInvalid) { raw_connection.execute 'SELECT * FROM a_missing_table' }
+      elapsed = Time.now - started
+      assert_equal 20, raw_connection.retry_stats[:retries]
+      # 20 random (0 - 20ms) backoffs
+      assert elapsed > 0.05, "retried too fast: #{elapsed}"
+      assert elapsed < 2, "retried too slow: #{elapsed}"
+    end
+  end
+
+  def test_retry_backoff_max
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(retry_attempts: 3, retry_backoff: 60_000, retry_max_backoff: 20, retry_sql_states: '42')
+      raw_connection = ActiveRecord::Base.connection.raw_connection
+      started = Time.now
+      assert_raise(ActiveRecord::StatementInvalid) { raw_connection.execute 'SELECT * FROM a_missing_table' }
+      assert Time.now - started < 2, "backoff not limited by retry_max_backoff"
+      assert_equal 3, raw_connection.retry_stats[:retries]
+    end
+  end
+
+  def test_circuit_breaker_trips_and_recovers
+    server = start_tcp_server
+    port = server.getPort
+    with_connection_removed do |config|
+      url = "jdbc:h2:tcp://localhost:#{port}/mem:circuit_breaker"
+      ActiveRecord::Base.establish_connection config.merge(url: url, circuit_breaker_threshold: 2, circuit_breaker_timeout: 200)
+      raw_connection = ActiveRecord::Base.connection.raw_connection
+      raw_connection.execute 'SELECT 1'
+
+      server.stop # database down
+      2.times do
+        assert_raise(ActiveRecord::StatementInvalid) { raw_connection.execute 'SELECT 1' }
+      end
+      stats = raw_connection.retry_stats
+      assert_equal :open, stats[:circuit]
+      assert_equal 1, stats[:trips]
+
+      error = assert_raise(ActiveRecord::ConnectionNotEstablished) { raw_connection.execute 'SELECT 1' }
+      assert_match(/circuit breaker open/, error.message)
+      assert_equal 1, raw_connection.retry_stats[:rejections]
+
+      sleep 0.25 # half-open: a failed trial opens the breaker again
+      assert_raise(ActiveRecord::StatementInvalid) { raw_connection.execute 'SELECT 1' }
+      stats = raw_connection.retry_stats
+      assert_equal :open, stats[:circuit]
+      assert_equal 2, stats[:trips]
+      assert_raise(ActiveRecord::ConnectionNotEstablished) { raw_connection.execute 'SELECT 1' }
+
+      server = start_tcp_server(port) # database back up
+      sleep 0.25 # half-open: a successful trial closes the breaker
+      raw_connection.reconnect!
+      raw_connection.execute 'SELECT 1'
+      stats = raw_connection.retry_stats
+      assert_equal :closed, stats[:circuit]
+      assert_equal 2, stats[:trips]
+      assert_equal 2, stats[:rejections]
+      raw_connection.execute 'SELECT 1'
+    end
+  ensure
+    server.stop if server
+  end
+
+  private
+
+  def start_tcp_server(port = 0)
+    Java::OrgH2Tools::Server.createTcpServer('-tcpPort', port.to_s, '-ifNotExists').start
+  end
+
+end
@@ -0,0 +1,80 @@
+require 'db/h2'
+
+class H2SchemaCacheTest < Test::Unit::TestCase
+
+  def test_ddl_p
+    connection_class = ActiveRecord::ConnectionAdapters::JdbcConnection
+    assert connection_class.ddl?('CREATE TABLE things (id INT)')
+    assert connection_class.ddl?(' alter table things add name VARCHAR(100)')
+    assert ! connection_class.ddl?('SELECT * FROM things')
+    assert ! connection_class.ddl?('INSERT INTO things VALUES (1)')
+    assert connection_class.ddl?("/* app:web */ DROP TABLE things")
+    assert connection_class.ddl?("-- migration\n  CREATE INDEX things_name ON things (name)")
+    assert ! connection_class.ddl?("/* DROP */ SELECT 1")
+    assert ! connection_class.ddl?('/* unterminated')
+    assert ! connection_class.ddl?('')
+  end
+
+  def test_schema_cache_cleared_on_ddl
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(schema_cache_size: 100)
+      connection = ActiveRecord::Base.connection
+      raw_connection = connection.raw_connection
+      connection.execute 'CREATE TABLE cached_things (id INT PRIMARY KEY, name VARCHAR(100))'
+      begin
+        columns = raw_connection.columns('cached_things')
+        assert_equal %w[ id name ], columns.map(&:name)
+        assert_not_same columns, raw_connection.columns('cached_things')
+        columns.first.name << '_changed'
+        assert_equal %w[ id name ], raw_connection.columns('cached_things').map(&:name)
+        assert raw_connection.table_exists?('cached_things')
+
+        connection.execute 'ALTER TABLE cached_things ADD extra INT'
+        assert_equal %w[ id name extra ], raw_connection.columns('cached_things').map(&:name)
+      ensure
+        connection.execute 'DROP TABLE cached_things'
+      end
+      assert ! raw_connection.table_exists?('cached_things')
+    end
+  end
+
+  def test_schema_cache_does_not_cache_missing_table
+    cached_model = Class.new(ActiveRecord::Base) do
+      self.abstract_class = true
+      def self.name; 'CachedModel' end
+    end
+    cached_model.establish_connection current_connection_config.merge(schema_cache_size: 100)
+    raw_connection = cached_model.connection.raw_connection
+    begin
+      assert ! raw_connection.table_exists?('missing_things')
+      # DDL executed by another (non caching) connection
+      ActiveRecord::Base.connection.execute 'CREATE TABLE missing_things (id INT)'
+      assert raw_connection.table_exists?('missing_things')
+    ensure
+      ActiveRecord::Base.connection.execute 'DROP TABLE IF EXISTS missing_things'
+      cached_model.remove_connection
+    end
+  end
+
+  def test_schema_snapshot
+    connection = ActiveRecord::Base.connection
+    connection.execute 'CREATE TABLE snapshot_owners (id INT PRIMARY KEY, name VARCHAR(100))'
+    connection.execute 'CREATE TABLE snapshot_things (id INT PRIMARY KEY, owner_id INT, name VARCHAR(100))'
+    connection.execute 'CREATE INDEX index_snapshot_things_on_name ON snapshot_things (name)'
+    connection.execute 'ALTER TABLE snapshot_things ADD CONSTRAINT fk_snapshot_things_owner FOREIGN KEY (owner_id) REFERENCES snapshot_owners (id)'
+    begin
+      snapshot = connection.schema_snapshot
+      things = snapshot['snapshot_things']
+      assert_equal %w[ id owner_id name ], things[:columns].map(&:name)
+      assert_equal %w[ id ], things[:primary_keys]
+      index = things[:indexes].find { |idx| idx.name == 'index_snapshot_things_on_name' }
+      assert_equal %w[ name ], index.columns
+      assert_equal [ 'snapshot_owners' ], things[:foreign_keys].map(&:to_table)
+      assert_equal %w[ id name ], snapshot['snapshot_owners'][:columns].map(&:name)
+    ensure
+      connection.execute 'DROP TABLE snapshot_things'
+      connection.execute 'DROP TABLE snapshot_owners'
+    end
+  end
+
+end
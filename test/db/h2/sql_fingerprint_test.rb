@@ -0,0 +1,46 @@
+require 'db/h2'
+
+class H2SqlFingerprintTest < Test::Unit::TestCase
+
+  def test_literals_replaced
+    assert_fingerprint "SELECT * FROM users WHERE name = ? AND active = ? AND deleted_at IS ?",
+                       "SELECT * FROM users WHERE name = 'it''s' AND active = true AND deleted_at IS NULL"
+    assert_fingerprint "SELECT * FROM t WHERE a = ? AND b = ? AND c = ?", "SELECT * FROM t WHERE a = 4.2 AND b = 0x2A AND c = 1e-3"
+  end
+
+  def test_in_lists_collapsed
+    assert_fingerprint "SELECT * FROM users WHERE id IN (?)", "SELECT * FROM users WHERE id IN (1, 2, 3)"
+    assert_fingerprint "SELECT * FROM users WHERE id in (?)", "SELECT * FROM users WHERE id in (?,?)"
+    assert_fingerprint "SELECT * FROM t WHERE a IN (SELECT b FROM u WHERE c IN (?)) AND d = ?",
+                       "SELECT * FROM t WHERE a IN (SELECT b FROM u WHERE c IN (1, 2)) AND d = 3"
+  end
+
+  def test_other_lists_not_collapsed
+    assert_fingerprint "INSERT INTO t (a, b, c) VALUES (?, ?, ?)", "INSERT INTO t (a, b, c) VALUES (1, 'x', ?)"
+    assert_fingerprint "SELECT ?, ?", "SELECT 1, 2"
+    assert_fingerprint "SELECT COALESCE(a, ?, ?) FROM t WHERE b IN (?)", "SELECT COALESCE(a, 1, 2) FROM t WHERE b IN (1, 2)"
+  end
+
+  def test_negative_numbers
+    assert_fingerprint "SELECT ? FROM t WHERE a = ? AND b IN (?)", "SELECT -1 FROM t WHERE a = -2 AND b IN (-1, -2)"
+    assert_fingerprint "SELECT a - ?, (a) -?, ? - ? FROM t", "SELECT a - 1, (a) -1, ? - 2 FROM t"
+    assert_fingerprint "SELECT CASE WHEN a THEN ? ELSE ? END", "SELECT CASE WHEN a THEN -1 ELSE +2 END"
+  end
+
+  def test_numbered_parameters
+    assert_fingerprint "SELECT * FROM t WHERE a = ? AND b IN (?)", "SELECT * FROM t WHERE a = $1 AND b IN ($2, $3)"
+    assert_fingerprint "SELECT a$1, t2.b FROM t2", "SELECT a$1, t2.b FROM t2"
+  end
+
+  def test_identifiers_and_comments
+    assert_fingerprint 'SELECT "1", `2` FROM t', "SELECT \"1\", `2`  FROM t -- 3"
+    assert_fingerprint "SELECT a FROM t WHERE b = ?", "SELECT /* 1 */ a\n  FROM t\n WHERE b = 2 /* trailing */"
+  end
+
+  private
+
+  def assert_fingerprint(expected, sql)
+    assert_equal expected, Java::ArjdbcUtil::SqlFingerprint.of(sql)
+  end
+
+end
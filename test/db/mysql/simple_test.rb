@@ -432,6 +432,31 @@ class MySQLSimpleTest < Test::Unit::TestCase
     connection.reconnect!
   end
 
+  def test_multibyte_strings_read_as_utf8
+    connection.execute 'CREATE TEMPORARY TABLE utf8_strings (name VARCHAR(100), body TEXT) DEFAULT CHARSET=utf8mb4'
+    connection.execute "INSERT INTO utf8_strings VALUES ('Kačka 🦆', 'žluťoučký kůň ✓')"
+
+    row = connection.exec_query('SELECT name, body FROM utf8_strings').rows.first
+    assert_equal [ 'Kačka 🦆', 'žluťoučký kůň ✓' ], row
+    assert_equal [ Encoding::UTF_8 ] * 2, row.map(&:encoding)
+    assert row.all?(&:valid_encoding?)
+  ensure
+    connection.execute 'DROP TEMPORARY TABLE IF EXISTS utf8_strings'
+  end
+
+  def test_columnar_result_unsigned_bigint
+    connection.execute 'CREATE TABLE unsigned_numbers (big BIGINT UNSIGNED, small INT UNSIGNED)'
+    connection.execute "INSERT INTO unsigned_numbers VALUES (#{2**64 - 1}, #{2**32 - 1}), (NULL, NULL)"
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(columnar_results: true)
+
+      result = ActiveRecord::Base.connection.exec_query('SELECT big, small FROM unsigned_numbers')
+      assert_equal [ [ 2**64 - 1, 2**32 - 1 ], [ nil, nil ] ], result.rows
+    end
+  ensure
+    connection.execute 'DROP TABLE IF EXISTS unsigned_numbers'
+  end
+
   protected
 
   def with_bulk_change_table(table)
@@ -0,0 +1,40 @@
+require 'db/postgres'
+
+class PostgreSQLColumnarResultTest < Test::Unit::TestCase
+
+  def setup
+    super
+    connection.execute('drop table if exists ex')
+    connection.execute('create table ex(id serial primary key, number integer, amount float, data character varying(255))')
+    connection.execute("INSERT INTO ex (number, amount, data) VALUES (1, 1.5, 'one'), (NULL, NULL, NULL), (3, 3.5, 'three')")
+  end
+
+  def teardown
+    connection.execute('drop table if exists ex')
+    super
+  end
+
+  def test_columnar_result
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(columnar_results: true)
+
+      result = ActiveRecord::Base.connection.exec_query('SELECT number, amount, data FROM ex ORDER BY id')
+      assert_kind_of ActiveRecord::Result, result
+      assert_equal 3, result.length
+      assert_equal %w[ number amount data ], result.columns
+      assert_equal [ [ 1, 1.5, 'one' ], [ nil, nil, nil ], [ 3, 3.5, 'three' ] ], result.rows
+      assert_equal({ 'number' => 3, 'amount' => 3.5, 'data' => 'three' }, result[2])
+    end
+  end
+
+  def test_columnar_result_cast_values
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(columnar_results: true)
+
+      result = ActiveRecord::Base.connection.exec_query('SELECT number FROM ex ORDER BY id')
+      assert_equal [ 1, nil, 3 ], result.cast_values
+      assert_equal [ [ 1 ], [ nil ], [ 3 ] ], result.rows
+    end
+  end
+
+end
@@ -10,6 +10,20 @@ class PostgreSQLConnectionTest < Test::Unit::TestCase
     end
   end
 
+  def test_active_with_validation_interval
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection config.merge(validation_interval: 60_000)
+      raw_connection = ActiveRecord::Base.connection.raw_connection
+      raw_connection.execute_query('SELECT 1')
+      assert raw_connection.active?
+
+      raw_connection.disconnect!
+      assert ! raw_connection.active?
+      raw_connection.reconnect!
+      assert raw_connection.active?
+    end
+  end
+
   context 'with table' do
 
     def setup
@@ -37,6 +51,80 @@ class PostgreSQLConnectionTest < Test::Unit::TestCase
       assert_equal [ [ 5150, 'some data' ] ], result
     end
 
+    def test_statement_cache
+      with_connection_removed do |config|
+        ActiveRecord::Base.establish_connection config.merge(jdbc_statement_cache_size: 1)
+        raw_connection = ActiveRecord::Base.connection.raw_connection
+
+        3.times { |i| raw_connection.execute_prepared_update('UPDATE ex SET number = ? WHERE id = ?', [ i, 1 ]) }
+        stats = raw_connection.statement_cache_stats
+        assert_equal 1, stats[:misses]
+        assert_equal 2, stats[:hits]
+        assert_equal 1, stats[:size]
+
+        raw_connection.execute_prepared_update('DELETE FROM ex WHERE id = ?', [ 1 ])
+        stats = raw_connection.statement_cache_stats
+        assert_equal 1, stats[:evictions]
+        assert_equal 1, stats[:size]
+
+        raw_connection.clear_statement_cache
+        assert_equal 0, raw_connection.statement_cache_stats[:size]
+      end
+    end
+
+    def test_statement_cache_bind_plan
+      with_connection_removed do |config|
+        ActiveRecord::Base.establish_connection config.merge(jdbc_statement_cache_size: 10)
+        connection = ActiveRecord::Base.connection
+        connection.execute "INSERT INTO ex (number, data) VALUES (42, 'plan')"
+        sql = 'SELECT data FROM ex WHERE number = ?'
+
+        integer = ActiveRecord::Type::Integer.new
+        3.times do
+          bind = ActiveRecord::Relation::QueryAttribute.new('number', 42, integer)
+          assert_equal [ [ 'plan' ] ], connection.exec_query(sql, 'SQL', [ bind ]).rows
+        end
+        # same statement, another type (object) at the same index
+        bind = ActiveRecord::Relation::QueryAttribute.new('number', '42', ActiveRecord::Type::Decimal.new)
+        assert_equal [ [ 'plan' ] ], connection.exec_query(sql, 'SQL', [ bind ]).rows
+        assert connection.raw_connection.statement_cache_stats[:hits] >= 3
+      end
+    end
+
+    def test_ar_cached_statement_bind_plan
+      connection = ActiveRecord::Base.connection
+      connection.execute "INSERT INTO ex (number, data) VALUES (43, 'cached')"
+      sql = 'SELECT data FROM ex WHERE number = ?'
+
+      integer = ActiveRecord::Type::Integer.new
+      3.times do # the statement is cached by AR (no jdbc_statement_cache_size)
+        bind = ActiveRecord::Relation::QueryAttribute.new('number', 43, integer)
+        assert_equal [ [ 'cached' ] ], connection.internal_exec_query(sql, 'SQL', [ bind ], prepare: true).rows
+      end
+      statement = connection.instance_variable_get(:@statements).map(&:last).last
+      assert_not_nil statement
+
+      connection.clear_cache! # AR's pool closes the statement (dropping its plan)
+      assert statement.isClosed
+      bind = ActiveRecord::Relation::QueryAttribute.new('number', 43, integer)
+      assert_equal [ [ 'cached' ] ], connection.internal_exec_query(sql, 'SQL', [ bind ], prepare: true).rows
+    end
+
+    def test_exec_batch_prepared
+      binds_list = [ [ 1, 'one' ], [ 2, 'two' ], [ 3, 'three' ] ].map do |number, data|
+        [ [ nil, number ], [ nil, data ] ]
+      end
+      counts, keys = connection.exec_batch_prepared 'INSERT INTO ex (number, data) VALUES (?, ?)', 'SQL', binds_list, pk: 'id', batch_size: 2
+      assert_equal 3, counts.size
+      assert_equal 3, keys.rows.size
+      assert_equal keys.rows.flatten.sort, connection.select_values('SELECT id FROM ex').sort
+
+      counts, keys = connection.exec_batch_prepared 'UPDATE ex SET data = ? WHERE number = ?', 'SQL', [ [ [ nil, 'uno' ], [ nil, 1 ] ] ]
+      assert_equal [ 1 ], counts
+      assert_nil keys
+      assert_equal 'uno', connection.select_value('SELECT data FROM ex WHERE number = 1')
+    end
+
   end
 
   private
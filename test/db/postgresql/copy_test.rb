@@ -0,0 +1,51 @@
+require 'db/postgres'
+require 'stringio'
+
+class PostgreSQLCopyTest < Test::Unit::TestCase
+
+  def setup
+    super
+    connection.execute('drop table if exists ex')
+    connection.execute('create table ex(id serial primary key, number integer, data character varying(255))')
+  end
+
+  def teardown
+    connection.execute('drop table if exists ex')
+    super
+  end
+
+  def test_copy_from_rows
+    rows = [ [ 1, 'one' ], [ 2, "quoted \"two\", with\nnew line" ], [ nil, nil ], [ 4, '' ] ]
+    [ :csv, :text ].each do |format|
+      connection.execute('delete from ex')
+      assert_equal 4, connection.copy_from(:ex, [ :number, :data ], rows.each, format: format)
+      assert_equal rows, connection.select_rows('SELECT number, data FROM ex ORDER BY id')
+    end
+  end
+
+  def test_copy_from_io
+    io = StringIO.new((1..3000).map { |i| "#{i},data #{i}\n" }.join)
+    assert_equal 3000, connection.copy_from('ex', %w[ number data ], io)
+    assert_equal 3000, connection.select_value('SELECT count(*) FROM ex')
+    assert_equal 'data 3000', connection.select_value('SELECT data FROM ex WHERE number = 3000')
+  end
+
+  def test_copy_to
+    connection.execute("INSERT INTO ex (number, data) VALUES (1, 'one'), (2, NULL), (3, 'three, 3')")
+
+    io = StringIO.new
+    assert_equal 3, connection.copy_to('SELECT number, data FROM ex ORDER BY id', io)
+    assert_equal "1,one\n2,\n3,\"three, 3\"\n", io.string
+
+    chunks = []
+    assert_equal 3, connection.copy_to(:ex, format: :text) { |chunk| chunks << chunk }
+    assert_equal 3, chunks.join.lines.size
+    assert_equal Encoding::UTF_8, chunks.first.encoding
+  end
+
+  def test_copy_from_unsupported_format
+    assert_raise(ArgumentError) { connection.copy_from(:ex, [ :number ], [ [ 1 ] ], format: :xml) }
+    assert_raise(ArgumentError) { connection.copy_from(:ex, [ :number ], [ [ 1 ] ], format: :binary) }
+  end
+
+end
@@ -339,6 +339,18 @@ class PostgresDeserializationTest < Test::Unit::TestCase
 
     assert_equal expected.sample_float, actual.sample_float
   end
+
+  def test_exec_query_stream_column_types
+    DbType.create! :sample_float => 1.5, :sample_binary => "\x01\x02"
+    sql = 'SELECT sample_float, sample_binary FROM db_types'
+
+    expected = connection.exec_query(sql)
+    batches = connection.exec_query_stream(sql, 'SQL', [], batch_size: 10).to_a
+    assert_equal 1, batches.size
+    assert_equal expected.column_types.keys, batches.first.column_types.keys
+    assert_equal expected.column_types.values.map(&:class), batches.first.column_types.values.map(&:class)
+    assert_equal expected.cast_values, batches.first.cast_values
+  end
 end
 
 class PostgresHasManyThroughTest < Test::Unit::TestCase
@@ -8,4 +8,20 @@ class SQLite3SchemaDumpTest < Test::Unit::TestCase
     output = standard_dump
     assert_no_match %r{create_table "sqlite_sequence"}, output
   end
+
+  def test_schema_snapshot_table_without_indexes
+    connection = ActiveRecord::Base.connection
+    connection.execute 'CREATE TABLE snapshot_plain (id INTEGER PRIMARY KEY, name VARCHAR(100))'
+    connection.execute 'CREATE TABLE snapshot_indexed (id INTEGER PRIMARY KEY, name VARCHAR(100))'
+    connection.execute 'CREATE INDEX index_snapshot_indexed_on_name ON snapshot_indexed (name)'
+    begin
+      snapshot = connection.schema_snapshot
+      assert_equal [], snapshot['snapshot_plain'][:indexes]
+      assert_equal %w[ id ], snapshot['snapshot_plain'][:primary_keys]
+      assert_equal [ 'index_snapshot_indexed_on_name' ], snapshot['snapshot_indexed'][:indexes].map(&:name)
+    ensure
+      connection.execute 'DROP TABLE snapshot_plain'
+      connection.execute 'DROP TABLE snapshot_indexed'
+    end
+  end
 end
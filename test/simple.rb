@@ -940,6 +940,44 @@ module SimpleTestMethods
     assert_equal 0, result.rows.size
   end
 
+  def test_exec_query_stream
+    Entry.delete_all
+    5.times { |i| Entry.create! :title => "stream#{i}" }
+
+    batches = Entry.connection.exec_query_stream('SELECT title FROM entries ORDER BY id', nil, [], batch_size: 2)
+    assert_kind_of Enumerator, batches
+
+    batches = batches.to_a
+    assert_equal [ 2, 2, 1 ], batches.map(&:length)
+    assert_instance_of ActiveRecord::Result, batches.first
+    assert_equal %w[ stream0 stream1 stream2 stream3 stream4 ], batches.flat_map { |result| result.rows.map(&:first) }
+  end
+
+  def test_exec_query_async
+    Entry.delete_all
+    Entry.create! :title => 'async'
+
+    future = Entry.connection.exec_query_async('SELECT title FROM entries')
+    result = future.value
+    assert future.complete?
+    assert_instance_of ActiveRecord::Result, result
+    assert_equal [ [ 'async' ] ], result.rows
+
+    future = Entry.connection.exec_query_async('SELECT * FROM a_missing_table')
+    assert_raise(ActiveRecord::StatementInvalid) { future.value }
+  end
+
+  def test_exec_query_async_in_transaction
+    Entry.delete_all
+    Entry.transaction do
+      Entry.create! :title => 'uncommitted'
+      # runs on the same connection (right away) to see the transaction's changes
+      future = Entry.connection.exec_query_async('SELECT title FROM entries')
+      assert future.complete?
+      assert_equal [ [ 'uncommitted' ] ], future.value.rows
+    end
+  end
+
   def test_execute_insert
     connection.execute("INSERT INTO entries (title) VALUES ('inserted-title')")
     assert_not_nil Entry.find_by(title: 'inserted-title')